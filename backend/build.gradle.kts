@@ -53,3 +53,26 @@ dependencies {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// Microbenchmarks JMH en src/jmh (no forman parte de build ni de test): ./gradlew jmh
+// Argumentos de JMH con -PjmhArgs, p. ej. -PjmhArgs="PdfRenderBenchmark -f 1 -wi 3 -i 5"
+val jmh by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH microbenchmarks."
+    group = "verification"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args((findProperty("jmhArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList<String>())
+}
@@ -0,0 +1,90 @@
+package com.venta.backend.cotizacion.infraestructura.pdf;
+
+import com.venta.backend.venta.entities.Venta;
+import com.venta.backend.venta.enums.MetodoPago;
+import com.venta.backend.venta.enums.OrigenVenta;
+import com.venta.backend.venta.enums.VentaEstado;
+import com.venta.backend.venta.pdf.VentaPdfTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receipt rendering with the reused per-thread renderer and linked stylesheet, against
+ * the previous setup: a new ITextRenderer per call and the CSS inlined in every document.
+ *
+ * Run with: ./gradlew jmh -PjmhArgs="PdfRenderBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfRenderBenchmark {
+
+    @Param({"5", "50"})
+    private int lines;
+
+    private FlyingSaucerPdfAdapter adapter;
+    private String linkedHtml;
+    private String inlineHtml;
+
+    @Setup
+    public void setUp() {
+        adapter = new FlyingSaucerPdfAdapter("");
+
+        Venta venta = Venta.builder()
+                .numVenta("V-000123")
+                .origenVenta(OrigenVenta.DIRECTA)
+                .estado(VentaEstado.CONFIRMADA)
+                .metodoPago(MetodoPago.EFECTIVO)
+                .fechaVentaCreada(LocalDate.of(2025, 3, 14))
+                .build();
+        for (long product = 1; product <= lines; product++) {
+            venta.agregarOActualizarItem(product, "Producto " + product, new BigDecimal("19.90"), (int) product);
+        }
+        linkedHtml = new VentaPdfTemplate().generateHtml(venta, null, null);
+
+        // Same document as the templates produced before: stylesheet inlined in a style element
+        String stylesheet = PdfStylesheets.uri("venta.css");
+        String css = new String(PdfStylesheets.open(stylesheet), StandardCharsets.UTF_8);
+        inlineHtml = linkedHtml.replace(
+                "<link rel='stylesheet' type='text/css' href='" + stylesheet + "'/>",
+                "<style>" + css + "</style>");
+        if (inlineHtml.equals(linkedHtml)) {
+            throw new IllegalStateException("Receipt template no longer links venta.css");
+        }
+    }
+
+    @Benchmark
+    public byte[] reusedRenderer() {
+        return adapter.generatePdf(linkedHtml);
+    }
+
+    @Benchmark
+    public byte[] rendererPerCall() throws Exception {
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            ITextRenderer renderer = new ITextRenderer();
+            renderer.setDocumentFromString(inlineHtml);
+            renderer.layout();
+            renderer.createPDF(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.venta.backend.Reporte;
+
+public enum EstadoReporteJob {
+    PENDIENTE,
+    EN_PROCESO,
+    COMPLETADO,
+    FALLIDO
+}
@@ -0,0 +1,57 @@
+package com.venta.backend.Reporte;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.venta.backend.venta.enums.OrigenVenta;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros del reporte general. Todos son opcionales y se aplican en el SQL; sin
+ * ninguno se obtiene el reporte histórico completo ordenado por cliente.
+ */
+@Data
+public class FiltroReporte {
+
+    @Schema(description = "Fecha de venta mínima, inclusive (yyyy-MM-dd)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate desde;
+
+    @Schema(description = "Fecha de venta máxima, inclusive (yyyy-MM-dd)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate hasta;
+
+    @Schema(description = "Sede del vendedor de la venta")
+    private Long sedeId;
+
+    @Schema(description = "Vendedor de la venta")
+    private Long vendedorId;
+
+    @Schema(description = "Origen de la venta")
+    private OrigenVenta origen;
+
+    @Schema(description = "Cantidad máxima de filas")
+    @Min(1)
+    private Integer limite;
+
+    @AssertTrue(message = "La fecha 'desde' no puede ser posterior a 'hasta'.")
+    @JsonIgnore
+    @Schema(hidden = true)
+    public boolean isRangoValido() {
+        return desde == null || hasta == null || !desde.isAfter(hasta);
+    }
+
+    /**
+     * true si no hay ningún filtro: se usa la consulta histórica sin WHERE.
+     */
+    @JsonIgnore
+    @Schema(hidden = true)
+    public boolean isVacio() {
+        return desde == null && hasta == null && sedeId == null && vendedorId == null
+                && origen == null && limite == null;
+    }
+}
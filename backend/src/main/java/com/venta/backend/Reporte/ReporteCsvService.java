@@ -0,0 +1,93 @@
+package com.venta.backend.Reporte;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Exporta el reporte general a CSV (UTF-8 con BOM para que Excel respete los acentos).
+ *
+ * A diferencia del Excel no hay agrupación visual: cada fila repite los datos de su
+ * venta, que es lo que esperan las herramientas que importan el archivo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReporteCsvService {
+
+    private static final String[] COLUMNAS = {
+            "ID Venta", "Fecha", "Cliente", "DNI/RUC", "Email",
+            "Producto", "Tipo", "Cant.", "Precio Unit.", "Subtotal Item",
+            "Vendedor", "Sede", "Total Venta", "¿Contrato?", "Monto Mensual"
+    };
+
+    private final ReporteGeneralConsulta reporteGeneralConsulta;
+
+    @Transactional(readOnly = true)
+    public void escribirCsv(FiltroReporte filtro, OutputStream out, LongConsumer progreso) throws IOException {
+        // SimpleDateFormat no es thread-safe: una instancia por exportación
+        SimpleDateFormat formatoFecha = new SimpleDateFormat("yyyy-MM-dd");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try (Stream<ReporteVentaProjection> filas = reporteGeneralConsulta.stream(filtro)) {
+            writer.write('\uFEFF');
+            escribirLinea(writer, (Object[]) COLUMNAS);
+
+            long escritas = 0;
+            for (ReporteVentaProjection fila : (Iterable<ReporteVentaProjection>) filas::iterator) {
+                double precio = fila.getPrecioUnitarioVenta() != null ? fila.getPrecioUnitarioVenta() : 0.0;
+                int cantidad = fila.getCantidadVendida() != null ? fila.getCantidadVendida() : 0;
+                boolean esContrato = fila.getEsContratoRecurrente() != null && fila.getEsContratoRecurrente() == 1;
+
+                escribirLinea(writer,
+                        fila.getVentaId(),
+                        fila.getFechaVenta() != null ? formatoFecha.format(fila.getFechaVenta()) : null,
+                        fila.getNombreCliente(),
+                        fila.getDni(),
+                        fila.getEmailCliente(),
+                        fila.getNombreProducto(),
+                        fila.getTipoProducto(),
+                        cantidad,
+                        precio,
+                        precio * cantidad,
+                        fila.getVendedorNombre(),
+                        fila.getSedeVenta(),
+                        fila.getTotalFinalVenta(),
+                        esContrato ? "SÍ" : "NO",
+                        fila.getContratoMontoMensual());
+                progreso.accept(++escritas);
+            }
+            writer.flush();
+            log.info("Reporte CSV exportado: {} filas [ReporteCsvService]", escritas);
+        }
+    }
+
+    private static void escribirLinea(Writer writer, Object... valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (valores[i] != null) {
+                writer.write(escapar(valores[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapar(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,164 @@
+package com.venta.backend.Reporte;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Exporta el reporte general a Excel en streaming.
+ *
+ * Las filas se leen con un cursor JDBC y se escriben en un SXSSFWorkbook que solo
+ * mantiene en memoria una ventana fija de filas (el resto va a un archivo temporal
+ * comprimido), y el libro se escribe directamente sobre la respuesta. La memoria
+ * no depende del tamaño del historial.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReporteExcelService {
+
+    // Filas que SXSSF mantiene en memoria antes de volcarlas al archivo temporal
+    private static final int VENTANA_FILAS = 100;
+
+    private static final String[] COLUMNAS = {
+            // Cabecera de la Venta (Datos Generales)
+            "ID Venta", "Fecha", "Cliente", "DNI/RUC", "Email",
+            // Detalle del Producto (Esto cambia en cada fila)
+            "Producto", "Tipo", "Cant.", "Precio Unit.", "Subtotal Item",
+            // Atribución y Totales (Datos Generales)
+            "Vendedor", "Sede", "Total Venta", "¿Contrato?", "Monto Mensual"
+    };
+
+    private final ReporteGeneralConsulta reporteGeneralConsulta;
+
+    /**
+     * Escribe el reporte con los filtros indicados, notificando a progreso la cantidad
+     * de filas escritas hasta el momento.
+     */
+    @Transactional(readOnly = true)
+    public void escribirExcel(FiltroReporte filtro, OutputStream out, LongConsumer progreso) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(VENTANA_FILAS);
+        workbook.setCompressTempFiles(true);
+        try (Stream<ReporteVentaProjection> filas = reporteGeneralConsulta.stream(filtro)) {
+            Sheet sheet = workbook.createSheet("Reporte General");
+
+            // --- ESTILOS ---
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font font = workbook.createFont();
+            font.setBold(true);
+            font.setColor(IndexedColors.WHITE.getIndex());
+            headerStyle.setFont(font);
+            headerStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            headerStyle.setAlignment(HorizontalAlignment.CENTER);
+            headerStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+
+            CellStyle currencyStyle = workbook.createCellStyle();
+            currencyStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+
+            // Ancho de columnas fijo (autoSize no es posible con filas ya volcadas a disco)
+            for (int i = 0; i < COLUMNAS.length; i++) {
+                sheet.setColumnWidth(i, 4500);
+            }
+
+            // --- CABECERAS ---
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < COLUMNAS.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(COLUMNAS[i]);
+                cell.setCellStyle(headerStyle);
+            }
+
+            // --- VARIABLES DE CONTROL PARA AGRUPACIÓN VISUAL ---
+            Long lastVentaId = null;
+            int rowIdx = 1;
+
+            for (ReporteVentaProjection fila : (Iterable<ReporteVentaProjection>) filas::iterator) {
+                Row row = sheet.createRow(rowIdx++);
+                // Las filas de una venta llegan consecutivas; solo la primera lleva la cabecera
+                boolean isNewSale = !Objects.equals(fila.getVentaId(), lastVentaId);
+                escribirFila(row, fila, isNewSale, dateStyle, currencyStyle);
+                lastVentaId = fila.getVentaId();
+                progreso.accept(rowIdx - 1);
+            }
+
+            workbook.write(out);
+            log.info("Reporte Excel exportado: {} filas [ReporteExcelService]", rowIdx - 1);
+        } finally {
+            // Borra los archivos temporales de las filas volcadas
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private void escribirFila(Row row, ReporteVentaProjection fila, boolean isNewSale,
+                              CellStyle dateStyle, CellStyle currencyStyle) {
+        int colIdx = 0;
+
+        // 1. DATOS DE CABECERA (Solo se imprimen si es una nueva venta)
+        if (isNewSale) {
+            row.createCell(colIdx++).setCellValue(fila.getVentaId() != null ? fila.getVentaId() : 0);
+
+            Cell cFecha = row.createCell(colIdx++);
+            if (fila.getFechaVenta() != null) {
+                cFecha.setCellValue(fila.getFechaVenta());
+                cFecha.setCellStyle(dateStyle);
+            } else { cFecha.setCellValue("-"); }
+
+            row.createCell(colIdx++).setCellValue(fila.getNombreCliente() != null ? fila.getNombreCliente() : "Anónimo");
+            row.createCell(colIdx++).setCellValue(fila.getDni() != null ? fila.getDni() : "-");
+            row.createCell(colIdx++).setCellValue(fila.getEmailCliente() != null ? fila.getEmailCliente() : "-");
+        } else {
+            // Si es la misma venta, dejamos estas celdas vacías
+            colIdx += 5; // Saltamos 5 columnas
+        }
+
+        // 2. DATOS DE PRODUCTO (Se imprimen SIEMPRE, fila a fila)
+        row.createCell(colIdx++).setCellValue(fila.getNombreProducto() != null ? fila.getNombreProducto() : "-");
+        row.createCell(colIdx++).setCellValue(fila.getTipoProducto() != null ? fila.getTipoProducto() : "-");
+        row.createCell(colIdx++).setCellValue(fila.getCantidadVendida() != null ? fila.getCantidadVendida() : 0);
+
+        Cell cPrecio = row.createCell(colIdx++);
+        cPrecio.setCellValue(fila.getPrecioUnitarioVenta() != null ? fila.getPrecioUnitarioVenta() : 0.0);
+        cPrecio.setCellStyle(currencyStyle);
+
+        // Cálculo simple de subtotal item
+        Cell cSubItem = row.createCell(colIdx++);
+        double subTotalCalc = (fila.getPrecioUnitarioVenta() != null ? fila.getPrecioUnitarioVenta() : 0.0)
+                * (fila.getCantidadVendida() != null ? fila.getCantidadVendida() : 0);
+        cSubItem.setCellValue(subTotalCalc);
+        cSubItem.setCellStyle(currencyStyle);
+
+        // 3. ATRIBUCIÓN Y TOTALES (Solo se imprimen si es una nueva venta)
+        if (isNewSale) {
+            row.createCell(colIdx++).setCellValue(fila.getVendedorNombre() != null ? fila.getVendedorNombre() : "-");
+            row.createCell(colIdx++).setCellValue(fila.getSedeVenta() != null ? fila.getSedeVenta() : "-");
+
+            Cell cTotal = row.createCell(colIdx++);
+            cTotal.setCellValue(fila.getTotalFinalVenta() != null ? fila.getTotalFinalVenta() : 0.0);
+            cTotal.setCellStyle(currencyStyle);
+
+            boolean esContrato = fila.getEsContratoRecurrente() != null && fila.getEsContratoRecurrente() == 1;
+            row.createCell(colIdx++).setCellValue(esContrato ? "SÍ" : "NO");
+
+            Cell cMontoM = row.createCell(colIdx);
+            if (fila.getContratoMontoMensual() != null) {
+                cMontoM.setCellValue(fila.getContratoMontoMensual());
+                cMontoM.setCellStyle(currencyStyle);
+            } else { cMontoM.setCellValue("-"); }
+        }
+        // Para el resto de filas de la venta, Excel asume vacías las celdas no escritas
+    }
+}
@@ -0,0 +1,377 @@
+package com.venta.backend.Reporte;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Ejecuta el reporte general con los filtros de {@link FiltroReporte} aplicados en el SQL.
+ *
+ * Sin filtros se usa la consulta histórica de {@link ReportesRepository} (ordenada por
+ * cliente). Con filtros solo se agregan al WHERE los predicados indicados, para que MySQL
+ * use el índice de fecha de venta, y las filas salen en orden cronológico descendente.
+ *
+ * Las exportaciones cuyo rango abarca varios meses se parten en una consulta por mes.
+ * Hasta reportes.particiones.hilos meses se leen en paralelo, cada uno en su propia
+ * transacción de solo lectura (y por tanto su propia conexión), y se entregan al writer
+ * en orden, mes por mes. Cada partición adelanta como mucho reportes.particiones.buffer
+ * filas, así que la memoria sigue acotada aunque el writer sea más lento que la base.
+ */
+@Slf4j
+@Component
+public class ReporteGeneralConsulta {
+
+    private static final String ORDEN_CRONOLOGICO =
+            " ORDER BY v.fecha_venta_creada DESC, v.id_venta, dv.id_detalle_venta";
+
+    private static final String CONTEO_BASE = """
+        SELECT COUNT(*)
+        FROM detalle_venta dv
+        JOIN venta v ON dv.id_venta = v.id_venta
+        JOIN cliente c ON v.cliente_id = c.cliente_id
+        LEFT JOIN vendedores vendedor ON v.id_vendedor = vendedor.seller_id
+        """;
+
+    private static final String RANGO_FECHAS = "SELECT MIN(fecha_venta_creada), MAX(fecha_venta_creada) FROM venta";
+
+    // Marca de fin de una partición en su cola
+    private static final Object FIN = new Object();
+
+    private final ReportesRepository reportesRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaccionLectura;
+    private final ProjectionFactory proyecciones = new SpelAwareProxyProjectionFactory();
+    private final ExecutorService executor;
+    private final int hilos;
+    private final int buffer;
+
+    public ReporteGeneralConsulta(
+            ReportesRepository reportesRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${reportes.particiones.hilos:3}") int hilos,
+            @Value("${reportes.particiones.buffer:1000}") int buffer
+    ) {
+        this.reportesRepository = reportesRepository;
+        this.entityManager = entityManager;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.hilos = hilos;
+        this.buffer = buffer;
+
+        AtomicInteger numeroHilo = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(hilos, runnable -> {
+            Thread thread = new Thread(runnable, "reporte-particion-" + numeroHilo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reporte materializado en una lista. Debe llamarse dentro de una transacción.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ReporteVentaProjection> listar(FiltroReporte filtro) {
+        if (filtro.isVacio()) {
+            return reportesRepository.obtenerReporteGeneral();
+        }
+        List<Tuple> filas = crearConsulta(filtro, filtro.getDesde(), filtro.getHasta()).getResultList();
+        return filas.stream().map(this::aProyeccion).toList();
+    }
+
+    /**
+     * Reporte recorrido con cursor, particionado por mes si el rango es amplio. Debe
+     * consumirse dentro de una transacción y cerrarse; cerrarlo antes de terminar
+     * cancela las particiones pendientes.
+     */
+    public Stream<ReporteVentaProjection> stream(FiltroReporte filtro) {
+        if (filtro.isVacio()) {
+            return reportesRepository.streamReporteGeneral();
+        }
+
+        List<Particion> particiones = particionar(filtro);
+        if (particiones.size() <= 1 || hilos <= 1) {
+            return streamSinParticionar(filtro, filtro.getDesde(), filtro.getHasta());
+        }
+
+        log.info("Reporte general en {} particiones mensuales, {} en paralelo [ReporteGeneralConsulta]",
+                particiones.size(), hilos);
+        Particionado particionado = new Particionado(filtro, particiones);
+        Stream<ReporteVentaProjection> filas = StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(particionado, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(particionado::cancelar);
+        // Cada partición ya trae a lo sumo 'limite' filas; el total también se corta
+        return filtro.getLimite() != null ? filas.limit(filtro.getLimite()) : filas;
+    }
+
+    /**
+     * Filas que devolvería el reporte (acotadas por el límite), para estimar el progreso.
+     */
+    public long contarFilas(FiltroReporte filtro) {
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        String where = where(filtro, filtro.getDesde(), filtro.getHasta(), parametros);
+        Query query = entityManager.createNativeQuery(CONTEO_BASE + where);
+        parametros.forEach(query::setParameter);
+        long filas = ((Number) query.getSingleResult()).longValue();
+        return filtro.getLimite() != null ? Math.min(filas, filtro.getLimite()) : filas;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Stream<ReporteVentaProjection> streamSinParticionar(FiltroReporte filtro, LocalDate desde, LocalDate hasta) {
+        Stream<Tuple> filas = crearConsulta(filtro, desde, hasta)
+                .setHint(HINT_FETCH_SIZE, 500)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream();
+        return filas.map(this::aProyeccion);
+    }
+
+    private Query crearConsulta(FiltroReporte filtro, LocalDate desde, LocalDate hasta) {
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder(ReportesRepository.REPORTE_GENERAL_BASE)
+                .append(where(filtro, desde, hasta, parametros))
+                .append(ORDEN_CRONOLOGICO);
+        if (filtro.getLimite() != null) {
+            sql.append(" LIMIT :limite");
+            parametros.put("limite", filtro.getLimite());
+        }
+        Query query = entityManager.createNativeQuery(sql.toString(), Tuple.class);
+        parametros.forEach(query::setParameter);
+        return query;
+    }
+
+    /**
+     * Solo los predicados de los filtros presentes: un "(:x IS NULL OR col = :x)" por
+     * filtro impediría que MySQL use el índice de fecha.
+     */
+    private static String where(FiltroReporte filtro, LocalDate desde, LocalDate hasta, Map<String, Object> parametros) {
+        List<String> condiciones = new ArrayList<>();
+        if (desde != null) {
+            condiciones.add("v.fecha_venta_creada >= :desde");
+            parametros.put("desde", desde);
+        }
+        if (hasta != null) {
+            condiciones.add("v.fecha_venta_creada <= :hasta");
+            parametros.put("hasta", hasta);
+        }
+        if (filtro.getSedeId() != null) {
+            condiciones.add("vendedor.id_sede = :sedeId");
+            parametros.put("sedeId", filtro.getSedeId());
+        }
+        if (filtro.getVendedorId() != null) {
+            condiciones.add("v.id_vendedor = :vendedorId");
+            parametros.put("vendedorId", filtro.getVendedorId());
+        }
+        if (filtro.getOrigen() != null) {
+            condiciones.add("v.origen_venta = :origen");
+            parametros.put("origen", filtro.getOrigen().name());
+        }
+        return condiciones.isEmpty() ? "" : " WHERE " + String.join(" AND ", condiciones);
+    }
+
+    /**
+     * Un rango por mes calendario, del más reciente al más antiguo (el orden del reporte).
+     * Los extremos ausentes se toman de las ventas existentes.
+     */
+    private List<Particion> particionar(FiltroReporte filtro) {
+        LocalDate desde = filtro.getDesde();
+        LocalDate hasta = filtro.getHasta();
+        if (desde == null || hasta == null) {
+            Object[] rango = (Object[]) entityManager.createNativeQuery(RANGO_FECHAS).getSingleResult();
+            if (rango[0] == null) {
+                return List.of();
+            }
+            desde = desde != null ? desde : aFecha(rango[0]);
+            hasta = hasta != null ? hasta : aFecha(rango[1]);
+        }
+
+        List<Particion> particiones = new ArrayList<>();
+        for (YearMonth mes = YearMonth.from(hasta); !mes.isBefore(YearMonth.from(desde)); mes = mes.minusMonths(1)) {
+            LocalDate inicio = mes.atDay(1).isBefore(desde) ? desde : mes.atDay(1);
+            LocalDate fin = mes.atEndOfMonth().isAfter(hasta) ? hasta : mes.atEndOfMonth();
+            particiones.add(new Particion(inicio, fin, buffer));
+        }
+        return particiones;
+    }
+
+    private static LocalDate aFecha(Object valor) {
+        return valor instanceof java.sql.Date fecha ? fecha.toLocalDate() : (LocalDate) valor;
+    }
+
+    private ReporteVentaProjection aProyeccion(Tuple tuple) {
+        Map<String, Object> valores = new HashMap<>();
+        for (TupleElement<?> elemento : tuple.getElements()) {
+            valores.put(elemento.getAlias(), tuple.get(elemento));
+        }
+        return proyecciones.createProjection(ReporteVentaProjection.class, valores);
+    }
+
+    @PreDestroy
+    void detener() {
+        executor.shutdownNow();
+    }
+
+    private static final class Particion {
+        private final LocalDate desde;
+        private final LocalDate hasta;
+        private final BlockingQueue<Object> cola;
+        private volatile RuntimeException error;
+        private Future<?> tarea;
+
+        private Particion(LocalDate desde, LocalDate hasta, int buffer) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.cola = new ArrayBlockingQueue<>(buffer);
+        }
+    }
+
+    /**
+     * Recorre las particiones en orden. Mantiene en lectura la partición actual y las
+     * siguientes hasta completar 'hilos'; al agotar una, lanza la próxima.
+     */
+    private final class Particionado implements Iterator<ReporteVentaProjection> {
+
+        private final FiltroReporte filtro;
+        private final List<Particion> particiones;
+        private final AtomicBoolean cancelado = new AtomicBoolean();
+        private int actual;
+        private int lanzadas;
+        private ReporteVentaProjection siguiente;
+
+        private Particionado(FiltroReporte filtro, List<Particion> particiones) {
+            this.filtro = filtro;
+            this.particiones = particiones;
+            lanzarHasta(hilos);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (siguiente == null) {
+                if (actual >= particiones.size()) {
+                    return false;
+                }
+                Particion particion = particiones.get(actual);
+                Object fila = tomar(particion);
+                if (fila == FIN) {
+                    if (particion.error != null) {
+                        throw new IllegalStateException("Falló la lectura del reporte entre "
+                                + particion.desde + " y " + particion.hasta, particion.error);
+                    }
+                    actual++;
+                    lanzarHasta(actual + hilos);
+                } else {
+                    siguiente = (ReporteVentaProjection) fila;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public ReporteVentaProjection next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ReporteVentaProjection fila = siguiente;
+            siguiente = null;
+            return fila;
+        }
+
+        private void lanzarHasta(int limite) {
+            while (lanzadas < particiones.size() && lanzadas < limite) {
+                Particion particion = particiones.get(lanzadas++);
+                particion.tarea = executor.submit(() -> leer(particion));
+            }
+        }
+
+        private Object tomar(Particion particion) {
+            try {
+                return particion.cola.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelar();
+                throw new IllegalStateException("Lectura del reporte interrumpida", e);
+            }
+        }
+
+        /**
+         * Corre en el pool: lee una partición en su propia transacción y la encola.
+         */
+        @SuppressWarnings("unchecked")
+        private void leer(Particion particion) {
+            try {
+                transaccionLectura.executeWithoutResult(status -> {
+                    try (Stream<Tuple> filas = crearConsulta(filtro, particion.desde, particion.hasta)
+                            .setHint(HINT_FETCH_SIZE, 500)
+                            .setHint(HINT_READ_ONLY, true)
+                            .getResultStream()) {
+                        Iterator<Tuple> iterador = filas.iterator();
+                        while (iterador.hasNext()) {
+                            if (!encolar(particion, aProyeccion(iterador.next()))) {
+                                return;
+                            }
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                particion.error = e;
+            }
+            encolar(particion, FIN);
+        }
+
+        // Espera lugar en la cola; false si la exportación se canceló mientras tanto
+        private boolean encolar(Particion particion, Object fila) {
+            try {
+                while (!particion.cola.offer(fila, 100, TimeUnit.MILLISECONDS)) {
+                    if (cancelado.get()) {
+                        return false;
+                    }
+                }
+                return !cancelado.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void cancelar() {
+            if (cancelado.compareAndSet(false, true)) {
+                for (int i = actual; i < lanzadas; i++) {
+                    particiones.get(i).tarea.cancel(true);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.venta.backend.Reporte;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class ReporteJobResponse {
+    String id;
+    EstadoReporteJob estado;
+    FormatoReporte formato;
+    FiltroReporte filtro;
+    long filasEscritas;
+    Long totalEstimado; // null mientras no se haya contado
+    Integer porcentaje;
+    Long tamanoBytes;
+    String error;
+    LocalDateTime creado;
+    LocalDateTime finalizado;
+    LocalDateTime expira;
+}
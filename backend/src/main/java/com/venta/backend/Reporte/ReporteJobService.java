@@ -0,0 +1,249 @@
+package com.venta.backend.Reporte;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Genera reportes pesados fuera del ciclo de la petición HTTP.
+ *
+ * Cada reporte enviado es un job que un pool acotado (reportes.jobs.hilos, con una cola
+ * de reportes.jobs.cola) escribe en un archivo de la carpeta reportes.jobs.directorio.
+ * El cliente consulta el progreso (filas escritas / total estimado) y descarga el archivo
+ * terminado. Los archivos se borran reportes.jobs.ttl-ms después de terminar el job.
+ *
+ * Los jobs viven en memoria: tras un reinicio se pierden y sus archivos se eliminan.
+ */
+@Slf4j
+@Service
+public class ReporteJobService {
+
+    private final ReporteExcelService reporteExcelService;
+    private final ReporteCsvService reporteCsvService;
+    private final ReporteGeneralConsulta reporteGeneralConsulta;
+    private final Path directorio;
+    private final long ttlMs;
+    private final ThreadPoolExecutor executor;
+    private ScheduledExecutorService limpiador;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ReporteJobService(
+            ReporteExcelService reporteExcelService,
+            ReporteCsvService reporteCsvService,
+            ReporteGeneralConsulta reporteGeneralConsulta,
+            @Value("${reportes.jobs.hilos:1}") int hilos,
+            @Value("${reportes.jobs.cola:5}") int cola,
+            @Value("${reportes.jobs.directorio:${java.io.tmpdir}/venta-reportes}") String directorio,
+            @Value("${reportes.jobs.ttl-ms:3600000}") long ttlMs
+    ) {
+        this.reporteExcelService = reporteExcelService;
+        this.reporteCsvService = reporteCsvService;
+        this.reporteGeneralConsulta = reporteGeneralConsulta;
+        this.directorio = Paths.get(directorio);
+        this.ttlMs = ttlMs;
+
+        AtomicInteger numeroHilo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "reporte-job-" + numeroHilo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        Files.createDirectories(directorio);
+        // Archivos de jobs de una ejecución anterior: ya nadie puede pedirlos
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.forEach(this::borrar);
+        }
+
+        limpiador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "reporte-job-limpiador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long intervalo = Math.min(ttlMs, TimeUnit.MINUTES.toMillis(1));
+        limpiador.scheduleWithFixedDelay(this::limpiarVencidos, intervalo, intervalo, TimeUnit.MILLISECONDS);
+        log.info("Jobs de reportes en {} (TTL {} ms) [ReporteJobService]", directorio, ttlMs);
+    }
+
+    /**
+     * Encola un reporte.
+     *
+     * @return el job creado, o vacío si la cola está llena
+     */
+    public Optional<ReporteJobResponse> enviar(FormatoReporte formato, FiltroReporte filtro) {
+        Job job = new Job(UUID.randomUUID().toString(), formato, filtro);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> ejecutar(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            log.warn("Job de reporte rechazado, cola llena ({} en espera) [ReporteJobService]", executor.getQueue().size());
+            return Optional.empty();
+        }
+        log.info("Job de reporte {} encolado: {} {} [ReporteJobService]", job.id, formato, filtro);
+        return Optional.of(aResponse(job));
+    }
+
+    public Optional<ReporteJobResponse> consultar(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(this::aResponse);
+    }
+
+    /**
+     * Copia el archivo de un job completado a la respuesta con FileChannel.transferTo,
+     * sin pasar el contenido por buffers del heap.
+     */
+    public void transferir(String id, OutputStream out) throws IOException {
+        Job job = jobs.get(id);
+        if (job == null || job.estado != EstadoReporteJob.COMPLETADO) {
+            throw new IllegalStateException("El reporte " + id + " no está disponible");
+        }
+        try (FileChannel archivo = FileChannel.open(job.archivo, StandardOpenOption.READ)) {
+            WritableByteChannel destino = Channels.newChannel(out);
+            long posicion = 0;
+            long tamano = archivo.size();
+            while (posicion < tamano) {
+                posicion += archivo.transferTo(posicion, tamano - posicion, destino);
+            }
+        }
+        out.flush();
+    }
+
+    private void ejecutar(Job job) {
+        job.estado = EstadoReporteJob.EN_PROCESO;
+        Path temporal = directorio.resolve(job.id + ".tmp");
+        try {
+            job.totalEstimado = reporteGeneralConsulta.contarFilas(job.filtro);
+
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporal), 64 * 1024)) {
+                if (job.formato == FormatoReporte.XLSX) {
+                    reporteExcelService.escribirExcel(job.filtro, out, filas -> job.filasEscritas = filas);
+                } else {
+                    reporteCsvService.escribirCsv(job.filtro, out, filas -> job.filasEscritas = filas);
+                }
+            }
+
+            // Visible para la descarga solo cuando está completo
+            Path archivo = directorio.resolve(job.id + "." + job.formato.getExtension());
+            Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+            job.tamanoBytes = Files.size(archivo);
+            job.archivo = archivo;
+            job.finalizado = LocalDateTime.now();
+            job.estado = EstadoReporteJob.COMPLETADO;
+            log.info("Job de reporte {} completado: {} filas, {} bytes [ReporteJobService]", job.id, job.filasEscritas, job.tamanoBytes);
+        } catch (IOException | RuntimeException e) {
+            borrar(temporal);
+            job.error = e.getMessage();
+            job.finalizado = LocalDateTime.now();
+            job.estado = EstadoReporteJob.FALLIDO;
+            log.error("Job de reporte {} fallido: {} [ReporteJobService]", job.id, e.getMessage(), e);
+        }
+    }
+
+    private void limpiarVencidos() {
+        LocalDateTime limite = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMs));
+        jobs.values().removeIf(job -> {
+            boolean vencido = job.finalizado != null && job.finalizado.isBefore(limite);
+            if (vencido && job.archivo != null) {
+                borrar(job.archivo);
+            }
+            return vencido;
+        });
+    }
+
+    private void borrar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar {}: {} [ReporteJobService]", archivo, e.getMessage());
+        }
+    }
+
+    private ReporteJobResponse aResponse(Job job) {
+        Long total = job.totalEstimado;
+        long filas = job.filasEscritas;
+        Integer porcentaje = null;
+        if (job.estado == EstadoReporteJob.COMPLETADO) {
+            porcentaje = 100;
+        } else if (total != null && total > 0) {
+            // El total es una estimación: no pasar de 99 hasta terminar
+            porcentaje = (int) Math.min(99, filas * 100 / total);
+        }
+        return ReporteJobResponse.builder()
+                .id(job.id)
+                .estado(job.estado)
+                .formato(job.formato)
+                .filtro(job.filtro)
+                .filasEscritas(filas)
+                .totalEstimado(total)
+                .porcentaje(porcentaje)
+                .tamanoBytes(job.tamanoBytes)
+                .error(job.error)
+                .creado(job.creado)
+                .finalizado(job.finalizado)
+                .expira(job.finalizado != null ? job.finalizado.plusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMs)) : null)
+                .build();
+    }
+
+    @PreDestroy
+    void detener() {
+        executor.shutdownNow();
+        if (limpiador != null) {
+            limpiador.shutdownNow();
+        }
+    }
+
+    private static final class Job {
+        private final String id;
+        private final FormatoReporte formato;
+        private final FiltroReporte filtro;
+        private final LocalDateTime creado = LocalDateTime.now();
+        // Escritos por el hilo del job, leídos por las consultas de progreso
+        private volatile EstadoReporteJob estado = EstadoReporteJob.PENDIENTE;
+        private volatile long filasEscritas;
+        private volatile Long totalEstimado;
+        private volatile Long tamanoBytes;
+        private volatile Path archivo;
+        private volatile String error;
+        private volatile LocalDateTime finalizado;
+
+        private Job(String id, FormatoReporte formato, FiltroReporte filtro) {
+            this.id = id;
+            this.formato = formato;
+            this.filtro = filtro;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.venta.backend.Reporte;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reporte general en JSON, completo o filtrado (ver {@link FiltroReporte}).
+ *
+ * En modo streaming las filas se leen con un cursor JDBC y se escriben una a una en
+ * un arreglo JSON sobre la respuesta, sin materializar la lista ni sus proyecciones.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReporteJsonService {
+
+    private static final int FLUSH_CADA = 500;
+
+    private final ReporteGeneralConsulta reporteGeneralConsulta;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public List<ReporteVentaProjection> obtenerReporte(FiltroReporte filtro) {
+        return reporteGeneralConsulta.listar(filtro);
+    }
+
+    @Transactional(readOnly = true)
+    public void escribirReporte(FiltroReporte filtro, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<ReporteVentaProjection> filas = reporteGeneralConsulta.stream(filtro);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            generator.writeStartArray();
+            int escritas = 0;
+            for (ReporteVentaProjection fila : (Iterable<ReporteVentaProjection>) filas::iterator) {
+                writer.writeValue(generator, fila);
+                if (++escritas % FLUSH_CADA == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+            log.info("Reporte general transmitido: {} filas [ReporteJsonService]", escritas);
+        }
+    }
+}
@@ -1,16 +1,30 @@
 package com.venta.backend.Reporte;
 
 import com.venta.backend.venta.entities.Venta;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ReportesRepository extends JpaRepository<Venta, Long> {
 
-    @Query(value = """
+    /**
+     * Reporte general: una fila por detalle de venta, con los datos del cliente, sus
+     * métricas (tablas cliente_metricas_*, mantenidas por IMetricasClienteServicio),
+     * la venta, el vendedor y el contrato. Las filas de una misma venta salen
+     * consecutivas (el Excel las agrupa visualmente por ventaId).
+     *
+     * Las variantes filtradas se arman sobre esta base en {@link ReporteGeneralConsulta}.
+     */
+    String REPORTE_GENERAL_BASE = """
         SELECT
             -- A. CLIENTE
             c.cliente_id,
@@ -22,11 +36,11 @@ public interface ReportesRepository extends JpaRepository<Venta, Long> {
             pref.canal_contacto_favorito AS canalContactoFavorito,
 
             -- B. MÉTRICAS HISTÓRICAS
-            IFNULL(cm.total_ventas_historicas, 0) AS metricaTotalVentas,
-            IFNULL(cm.total_monto_acumulado, 0) AS metricaMontoAcum,
-            IFNULL(cm.total_descuento_acumulado, 0) AS metricaDescAcum,
+            IFNULL(cm.total_ventas, 0) AS metricaTotalVentas,
+            IFNULL(cm.monto_acumulado, 0) AS metricaMontoAcum,
+            IFNULL(cm.descuento_acumulado, 0) AS metricaDescAcum,
             cm.fecha_ultima_compra AS metricaFechaUltimaCompra,
-            IFNULL(cc.total_cotizaciones_realizadas, 0) AS metricaTotalCotizaciones,
+            IFNULL(cc.total_cotizaciones, 0) AS metricaTotalCotizaciones,
             IFNULL(cc.cotizaciones_aceptadas, 0) AS metricaCotizAceptadas,
 
             -- C. TRANSACCIÓN
@@ -77,30 +91,31 @@ public interface ReportesRepository extends JpaRepository<Venta, Long> {
         LEFT JOIN vendedores vendedor ON v.id_vendedor = vendedor.seller_id
         LEFT JOIN sedes sede ON vendedor.id_sede = sede.branch_id
 
-        LEFT JOIN (
-            SELECT
-                id_cliente,
-                COUNT(DISTINCT id_venta) AS total_ventas_historicas,
-                SUM(monto_total) AS total_monto_acumulado,
-                SUM(descuento_aplicado) AS total_descuento_acumulado,
-                MAX(fecha_compra) AS fecha_ultima_compra
-            FROM historial_compras
-            GROUP BY id_cliente
-        ) cm ON c.cliente_id = cm.id_cliente
-
-        LEFT JOIN (
-            SELECT
-                cliente_id,
-                COUNT(id) AS total_cotizaciones_realizadas,
-                SUM(CASE WHEN estado = 'ACEPTADA' THEN 1 ELSE 0 END) AS cotizaciones_aceptadas
-            FROM cotizacion
-            GROUP BY cliente_id
-        ) cc ON c.cliente_id = cc.cliente_id
+        LEFT JOIN cliente_metricas_compras cm ON c.cliente_id = cm.cliente_id
+        LEFT JOIN cliente_metricas_cotizaciones cc ON c.cliente_id = cc.cliente_id
 
         LEFT JOIN contrato cont ON v.id_venta = cont.id_venta
         LEFT JOIN venta_lead vl ON v.id_venta = vl.id_venta
+        """;
+
+    String REPORTE_GENERAL_ORDEN = """
+        ORDER BY c.cliente_id, v.fecha_venta_creada DESC, v.id_venta, dv.id_detalle_venta
+        """;
 
-        ORDER BY c.cliente_id, v.fecha_venta_creada DESC, dv.id_detalle_venta
-        """, nativeQuery = true)
+    String REPORTE_GENERAL_QUERY = REPORTE_GENERAL_BASE + REPORTE_GENERAL_ORDEN;
+
+    @Query(value = REPORTE_GENERAL_QUERY, nativeQuery = true)
     List<ReporteVentaProjection> obtenerReporteGeneral();
-}
\ No newline at end of file
+
+    /**
+     * El mismo reporte recorrido con un cursor JDBC (fetch size fijo), para exportarlo
+     * sin materializar todas las filas. Debe consumirse dentro de una transacción y cerrarse.
+     * En MySQL el fetch size solo se respeta con useCursorFetch=true en la URL.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = REPORTE_GENERAL_QUERY, nativeQuery = true)
+    Stream<ReporteVentaProjection> streamReporteGeneral();
+}
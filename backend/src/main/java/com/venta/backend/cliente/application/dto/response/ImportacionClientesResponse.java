@@ -0,0 +1,38 @@
+package com.venta.backend.cliente.application.dto.response;
+
+import com.venta.backend.cliente.enums.EstadoFilaImportacion;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacionClientesResponse {
+
+    private int totalFilas;
+    private int creados;
+    private int duplicados;
+    private int noAptos;
+    private int invalidos;
+    private int errores;
+    // true si el archivo superaba cliente.importacion.max-filas y no se leyó completo
+    private boolean truncado;
+    private List<ResultadoFila> filas;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ResultadoFila {
+        private int fila; // Número de fila de datos, desde 1 (sin contar la cabecera)
+        private String dni;
+        private EstadoFilaImportacion estado;
+        private Long clienteId;
+        private String mensaje;
+    }
+}
@@ -18,5 +18,8 @@ public class PageClienteResponse {
     private int totalPages;
     private long totalElements;
     private int pageSize;
+    private boolean hasNext;
+    // false si totalElements/totalPages son estimados (búsqueda sin COUNT)
+    private boolean totalExact;
 }
 
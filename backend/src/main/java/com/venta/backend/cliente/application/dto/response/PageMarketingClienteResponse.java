@@ -19,6 +19,9 @@ public class PageMarketingClienteResponse {
     private int totalPages;
     private long totalElements;
     private int pageSize;
+    private boolean hasNext;
+    // false si totalElements/totalPages son estimados (búsqueda sin COUNT)
+    private boolean totalExact;
 
     @Data
     @Builder
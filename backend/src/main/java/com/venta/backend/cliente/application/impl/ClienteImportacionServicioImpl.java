@@ -0,0 +1,568 @@
+package com.venta.backend.cliente.application.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.venta.backend.cliente.application.dto.request.RegistroClienteRequest;
+import com.venta.backend.cliente.application.dto.response.ImportacionClientesResponse;
+import com.venta.backend.cliente.application.dto.response.ImportacionClientesResponse.ResultadoFila;
+import com.venta.backend.cliente.application.exceptions.RegistroClienteException;
+import com.venta.backend.cliente.application.servicios.IClienteImportacionServicio;
+import com.venta.backend.cliente.entities.Cliente;
+import com.venta.backend.cliente.enums.EstadoClienteEnum;
+import com.venta.backend.cliente.enums.EstadoFilaImportacion;
+import com.venta.backend.cliente.infraestructura.busqueda.ClienteBusquedaIndice;
+import com.venta.backend.cliente.infraestructura.clientes.IClienteValidacion;
+import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
+import com.venta.backend.cliente.infraestructura.unicidad.UnicidadClienteFiltro;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de clientes desde CSV o JSON lines.
+ *
+ * El archivo se lee en streaming y se procesa por lotes de cliente.importacion.lote
+ * filas, así la memoria solo depende del tamaño del lote (más el informe por fila).
+ * Por cada lote:
+ * <ol>
+ *   <li>Bean Validation de cada fila, en paralelo en un pool propio (cliente.importacion.hilos).</li>
+ *   <li>Duplicados dentro del archivo, comparando con las filas ya vistas.</li>
+ *   <li>Duplicados contra la base con una consulta IN por lote para DNI y otra para email;
+ *       solo se incluyen los valores que los filtros de unicidad no descartan.</li>
+ *   <li>Elegibilidad (IClienteValidacion.esClienteApto) de las filas restantes, en paralelo.</li>
+ *   <li>INSERT por lotes JDBC en una transacción por lote. Si otra alta concurrente tomó un
+ *       DNI o email entretanto, el lote se reintenta fila por fila para aislar el conflicto.</li>
+ * </ol>
+ * Las filas rechazadas no detienen la importación; cada una se informa con su motivo.
+ */
+@Slf4j
+@Service
+public class ClienteImportacionServicioImpl implements IClienteImportacionServicio {
+
+    private static final String INSERT_CLIENTE = """
+        INSERT INTO cliente (dni, first_name, last_name, email, phone_number, telefono_fijo, address,
+                             fecha_nacimiento, genero, ocupacion, registration_date, estado, categoria)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    private static final String CATEGORIA_INICIAL = "Estándar";
+    private static final List<String> COLUMNAS_OBLIGATORIAS = List.of("dni", "firstname", "lastname", "phonenumber");
+
+    private final ClienteRepositorio clienteRepositorio;
+    private final IClienteValidacion clienteValidacion;
+    private final UnicidadClienteFiltro unicidadClienteFiltro;
+    private final ClienteBusquedaIndice clienteBusquedaIndice;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+    private final TransactionTemplate transaccionLectura;
+    private final ExecutorService executor;
+    private final int tamanoLote;
+    private final int maxFilas;
+
+    public ClienteImportacionServicioImpl(
+            ClienteRepositorio clienteRepositorio,
+            IClienteValidacion clienteValidacion,
+            UnicidadClienteFiltro unicidadClienteFiltro,
+            ClienteBusquedaIndice clienteBusquedaIndice,
+            Validator validator,
+            ObjectMapper objectMapper,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${cliente.importacion.hilos:4}") int hilos,
+            @Value("${cliente.importacion.lote:500}") int tamanoLote,
+            @Value("${cliente.importacion.max-filas:100000}") int maxFilas
+    ) {
+        this.clienteRepositorio = clienteRepositorio;
+        this.clienteValidacion = clienteValidacion;
+        this.unicidadClienteFiltro = unicidadClienteFiltro;
+        this.clienteBusquedaIndice = clienteBusquedaIndice;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.tamanoLote = tamanoLote;
+        this.maxFilas = maxFilas;
+
+        AtomicInteger numeroHilo = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(hilos, runnable -> {
+            Thread thread = new Thread(runnable, "cliente-importacion-" + numeroHilo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public ImportacionClientesResponse importarCsv(InputStream entrada) throws IOException {
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        String primeraLinea = siguienteLineaConDatos(lector);
+        if (primeraLinea == null) {
+            throw new RegistroClienteException("El archivo CSV está vacío.");
+        }
+        // Excel en español guarda los CSV separados por punto y coma
+        char separador = primeraLinea.indexOf(';') >= 0 && primeraLinea.indexOf(',') < 0 ? ';' : ',';
+
+        Map<String, Integer> columnas = new HashMap<>();
+        List<String> cabecera = leerRegistroCsv(primeraLinea.replace("\uFEFF", ""), lector, separador);
+        for (int i = 0; i < cabecera.size(); i++) {
+            columnas.putIfAbsent(cabecera.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> faltantes = COLUMNAS_OBLIGATORIAS.stream().filter(c -> !columnas.containsKey(c)).toList();
+        if (!faltantes.isEmpty()) {
+            throw new RegistroClienteException("Faltan columnas obligatorias en la cabecera del CSV: " + faltantes);
+        }
+
+        AtomicInteger numero = new AtomicInteger();
+        return importar(() -> {
+            String linea = siguienteLineaConDatos(lector);
+            if (linea == null) {
+                return null;
+            }
+            return filaDesdeCsv(numero.incrementAndGet(), leerRegistroCsv(linea, lector, separador), columnas);
+        });
+    }
+
+    @Override
+    public ImportacionClientesResponse importarJsonLines(InputStream entrada) throws IOException {
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        AtomicInteger numero = new AtomicInteger();
+        return importar(() -> {
+            String linea = siguienteLineaConDatos(lector);
+            if (linea == null) {
+                return null;
+            }
+            int fila = numero.incrementAndGet();
+            try {
+                RegistroClienteRequest request = objectMapper.readValue(linea, RegistroClienteRequest.class);
+                if (request == null) {
+                    return new Fila(fila, null, "JSON inválido: se esperaba un objeto");
+                }
+                // Igual que en el CSV, un email vacío es "sin email" (no choca con la restricción UNIQUE)
+                if (request.getEmail() != null && request.getEmail().isBlank()) {
+                    request.setEmail(null);
+                }
+                return new Fila(fila, request, null);
+            } catch (JsonProcessingException e) {
+                return new Fila(fila, null, "JSON inválido: " + e.getOriginalMessage());
+            }
+        });
+    }
+
+    private ImportacionClientesResponse importar(LectorFilas lector) throws IOException {
+        long inicio = System.currentTimeMillis();
+        Map<String, Integer> dnisVistos = new HashMap<>();
+        Map<String, Integer> emailsVistos = new HashMap<>();
+        List<ResultadoFila> resultados = new ArrayList<>();
+        List<Fila> lote = new ArrayList<>(tamanoLote);
+        boolean truncado = false;
+        int leidas = 0;
+
+        Fila fila;
+        while ((fila = lector.siguiente()) != null) {
+            if (leidas == maxFilas) {
+                truncado = true;
+                break;
+            }
+            leidas++;
+            lote.add(fila);
+            if (lote.size() == tamanoLote) {
+                resultados.addAll(procesarLote(lote, dnisVistos, emailsVistos));
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            resultados.addAll(procesarLote(lote, dnisVistos, emailsVistos));
+        }
+
+        Map<EstadoFilaImportacion, Long> porEstado = resultados.stream()
+                .collect(Collectors.groupingBy(ResultadoFila::getEstado, Collectors.counting()));
+        ImportacionClientesResponse response = ImportacionClientesResponse.builder()
+                .totalFilas(resultados.size())
+                .creados(porEstado.getOrDefault(EstadoFilaImportacion.CREADO, 0L).intValue())
+                .duplicados(porEstado.getOrDefault(EstadoFilaImportacion.DUPLICADO, 0L).intValue())
+                .noAptos(porEstado.getOrDefault(EstadoFilaImportacion.NO_APTO, 0L).intValue())
+                .invalidos(porEstado.getOrDefault(EstadoFilaImportacion.INVALIDO, 0L).intValue())
+                .errores(porEstado.getOrDefault(EstadoFilaImportacion.ERROR, 0L).intValue())
+                .truncado(truncado)
+                .filas(resultados)
+                .build();
+        log.info("Importación de clientes: {} filas, {} creados, {} duplicados, {} no aptos, {} inválidos, {} errores en {} ms [ClienteImportacionServicioImpl]",
+                response.getTotalFilas(), response.getCreados(), response.getDuplicados(), response.getNoAptos(),
+                response.getInvalidos(), response.getErrores(), System.currentTimeMillis() - inicio);
+        return response;
+    }
+
+    /**
+     * Procesa un lote y devuelve el resultado de cada fila, en el orden del archivo.
+     */
+    private List<ResultadoFila> procesarLote(List<Fila> lote, Map<String, Integer> dnisVistos,
+                                             Map<String, Integer> emailsVistos) {
+        ResultadoFila[] resultados = new ResultadoFila[lote.size()];
+
+        // 1. Bean Validation en paralelo
+        List<CompletableFuture<String>> validaciones = lote.stream()
+                .map(f -> CompletableFuture.supplyAsync(() -> validar(f), executor))
+                .toList();
+        List<Integer> pendientes = new ArrayList<>();
+        for (int i = 0; i < lote.size(); i++) {
+            String error = validaciones.get(i).join();
+            if (error != null) {
+                resultados[i] = resultado(lote.get(i), EstadoFilaImportacion.INVALIDO, error);
+            } else {
+                pendientes.add(i);
+            }
+        }
+
+        // 2. Duplicados dentro del archivo (la primera aparición es la que se intenta registrar)
+        List<Integer> unicas = new ArrayList<>();
+        for (int i : pendientes) {
+            Fila fila = lote.get(i);
+            Integer filaDni = dnisVistos.putIfAbsent(fila.request.getDni(), fila.numero);
+            String email = clave(fila.request.getEmail());
+            Integer filaEmail = email != null ? emailsVistos.putIfAbsent(email, fila.numero) : null;
+            if (filaDni != null) {
+                resultados[i] = resultado(fila, EstadoFilaImportacion.DUPLICADO, "DNI repetido en el archivo (fila " + filaDni + ")");
+            } else if (filaEmail != null) {
+                resultados[i] = resultado(fila, EstadoFilaImportacion.DUPLICADO, "Email repetido en el archivo (fila " + filaEmail + ")");
+            } else {
+                unicas.add(i);
+            }
+        }
+
+        // 3. Duplicados contra la base: una consulta IN por columna, solo con los probables
+        Set<String> dnisConsulta = new HashSet<>();
+        Set<String> emailsConsulta = new HashSet<>();
+        for (int i : unicas) {
+            RegistroClienteRequest request = lote.get(i).request;
+            if (unicidadClienteFiltro.podriaExistirDni(request.getDni())) {
+                dnisConsulta.add(request.getDni());
+            }
+            if (request.getEmail() != null && unicidadClienteFiltro.podriaExistirEmail(request.getEmail())) {
+                emailsConsulta.add(request.getEmail());
+            }
+        }
+        Set<String> dnisExistentes = new HashSet<>();
+        Set<String> emailsExistentes = new HashSet<>();
+        if (!dnisConsulta.isEmpty() || !emailsConsulta.isEmpty()) {
+            transaccionLectura.executeWithoutResult(status -> {
+                if (!dnisConsulta.isEmpty()) {
+                    dnisExistentes.addAll(claves(clienteRepositorio.findDnisExistentes(dnisConsulta)));
+                }
+                if (!emailsConsulta.isEmpty()) {
+                    emailsExistentes.addAll(claves(clienteRepositorio.findEmailsExistentes(emailsConsulta)));
+                }
+            });
+        }
+        List<Integer> nuevas = new ArrayList<>();
+        for (int i : unicas) {
+            Fila fila = lote.get(i);
+            if (dnisExistentes.contains(clave(fila.request.getDni()))) {
+                resultados[i] = resultado(fila, EstadoFilaImportacion.DUPLICADO, "Ya existe un cliente con el DNI: " + fila.request.getDni());
+            } else if (fila.request.getEmail() != null && emailsExistentes.contains(clave(fila.request.getEmail()))) {
+                resultados[i] = resultado(fila, EstadoFilaImportacion.DUPLICADO, "Ya existe un cliente con el email: " + fila.request.getEmail());
+            } else {
+                nuevas.add(i);
+            }
+        }
+
+        // 4. Elegibilidad en paralelo (puede ser una llamada a un servicio externo)
+        Map<Integer, CompletableFuture<ResultadoFila>> elegibilidad = new HashMap<>();
+        for (int i : nuevas) {
+            Fila fila = lote.get(i);
+            elegibilidad.put(i, CompletableFuture.supplyAsync(() -> verificarElegibilidad(fila), executor));
+        }
+        List<Integer> aptas = new ArrayList<>();
+        for (int i : nuevas) {
+            ResultadoFila rechazo = elegibilidad.get(i).join();
+            if (rechazo != null) {
+                resultados[i] = rechazo;
+            } else {
+                aptas.add(i);
+            }
+        }
+
+        // 5. Inserción por lotes JDBC
+        if (!aptas.isEmpty()) {
+            List<Fila> filas = aptas.stream().map(lote::get).toList();
+            List<ResultadoFila> insertadas = insertar(filas);
+            for (int j = 0; j < aptas.size(); j++) {
+                resultados[aptas.get(j)] = insertadas.get(j);
+            }
+        }
+        return List.of(resultados);
+    }
+
+    private String validar(Fila fila) {
+        if (fila.error != null) {
+            return fila.error;
+        }
+        Set<ConstraintViolation<RegistroClienteRequest>> violaciones = validator.validate(fila.request);
+        if (violaciones.isEmpty()) {
+            return null;
+        }
+        return violaciones.stream()
+                .map(ConstraintViolation::getMessage)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private ResultadoFila verificarElegibilidad(Fila fila) {
+        try {
+            if (clienteValidacion.esClienteApto(fila.request.getDni())) {
+                return null;
+            }
+            return resultado(fila, EstadoFilaImportacion.NO_APTO,
+                    clienteValidacion.obtenerMotivoRestriccion(fila.request.getDni()));
+        } catch (RuntimeException e) {
+            log.warn("Error al validar la elegibilidad del DNI {}: {} [ClienteImportacionServicioImpl]",
+                    fila.request.getDni(), e.getMessage());
+            return resultado(fila, EstadoFilaImportacion.ERROR, "No se pudo validar la elegibilidad del cliente");
+        }
+    }
+
+    private List<ResultadoFila> insertar(List<Fila> filas) {
+        LocalDate hoy = LocalDate.now();
+        List<ResultadoFila> resultados = new ArrayList<>(filas.size());
+        try {
+            List<Long> ids = transaccion.execute(status -> insertarBatch(filas, hoy));
+            for (int i = 0; i < filas.size(); i++) {
+                resultados.add(creado(filas.get(i), ids.get(i), hoy));
+            }
+            return resultados;
+        } catch (DataIntegrityViolationException e) {
+            log.info("Conflicto de unicidad en un lote de {} clientes, se reintenta fila por fila [ClienteImportacionServicioImpl]",
+                    filas.size());
+        }
+
+        for (Fila fila : filas) {
+            try {
+                List<Long> ids = transaccion.execute(status -> insertarBatch(List.of(fila), hoy));
+                resultados.add(creado(fila, ids.get(0), hoy));
+            } catch (DataIntegrityViolationException e) {
+                resultados.add(resultado(fila, EstadoFilaImportacion.DUPLICADO, "Ya existe un cliente con el DNI o email indicado"));
+            } catch (RuntimeException e) {
+                log.warn("Error al insertar el cliente con DNI {}: {} [ClienteImportacionServicioImpl]",
+                        fila.request.getDni(), e.getMessage());
+                resultados.add(resultado(fila, EstadoFilaImportacion.ERROR, "No se pudo registrar el cliente"));
+            }
+        }
+        return resultados;
+    }
+
+    private List<Long> insertarBatch(List<Fila> filas, LocalDate hoy) {
+        // En la misma transacción y antes de insertar, para que los filtros nunca desconozcan un valor confirmado
+        filas.forEach(f -> unicidadClienteFiltro.registrar(f.request.getDni(), f.request.getEmail()));
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_CLIENTE, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        RegistroClienteRequest r = filas.get(i).request;
+                        ps.setString(1, r.getDni());
+                        ps.setString(2, r.getFirstName());
+                        ps.setString(3, r.getLastName());
+                        ps.setString(4, r.getEmail());
+                        ps.setString(5, r.getPhoneNumber());
+                        ps.setString(6, r.getTelefonoFijo());
+                        ps.setString(7, r.getAddress());
+                        ps.setDate(8, r.getFechaNacimiento() != null ? Date.valueOf(r.getFechaNacimiento()) : null);
+                        ps.setString(9, r.getGenero());
+                        ps.setString(10, r.getOcupacion());
+                        ps.setDate(11, Date.valueOf(hoy));
+                        ps.setString(12, EstadoClienteEnum.ACTIVO.name());
+                        ps.setString(13, CATEGORIA_INICIAL);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return filas.size();
+                    }
+                },
+                claves);
+        return claves.getKeyList().stream()
+                .map(fila -> ((Number) fila.values().iterator().next()).longValue())
+                .toList();
+    }
+
+    private ResultadoFila creado(Fila fila, Long clienteId, LocalDate hoy) {
+        RegistroClienteRequest r = fila.request;
+        clienteBusquedaIndice.registrar(Cliente.builder()
+                .clienteId(clienteId)
+                .dni(r.getDni())
+                .firstName(r.getFirstName())
+                .lastName(r.getLastName())
+                .email(r.getEmail())
+                .registrationDate(hoy)
+                .estado(EstadoClienteEnum.ACTIVO)
+                .build());
+        ResultadoFila resultado = resultado(fila, EstadoFilaImportacion.CREADO, null);
+        resultado.setClienteId(clienteId);
+        return resultado;
+    }
+
+    private static ResultadoFila resultado(Fila fila, EstadoFilaImportacion estado, String mensaje) {
+        return ResultadoFila.builder()
+                .fila(fila.numero)
+                .dni(fila.request != null ? fila.request.getDni() : null)
+                .estado(estado)
+                .mensaje(mensaje)
+                .build();
+    }
+
+    private static Fila filaDesdeCsv(int numero, List<String> campos, Map<String, Integer> columnas) {
+        String fechaNacimiento = campo(campos, columnas, "fechanacimiento");
+        RegistroClienteRequest.RegistroClienteRequestBuilder request = RegistroClienteRequest.builder()
+                .dni(campo(campos, columnas, "dni"))
+                .firstName(campo(campos, columnas, "firstname"))
+                .lastName(campo(campos, columnas, "lastname"))
+                .email(campo(campos, columnas, "email"))
+                .phoneNumber(campo(campos, columnas, "phonenumber"))
+                .telefonoFijo(campo(campos, columnas, "telefonofijo"))
+                .address(campo(campos, columnas, "address"))
+                .genero(campo(campos, columnas, "genero"))
+                .ocupacion(campo(campos, columnas, "ocupacion"));
+        try {
+            if (fechaNacimiento != null) {
+                request.fechaNacimiento(LocalDate.parse(fechaNacimiento));
+            }
+        } catch (DateTimeParseException e) {
+            return new Fila(numero, request.build(), "Fecha de nacimiento inválida (yyyy-MM-dd): " + fechaNacimiento);
+        }
+        return new Fila(numero, request.build(), null);
+    }
+
+    // Valor recortado de la columna, o null si no existe o está vacío
+    private static String campo(List<String> campos, Map<String, Integer> columnas, String columna) {
+        Integer posicion = columnas.get(columna);
+        if (posicion == null || posicion >= campos.size()) {
+            return null;
+        }
+        String valor = campos.get(posicion).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static String siguienteLineaConDatos(BufferedReader lector) throws IOException {
+        String linea;
+        do {
+            linea = lector.readLine();
+        } while (linea != null && linea.isBlank());
+        return linea;
+    }
+
+    /**
+     * Separa un registro CSV (RFC 4180): campos entre comillas dobles, comillas escapadas
+     * como "" y saltos de línea dentro de un campo entre comillas.
+     */
+    private static List<String> leerRegistroCsv(String linea, BufferedReader lector, char separador) throws IOException {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        while (true) {
+            for (int i = 0; i < linea.length(); i++) {
+                char c = linea.charAt(i);
+                if (entreComillas) {
+                    if (c != '"') {
+                        campo.append(c);
+                    } else if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else if (c == '"') {
+                    entreComillas = true;
+                } else if (c == separador) {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else {
+                    campo.append(c);
+                }
+            }
+            if (!entreComillas) {
+                break;
+            }
+            linea = lector.readLine();
+            if (linea == null) {
+                break;
+            }
+            campo.append('\n');
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    /**
+     * Clave de comparación de DNI y email: la intercalación de MySQL no distingue
+     * mayúsculas, así que un email con otra capitalización también es duplicado.
+     */
+    private static String clave(String valor) {
+        return valor != null ? valor.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static Set<String> claves(Collection<String> valores) {
+        return valores.stream().map(ClienteImportacionServicioImpl::clave).collect(Collectors.toSet());
+    }
+
+    @PreDestroy
+    void detener() {
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface LectorFilas {
+        // null al terminar el archivo
+        Fila siguiente() throws IOException;
+    }
+
+    private static final class Fila {
+        private final int numero;
+        private final RegistroClienteRequest request;
+        // Error de lectura (formato) que invalida la fila antes de validarla
+        private final String error;
+
+        private Fila(int numero, RegistroClienteRequest request, String error) {
+            this.numero = numero;
+            this.request = request;
+            this.error = error;
+        }
+    }
+}
@@ -14,18 +14,33 @@ import com.venta.backend.cliente.application.specifications.ClienteEspecificacio
 import com.venta.backend.cliente.entities.Cliente;
 import com.venta.backend.cliente.enums.EstadoClienteEnum;
 import com.venta.backend.cliente.infraestructura.clientes.IClienteValidacion;
+import com.venta.backend.cliente.infraestructura.busqueda.ClienteBusquedaIndice;
+import com.venta.backend.cliente.infraestructura.cache.ClienteCache;
+import com.venta.backend.cliente.infraestructura.cache.ClienteSnapshot;
 import com.venta.backend.cliente.infraestructura.clientes.IClienteVenta;
 import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
+import com.venta.backend.cliente.infraestructura.unicidad.UnicidadClienteFiltro;
+import com.venta.backend.common.paginacion.ConsultaSlice;
+import com.venta.backend.common.paginacion.ConteoEstimado;
+import com.venta.backend.common.paginacion.PaginaEstimada;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -40,6 +55,11 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
     private final IClienteMapeador clienteMapeador;
     private final IClienteValidacion clienteValidacion;
     private final IClienteVenta clienteVenta;
+    private final ClienteBusquedaIndice clienteBusquedaIndice;
+    private final ClienteCache clienteCache;
+    private final UnicidadClienteFiltro unicidadClienteFiltro;
+    private final ConsultaSlice consultaSlice;
+    private final ConteoEstimado conteoEstimado;
 
     // ========== MÉTODOS DE ADMINISTRACIÓN ==========
 
@@ -47,13 +67,16 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
     @Transactional
     public ClienteResponse registrarCliente(RegistroClienteRequest request) {
         // Validar que el DNI no exista (solo si el DNI no es null)
+        // El filtro en memoria descarta sin consultar los valores que seguro no existen
         if (request.getDni() != null && !request.getDni().trim().isEmpty() 
+                && unicidadClienteFiltro.podriaExistirDni(request.getDni())
                 && clienteRepositorio.existsByDni(request.getDni())) {
             throw new RegistroClienteException("Ya existe un cliente con el DNI: " + request.getDni());
         }
 
         // Validar que el email no exista (si se proporciona)
         if (request.getEmail() != null && !request.getEmail().isBlank() 
+                && unicidadClienteFiltro.podriaExistirEmail(request.getEmail())
                 && clienteRepositorio.existsByEmail(request.getEmail())) {
             throw new RegistroClienteException("Ya existe un cliente con el email: " + request.getEmail());
         }
@@ -79,7 +102,8 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
                 .categoria("Estándar") // Categoría inicial
                 .build();
 
-        Cliente clienteGuardado = clienteRepositorio.save(nuevoCliente);
+        Cliente clienteGuardado = guardarNuevo(nuevoCliente);
+        clienteBusquedaIndice.registrar(clienteGuardado);
 
         return clienteMapeador.toClienteResponse(clienteGuardado);
     }
@@ -93,8 +117,9 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
         if (request.getDni() != null) {
             // Validar que el DNI no esté en uso por otro cliente (solo si no es null)
             if (!request.getDni().trim().isEmpty() 
-                    && clienteRepositorio.existsByDni(request.getDni()) 
-                    && !cliente.getDni().equals(request.getDni())) {
+                    && !request.getDni().equals(cliente.getDni())
+                    && unicidadClienteFiltro.podriaExistirDni(request.getDni())
+                    && clienteRepositorio.existsByDni(request.getDni())) {
                 throw new RegistroClienteException("Ya existe un cliente con el DNI: " + request.getDni());
             }
             cliente.setDni(request.getDni());
@@ -106,11 +131,7 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
             cliente.setLastName(request.getLastName());
         }
         if (request.getEmail() != null) {
-            // Validar que el email no esté en uso por otro cliente
-            if (clienteRepositorio.existsByEmail(request.getEmail()) 
-                    && !cliente.getEmail().equals(request.getEmail())) {
-                throw new RegistroClienteException("Ya existe un cliente con el email: " + request.getEmail());
-            }
+            validarEmailDisponible(cliente, request.getEmail());
             cliente.setEmail(request.getEmail());
         }
         if (request.getPhoneNumber() != null) {
@@ -129,7 +150,10 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
             cliente.changeStatus(request.getEstado());
         }
 
+        unicidadClienteFiltro.registrar(cliente.getDni(), cliente.getEmail());
         Cliente clienteActualizado = clienteRepositorio.save(cliente);
+        clienteBusquedaIndice.registrar(clienteActualizado);
+        clienteCache.invalidar(clienteActualizado.getClienteId());
 
         return clienteMapeador.toClienteResponse(clienteActualizado);
     }
@@ -139,11 +163,12 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
     public ClienteIdResponse crearClienteSimple(CrearClienteSimpleRequest request) {
         // Validar que el DNI no exista (solo si se proporciona DNI)
         if (request.getDni() != null && !request.getDni().isBlank()) {
-            if (clienteRepositorio.existsByDni(request.getDni())) {
-                Cliente clienteExistente = clienteRepositorio.findByDni(request.getDni())
-                        .orElseThrow(() -> new RecursoNoEncontradoException("Cliente no encontrado"));
+            Optional<ClienteSnapshot> clienteExistente = unicidadClienteFiltro.podriaExistirDni(request.getDni())
+                    ? clienteCache.porDni(request.getDni())
+                    : Optional.empty();
+            if (clienteExistente.isPresent()) {
                 return ClienteIdResponse.builder()
-                        .clienteId(clienteExistente.getClienteId())
+                        .clienteId(clienteExistente.get().getClienteId())
                         .build();
             }
 
@@ -168,7 +193,8 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
                 .categoria("Estándar")
                 .build();
 
-        Cliente clienteGuardado = clienteRepositorio.save(nuevoCliente);
+        Cliente clienteGuardado = guardarNuevo(nuevoCliente);
+        clienteBusquedaIndice.registrar(clienteGuardado);
 
         return ClienteIdResponse.builder()
                 .clienteId(clienteGuardado.getClienteId())
@@ -189,15 +215,28 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
 
         cliente.changeStatus(EstadoClienteEnum.INACTIVO);
         clienteRepositorio.save(cliente);
+        clienteBusquedaIndice.registrar(cliente);
+        clienteCache.invalidar(clienteId);
     }
 
     // ========== MÉTODOS DE CONSULTA ==========
 
     @Override
     @Transactional(readOnly = true)
-    public PageClienteResponse filtrarClientes(String filtro, EstadoClienteEnum estado, Pageable pageable) {
+    public PageClienteResponse filtrarClientes(String filtro, EstadoClienteEnum estado, Pageable pageable, boolean totalExacto) {
+        // Con texto libre, el índice en memoria evita el LIKE '%x%' sobre toda la tabla
+        if (filtro != null && !filtro.isBlank() && pageable.isPaged() && pageable.getSort().isUnsorted()) {
+            Optional<ClienteBusquedaIndice.Resultado> resultado =
+                    clienteBusquedaIndice.buscar(filtro, estado, pageable.getOffset(), pageable.getPageSize());
+            if (resultado.isPresent()) {
+                return paginaDesdeIndice(resultado.get(), pageable);
+            }
+        }
+
         Specification<Cliente> spec = ClienteEspecificacion.buildSpecification(filtro, estado);
-        Page<Cliente> clientePage = clienteRepositorio.findAll(spec, pageable);
+        Page<Cliente> clientePage = totalExacto
+                ? clienteRepositorio.findAll(spec, pageable)
+                : paginaSinConteo(claveConteo("clientes", filtro, estado), spec, pageable);
 
         List<ClienteResponse> clientesResponse = clientePage.getContent().stream()
                 .map(clienteMapeador::toClienteResponse)
@@ -209,6 +248,8 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
                 .totalPages(clientePage.getTotalPages())
                 .totalElements(clientePage.getTotalElements())
                 .pageSize(clientePage.getSize())
+                .hasNext(clientePage.hasNext())
+                .totalExact(esTotalExacto(clientePage))
                 .build();
     }
 
@@ -233,8 +274,10 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
 
     @Override
     @Transactional(readOnly = true)
-    public PageMarketingClienteResponse obtenerDatosParaMarketing(Pageable pageable) {
-        Page<Cliente> clientePage = clienteRepositorio.findAll(pageable);
+    public PageMarketingClienteResponse obtenerDatosParaMarketing(Pageable pageable, boolean totalExacto) {
+        Page<Cliente> clientePage = totalExacto
+                ? clienteRepositorio.findAll(pageable)
+                : paginaSinConteo(claveConteo("marketing", null, null), null, pageable);
         java.time.LocalDate hoy = java.time.LocalDate.now();
 
         List<PageMarketingClienteResponse.ClienteMarketingDTO> clientesMarketing = clientePage.getContent().stream()
@@ -287,13 +330,15 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
                 .totalPages(clientePage.getTotalPages())
                 .totalElements(clientePage.getTotalElements())
                 .pageSize(clientePage.getSize())
+                .hasNext(clientePage.hasNext())
+                .totalExact(esTotalExacto(clientePage))
                 .build();
     }
 
     @Override
     @Transactional(readOnly = true)
     public ClienteVentaDTO buscarClienteParaVenta(String dni) {
-        Cliente cliente = clienteRepositorio.findByDni(dni)
+        ClienteSnapshot cliente = clienteCache.porDni(dni)
                 .orElseThrow(() -> new RecursoNoEncontradoException("Cliente no encontrado con DNI: " + dni));
 
         // Verificar si tiene deudas
@@ -322,7 +367,8 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
     @Override
     @Transactional(readOnly = true)
     public ClienteResponse obtenerClientePorDni(String dni) {
-        Cliente cliente = clienteRepositorio.findByDni(dni)
+        Cliente cliente = clienteCache.porDni(dni)
+                .map(ClienteSnapshot::aCliente)
                 .orElseThrow(() -> new RecursoNoEncontradoException("Cliente no encontrado con DNI: " + dni));
         return clienteMapeador.toClienteResponse(cliente);
     }
@@ -344,11 +390,7 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
             cliente.setLastName(request.getLastName());
         }
         if (request.getEmail() != null) {
-            // Validar que el email no esté en uso por otro cliente
-            if (clienteRepositorio.existsByEmail(request.getEmail()) 
-                    && !cliente.getEmail().equals(request.getEmail())) {
-                throw new RegistroClienteException("Ya existe un cliente con el email: " + request.getEmail());
-            }
+            validarEmailDisponible(cliente, request.getEmail());
             cliente.setEmail(request.getEmail());
         }
         if (request.getPhoneNumber() != null) {
@@ -367,12 +409,85 @@ public class ClienteServicioImpl implements IClienteAdminServicio, IClienteConsu
             cliente.changeStatus(request.getEstado());
         }
 
+        unicidadClienteFiltro.registrar(cliente.getDni(), cliente.getEmail());
         Cliente clienteActualizado = clienteRepositorio.save(cliente);
+        clienteBusquedaIndice.registrar(clienteActualizado);
+        clienteCache.invalidar(clienteActualizado.getClienteId());
         return clienteMapeador.toClienteResponse(clienteActualizado);
     }
 
     // ========== MÉTODOS PRIVADOS AUXILIARES ==========
 
+    /**
+     * Inserta un cliente nuevo. Si otro registro concurrente ganó el DNI o el email,
+     * la restricción UNIQUE lo rechaza y se informa como duplicado.
+     */
+    private Cliente guardarNuevo(Cliente nuevoCliente) {
+        unicidadClienteFiltro.registrar(nuevoCliente.getDni(), nuevoCliente.getEmail());
+        try {
+            return clienteRepositorio.save(nuevoCliente);
+        } catch (DataIntegrityViolationException e) {
+            throw new RegistroClienteException("Ya existe un cliente con el DNI o email indicado");
+        }
+    }
+
+    /**
+     * Valida que el email no esté en uso por otro cliente.
+     */
+    private void validarEmailDisponible(Cliente cliente, String email) {
+        if (!email.equals(cliente.getEmail())
+                && unicidadClienteFiltro.podriaExistirEmail(email)
+                && clienteRepositorio.existsByEmail(email)) {
+            throw new RegistroClienteException("Ya existe un cliente con el email: " + email);
+        }
+    }
+
+    /**
+     * Carga por clave primaria solo los clientes de la página que resolvió el índice,
+     * conservando su orden de relevancia.
+     */
+    private PageClienteResponse paginaDesdeIndice(ClienteBusquedaIndice.Resultado resultado, Pageable pageable) {
+        Map<Long, Cliente> clientesPorId = clienteRepositorio.findAllById(resultado.getClienteIds()).stream()
+                .collect(Collectors.toMap(Cliente::getClienteId, Function.identity()));
+
+        List<ClienteResponse> clientesResponse = resultado.getClienteIds().stream()
+                .map(clientesPorId::get)
+                .filter(Objects::nonNull)
+                .map(clienteMapeador::toClienteResponse)
+                .collect(Collectors.toList());
+        Page<ClienteResponse> pagina = new PageImpl<>(clientesResponse, pageable, resultado.getTotal());
+
+        return PageClienteResponse.builder()
+                .clientes(clientesResponse)
+                .currentPage(pagina.getNumber())
+                .totalPages(pagina.getTotalPages())
+                .totalElements(pagina.getTotalElements())
+                .pageSize(pagina.getSize())
+                .hasNext(pagina.hasNext())
+                .totalExact(true)
+                .build();
+    }
+
+    /**
+     * Página sin COUNT: trae una fila de más para saber si hay siguiente y toma el total
+     * de ConteoEstimado (que cuenta en segundo plano cuando hace falta).
+     */
+    private Page<Cliente> paginaSinConteo(String clave, Specification<Cliente> spec, Pageable pageable) {
+        Slice<Cliente> slice = consultaSlice.buscar(Cliente.class, spec, pageable);
+        ConteoEstimado.Total total = conteoEstimado.total(clave, slice,
+                () -> spec != null ? clienteRepositorio.count(spec) : clienteRepositorio.count());
+        return new PaginaEstimada<>(slice, total);
+    }
+
+    private static String claveConteo(String consulta, String filtro, EstadoClienteEnum estado) {
+        String texto = filtro != null ? filtro.trim().toLowerCase(Locale.ROOT) : "";
+        return consulta + "|" + estado + "|" + texto;
+    }
+
+    private static boolean esTotalExacto(Page<?> pagina) {
+        return !(pagina instanceof PaginaEstimada<?> estimada) || estimada.isTotalExact();
+    }
+
     private Cliente findClienteEntityById(Long clienteId) {
         return clienteRepositorio.findById(clienteId)
                 .orElseThrow(() -> new RecursoNoEncontradoException("Cliente no encontrado con ID: " + clienteId));
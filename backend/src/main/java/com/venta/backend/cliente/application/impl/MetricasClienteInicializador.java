@@ -0,0 +1,32 @@
+package com.venta.backend.cliente.application.impl;
+
+import com.venta.backend.cliente.application.servicios.IMetricasClienteServicio;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Construye las métricas por cliente la primera vez que la aplicación arranca
+ * con las tablas vacías.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MetricasClienteInicializador {
+
+    private final IMetricasClienteServicio metricasClienteServicio;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            if (metricasClienteServicio.estaVacio()) {
+                metricasClienteServicio.recalcular();
+            }
+        } catch (RuntimeException e) {
+            // No impedir el arranque: las métricas se pueden reconstruir luego desde el endpoint
+            log.warn("No se pudieron inicializar las métricas de clientes: {} [MetricasClienteInicializador]", e.getMessage());
+        }
+    }
+}
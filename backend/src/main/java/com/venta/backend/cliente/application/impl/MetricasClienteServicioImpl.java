@@ -0,0 +1,101 @@
+package com.venta.backend.cliente.application.impl;
+
+import com.venta.backend.cliente.application.servicios.IMetricasClienteServicio;
+import com.venta.backend.cliente.infraestructura.repository.MetricasCompraClienteRepositorio;
+import com.venta.backend.cliente.infraestructura.repository.MetricasCotizacionClienteRepositorio;
+import com.venta.backend.cotizacion.model.CotizacionEstado;
+import com.venta.backend.venta.entities.Venta;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * Mantiene las métricas por cliente que antes el reporte general recalculaba con
+ * dos GROUP BY sobre todo el historial en cada llamada.
+ *
+ * Los registros usan upserts atómicos (sin leer la fila) dentro de la transacción del
+ * llamador, de modo que las métricas y la venta o cotización se confirman o revierten
+ * juntas. recalcular() reconstruye ambas tablas desde cero.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MetricasClienteServicioImpl implements IMetricasClienteServicio {
+
+    private final MetricasCompraClienteRepositorio comprasRepositorio;
+    private final MetricasCotizacionClienteRepositorio cotizacionesRepositorio;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarVentaConfirmada(Venta venta) {
+        if (venta.getClienteId() == null) {
+            return;
+        }
+        comprasRepositorio.sumar(venta.getClienteId(), 1, monto(venta.getTotal()),
+                monto(venta.getDescuentoTotal()), venta.getFechaVentaCreada());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarVentaCancelada(Venta venta) {
+        if (venta.getClienteId() == null) {
+            return;
+        }
+        comprasRepositorio.sumar(venta.getClienteId(), -1, monto(venta.getTotal()).negate(),
+                monto(venta.getDescuentoTotal()).negate(), null);
+        comprasRepositorio.recalcularFechaUltimaCompra(venta.getClienteId());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambioMontosVenta(Venta venta, BigDecimal totalAnterior, BigDecimal descuentoAnterior) {
+        if (venta.getClienteId() == null) {
+            return;
+        }
+        BigDecimal deltaTotal = monto(venta.getTotal()).subtract(monto(totalAnterior));
+        BigDecimal deltaDescuento = monto(venta.getDescuentoTotal()).subtract(monto(descuentoAnterior));
+        if (deltaTotal.signum() != 0 || deltaDescuento.signum() != 0) {
+            comprasRepositorio.sumar(venta.getClienteId(), 0, deltaTotal, deltaDescuento, null);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCotizacionCreada(Long clienteId, CotizacionEstado estado) {
+        cotizacionesRepositorio.sumar(clienteId, 1, estado == CotizacionEstado.ACEPTADA ? 1 : 0);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambioEstadoCotizacion(Long clienteId, CotizacionEstado anterior, CotizacionEstado nuevo) {
+        long delta = (nuevo == CotizacionEstado.ACEPTADA ? 1 : 0) - (anterior == CotizacionEstado.ACEPTADA ? 1 : 0);
+        if (delta != 0) {
+            cotizacionesRepositorio.sumar(clienteId, 0, delta);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void recalcular() {
+        comprasRepositorio.vaciar();
+        int compras = comprasRepositorio.reconstruir();
+        cotizacionesRepositorio.vaciar();
+        int cotizaciones = cotizacionesRepositorio.reconstruir();
+        log.info("Métricas de clientes recalculadas: {} con compras, {} con cotizaciones [MetricasClienteServicioImpl]",
+                compras, cotizaciones);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean estaVacio() {
+        return comprasRepositorio.count() == 0 && cotizacionesRepositorio.count() == 0;
+    }
+
+    private static BigDecimal monto(BigDecimal valor) {
+        return valor != null ? valor : BigDecimal.ZERO;
+    }
+}
@@ -20,9 +20,11 @@ public interface IClienteConsultaServicio {
      * @param filtro Filtro de búsqueda general (puede ser nombre, DNI, etc.).
      * @param estado Estado del cliente para filtrar.
      * @param pageable Objeto que contiene el número de página y tamaño.
+     * @param totalExacto true para contar el total en cada búsqueda; false para evitar el COUNT
+     *                    y devolver un total estimado (ver totalExact en la respuesta).
      * @return Un objeto PageClienteResponse que contiene la lista de clientes y la info de paginación.
      */
-    PageClienteResponse filtrarClientes(String filtro, EstadoClienteEnum estado, Pageable pageable);
+    PageClienteResponse filtrarClientes(String filtro, EstadoClienteEnum estado, Pageable pageable, boolean totalExacto);
 
     /**
      * Obtiene el historial financiero y transacciones de un cliente.
@@ -37,9 +39,11 @@ public interface IClienteConsultaServicio {
      * Incluye información RFM (Recency, Frequency, Monetary) y datos demográficos.
      *
      * @param pageable Objeto que contiene el número de página y tamaño.
+     * @param totalExacto true para contar el total en cada consulta; false para evitar el COUNT
+     *                    y devolver un total estimado (ver totalExact en la respuesta).
      * @return Un PageMarketingClienteResponse con clientes y sus datos analíticos para marketing.
      */
-    PageMarketingClienteResponse obtenerDatosParaMarketing(Pageable pageable);
+    PageMarketingClienteResponse obtenerDatosParaMarketing(Pageable pageable, boolean totalExacto);
 
     /**
      * Busca un cliente por DNI para realizar una venta.
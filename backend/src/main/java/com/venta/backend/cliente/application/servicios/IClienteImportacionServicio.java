@@ -0,0 +1,32 @@
+package com.venta.backend.cliente.application.servicios;
+
+import com.venta.backend.cliente.application.dto.response.ImportacionClientesResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Interfaz para la importación masiva de clientes.
+ * Cada fila se valida y registra con las mismas reglas que el registro individual;
+ * las filas rechazadas no detienen la importación y se informan en la respuesta.
+ */
+public interface IClienteImportacionServicio {
+
+    /**
+     * Importa clientes desde un CSV con cabecera (separado por comas o punto y coma).
+     * Las columnas se identifican por nombre: dni, firstName, lastName, email, phoneNumber,
+     * telefonoFijo, address, fechaNacimiento (yyyy-MM-dd), genero, ocupacion.
+     *
+     * @param entrada El contenido del archivo, en UTF-8.
+     * @return El resultado de cada fila y los totales.
+     */
+    ImportacionClientesResponse importarCsv(InputStream entrada) throws IOException;
+
+    /**
+     * Importa clientes desde JSON lines: un RegistroClienteRequest por línea.
+     *
+     * @param entrada El contenido del archivo, en UTF-8.
+     * @return El resultado de cada fila y los totales.
+     */
+    ImportacionClientesResponse importarJsonLines(InputStream entrada) throws IOException;
+}
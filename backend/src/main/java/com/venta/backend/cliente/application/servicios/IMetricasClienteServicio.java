@@ -0,0 +1,55 @@
+package com.venta.backend.cliente.application.servicios;
+
+import com.venta.backend.cotizacion.model.CotizacionEstado;
+import com.venta.backend.venta.entities.Venta;
+
+import java.math.BigDecimal;
+
+/**
+ * Interfaz para el mantenimiento de las métricas por cliente del reporte general
+ * (tablas cliente_metricas_compras y cliente_metricas_cotizaciones).
+ * Los métodos de registro deben llamarse dentro de la transacción que origina el cambio.
+ */
+public interface IMetricasClienteServicio {
+
+    /**
+     * Suma una venta recién confirmada a las compras de su cliente.
+     */
+    void registrarVentaConfirmada(Venta venta);
+
+    /**
+     * Resta una venta que estaba confirmada y se cancela.
+     */
+    void registrarVentaCancelada(Venta venta);
+
+    /**
+     * Ajusta los montos de una venta confirmada cuyo total o descuento cambió.
+     *
+     * Los valores anteriores deben ser los persistidos, tomados antes de cualquier
+     * recálculo de la venta (calcularTotal() reinicia total y descuento).
+     *
+     * @param totalAnterior Total de la venta antes del cambio.
+     * @param descuentoAnterior Descuento total de la venta antes del cambio.
+     */
+    void registrarCambioMontosVenta(Venta venta, BigDecimal totalAnterior, BigDecimal descuentoAnterior);
+
+    /**
+     * Suma una cotización recién creada a su cliente.
+     */
+    void registrarCotizacionCreada(Long clienteId, CotizacionEstado estado);
+
+    /**
+     * Ajusta las cotizaciones aceptadas de un cliente cuando una cotización cambia de estado.
+     */
+    void registrarCambioEstadoCotizacion(Long clienteId, CotizacionEstado anterior, CotizacionEstado nuevo);
+
+    /**
+     * Reconstruye ambas tablas desde las ventas confirmadas y las cotizaciones.
+     */
+    void recalcular();
+
+    /**
+     * Indica si las métricas aún no se han construido.
+     */
+    boolean estaVacio();
+}
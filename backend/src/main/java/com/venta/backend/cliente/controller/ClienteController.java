@@ -4,9 +4,11 @@ import com.venta.backend.cliente.application.dto.request.RegistroClienteRequest;
 import com.venta.backend.cliente.application.dto.request.ModificacionClienteRequest;
 import com.venta.backend.cliente.application.dto.response.ClienteResponse;
 import com.venta.backend.cliente.application.dto.response.HistorialComprasResponse;
+import com.venta.backend.cliente.application.dto.response.ImportacionClientesResponse;
 import com.venta.backend.cliente.application.dto.response.PageClienteResponse;
 import com.venta.backend.cliente.application.servicios.IClienteAdminServicio;
 import com.venta.backend.cliente.application.servicios.IClienteConsultaServicio;
+import com.venta.backend.cliente.application.servicios.IClienteImportacionServicio;
 import com.venta.backend.cliente.enums.EstadoClienteEnum;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -18,6 +20,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/api/clientes")
 @RequiredArgsConstructor
@@ -27,6 +32,7 @@ public class ClienteController {
 
     private final IClienteAdminServicio adminServicio;
     private final IClienteConsultaServicio consultaServicio;
+    private final IClienteImportacionServicio importacionServicio;
 
     /**
      * POST /api/clientes/registroClientes
@@ -55,6 +61,7 @@ public class ClienteController {
     /**
      * GET /api/clientes/filtroClientes
      * Busca clientes con filtros y paginación
+     * Con totalExact=false no se cuenta el total en cada búsqueda (se devuelve estimado)
      */
     @GetMapping("/filtroClientes")
     @Operation(summary = "Filtrar Clientes", description = "Búsqueda paginada por criterios.")
@@ -62,10 +69,11 @@ public class ClienteController {
             @RequestParam(required = false) String filtro,
             @RequestParam(required = false) EstadoClienteEnum estado,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean totalExact) {
 
         Pageable pageable = PageRequest.of(page, size);
-        PageClienteResponse response = consultaServicio.filtrarClientes(filtro, estado, pageable);
+        PageClienteResponse response = consultaServicio.filtrarClientes(filtro, estado, pageable, totalExact);
         return ResponseEntity.ok(response);
     }
 
@@ -90,5 +98,24 @@ public class ClienteController {
         adminServicio.darBajaCliente(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    /**
+     * POST /api/clientes/importacion (text/csv)
+     * Importa clientes desde un CSV con cabecera; el cuerpo se lee en streaming
+     */
+    @PostMapping(value = "/importacion", consumes = "text/csv")
+    @Operation(summary = "Importar Clientes (CSV)", description = "Registra clientes en lote y devuelve el resultado por fila.")
+    public ResponseEntity<ImportacionClientesResponse> importarClientesCsv(InputStream cuerpo) throws IOException {
+        return ResponseEntity.ok(importacionServicio.importarCsv(cuerpo));
+    }
+
+    /**
+     * POST /api/clientes/importacion (application/x-ndjson)
+     * Importa clientes desde JSON lines (un registro por línea)
+     */
+    @PostMapping(value = "/importacion", consumes = "application/x-ndjson")
+    @Operation(summary = "Importar Clientes (JSON lines)", description = "Registra clientes en lote y devuelve el resultado por fila.")
+    public ResponseEntity<ImportacionClientesResponse> importarClientesJsonLines(InputStream cuerpo) throws IOException {
+        return ResponseEntity.ok(importacionServicio.importarJsonLines(cuerpo));
+    }
+}
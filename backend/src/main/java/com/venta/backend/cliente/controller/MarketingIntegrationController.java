@@ -21,11 +21,14 @@ public class MarketingIntegrationController {
     /**
      * GET /api/clientes/integracion/marketing
      * Devuelve data segmentada (RFM, demografía) para el módulo de Marketing.
+     * Con totalExact=false no se cuenta el total en cada página (se devuelve estimado)
      */
     @GetMapping
     @Operation(summary = "Data para Marketing", description = "Retorna clientes con score y datos analíticos.")
-    public ResponseEntity<PageMarketingClienteResponse> obtenerDatosMarketing(Pageable pageable) {
-        PageMarketingClienteResponse response = consultaServicio.obtenerDatosParaMarketing(pageable);
+    public ResponseEntity<PageMarketingClienteResponse> obtenerDatosMarketing(
+            Pageable pageable,
+            @RequestParam(defaultValue = "true") boolean totalExact) {
+        PageMarketingClienteResponse response = consultaServicio.obtenerDatosParaMarketing(pageable, totalExact);
         return ResponseEntity.ok(response);
     }
 }
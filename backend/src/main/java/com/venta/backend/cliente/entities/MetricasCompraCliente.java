@@ -0,0 +1,37 @@
+package com.venta.backend.cliente.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Acumulado de compras (ventas CONFIRMADAS) por cliente, usado por el reporte general.
+ * Se actualiza en la misma transacción que confirma, cancela o descuenta una venta.
+ */
+@Entity
+@Table(name = "cliente_metricas_compras")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricasCompraCliente {
+
+    @Id
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    @Column(name = "total_ventas", nullable = false)
+    private Long totalVentas;
+
+    @Column(name = "monto_acumulado", nullable = false, precision = 14, scale = 2)
+    private BigDecimal montoAcumulado;
+
+    @Column(name = "descuento_acumulado", nullable = false, precision = 14, scale = 2)
+    private BigDecimal descuentoAcumulado;
+
+    @Column(name = "fecha_ultima_compra")
+    private LocalDate fechaUltimaCompra;
+}
@@ -0,0 +1,28 @@
+package com.venta.backend.cliente.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Acumulado de cotizaciones por cliente, usado por el reporte general.
+ * Se actualiza en la misma transacción que crea una cotización o cambia su estado.
+ */
+@Entity
+@Table(name = "cliente_metricas_cotizaciones")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricasCotizacionCliente {
+
+    @Id
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    @Column(name = "total_cotizaciones", nullable = false)
+    private Long totalCotizaciones;
+
+    @Column(name = "cotizaciones_aceptadas", nullable = false)
+    private Long cotizacionesAceptadas;
+}
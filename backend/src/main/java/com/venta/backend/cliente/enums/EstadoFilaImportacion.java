@@ -0,0 +1,9 @@
+package com.venta.backend.cliente.enums;
+
+public enum EstadoFilaImportacion {
+    CREADO,
+    DUPLICADO,
+    NO_APTO,
+    INVALIDO,
+    ERROR
+}
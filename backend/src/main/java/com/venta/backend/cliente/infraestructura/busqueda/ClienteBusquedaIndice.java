@@ -0,0 +1,429 @@
+package com.venta.backend.cliente.infraestructura.busqueda;
+
+import com.venta.backend.cliente.entities.Cliente;
+import com.venta.backend.cliente.enums.EstadoClienteEnum;
+import com.venta.backend.cliente.infraestructura.repository.ClienteBusquedaProjection;
+import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Índice en memoria para la búsqueda de clientes por texto libre (nombre, apellido,
+ * nombre completo, DNI o email), que en base de datos solo se puede resolver con
+ * LIKE '%x%' recorriendo toda la tabla.
+ *
+ * Cada cliente se indexa por los trigramas de sus campos normalizados (minúsculas y
+ * sin tildes, como la intercalación de MySQL). Una búsqueda intersecta las listas de
+ * ids de los trigramas del filtro, confirma la coincidencia contra el texto guardado y
+ * ordena por relevancia: campo idéntico, inicio de campo, inicio de palabra y el resto.
+ * Las tablas usan claves long (trigrama empaquetado e id de cliente) y listas de ids
+ * en arreglos long[] ordenados, sin objetos por entrada.
+ *
+ * Se construye al arrancar y se actualiza con cada alta o modificación de cliente
+ * después del commit. Mientras no está listo, o si el filtro tiene menos de tres
+ * caracteres, {@link #buscar} devuelve vacío y se usa la consulta a la base de datos.
+ */
+@Slf4j
+@Component
+public class ClienteBusquedaIndice {
+
+    // Separa los campos en el texto indexado; ningún filtro lo contiene
+    private static final char SEPARADOR = '\u0001';
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final int LARGO_TRIGRAMA = 3;
+    private static final long MASCARA_ID = (1L << 56) - 1;
+
+    private final ClienteRepositorio clienteRepositorio;
+    private final TransactionTemplate transaccionLectura;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Protegidos por lock
+    private TablaLong<Postings> trigramas = new TablaLong<>();
+    private TablaLong<Documento> documentos = new TablaLong<>();
+    private volatile boolean listo;
+
+    public ClienteBusquedaIndice(ClienteRepositorio clienteRepositorio, PlatformTransactionManager transactionManager) {
+        this.clienteRepositorio = clienteRepositorio;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            // No impedir el arranque: las búsquedas siguen yendo a la base de datos
+            log.warn("No se pudo construir el índice de búsqueda de clientes: {} [ClienteBusquedaIndice]", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruye el índice desde la tabla cliente. Las altas y modificaciones que se
+     * confirmen mientras tanto esperan y se aplican al terminar.
+     */
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            listo = false;
+            trigramas = new TablaLong<>();
+            documentos = new TablaLong<>();
+            transaccionLectura.executeWithoutResult(status -> {
+                try (Stream<ClienteBusquedaProjection> clientes = clienteRepositorio.streamDatosBusqueda()) {
+                    clientes.forEach(c -> indexar(c.getClienteId(),
+                            texto(c.getFirstName(), c.getLastName(), c.getDni(), c.getEmail()), c.getEstado()));
+                }
+            });
+            listo = true;
+            log.info("Índice de búsqueda de clientes construido: {} clientes, {} trigramas en {} ms [ClienteBusquedaIndice]",
+                    documentos.tamano, trigramas.tamano, System.currentTimeMillis() - inicio);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa el estado actual del cliente. Dentro de una transacción se aplica recién
+     * después del commit, para no mostrar altas que terminen en rollback.
+     */
+    public void registrar(Cliente cliente) {
+        long clienteId = cliente.getClienteId();
+        String texto = texto(cliente.getFirstName(), cliente.getLastName(), cliente.getDni(), cliente.getEmail());
+        EstadoClienteEnum estado = cliente.getEstado();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    actualizar(clienteId, texto, estado);
+                }
+            });
+        } else {
+            actualizar(clienteId, texto, estado);
+        }
+    }
+
+    /**
+     * Busca los clientes cuyo nombre, apellido, nombre completo, DNI o email contienen
+     * el filtro, ordenados por relevancia.
+     *
+     * @return la página de ids pedida y el total exacto, o vacío si el índice no puede
+     *         responder (no está listo o el filtro es demasiado corto)
+     */
+    public Optional<Resultado> buscar(String filtro, EstadoClienteEnum estado, long offset, int limite) {
+        if (!listo || filtro == null) {
+            return Optional.empty();
+        }
+        String consulta = normalizar(filtro);
+        if (consulta.length() < LARGO_TRIGRAMA) {
+            return Optional.empty();
+        }
+        long[] claves = trigramasDistintos(consulta);
+
+        long[] orden;
+        int total = 0;
+        lock.readLock().lock();
+        try {
+            if (!listo) {
+                return Optional.empty();
+            }
+
+            Postings[] listas = new Postings[claves.length];
+            for (int i = 0; i < claves.length; i++) {
+                listas[i] = trigramas.get(claves[i]);
+                if (listas[i] == null || listas[i].tamano == 0) {
+                    return Optional.of(new Resultado(List.of(), 0));
+                }
+            }
+            // Empezar por la lista más corta: el resto solo se consulta por búsqueda binaria
+            Arrays.sort(listas, Comparator.comparingInt(lista -> lista.tamano));
+            long[] candidatos = Arrays.copyOf(listas[0].ids, listas[0].tamano);
+            int cantidad = candidatos.length;
+            for (int i = 1; i < listas.length && cantidad > 0; i++) {
+                int quedan = 0;
+                for (int j = 0; j < cantidad; j++) {
+                    if (listas[i].contiene(candidatos[j])) {
+                        candidatos[quedan++] = candidatos[j];
+                    }
+                }
+                cantidad = quedan;
+            }
+
+            // Tener todos los trigramas no garantiza contener el filtro: se confirma y se puntúa
+            orden = new long[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                Documento documento = documentos.get(candidatos[i]);
+                if (documento == null || (estado != null && documento.estado != estado)) {
+                    continue;
+                }
+                int relevancia = relevancia(documento.texto, consulta);
+                if (relevancia >= 0) {
+                    orden[total++] = ((long) relevancia << 56) | candidatos[i];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Por relevancia y, a igual relevancia, por id (el orden que daba la base de datos)
+        Arrays.sort(orden, 0, total);
+        int desde = (int) Math.min(offset, total);
+        int hasta = (int) Math.min((long) desde + limite, total);
+        List<Long> clienteIds = new ArrayList<>(hasta - desde);
+        for (int i = desde; i < hasta; i++) {
+            clienteIds.add(orden[i] & MASCARA_ID);
+        }
+        return Optional.of(new Resultado(clienteIds, total));
+    }
+
+    /**
+     * Cantidad de clientes indexados bajo un trigrama (sin normalizar). Como {@link #buscar}
+     * confirma cada coincidencia contra el texto, una lista con ids de más no se nota en
+     * los resultados; las pruebas la verifican con este método.
+     */
+    int clientesConTrigrama(String trigrama) {
+        long[] claves = trigramasDistintos(normalizar(trigrama));
+        lock.readLock().lock();
+        try {
+            Postings lista = claves.length == 1 ? trigramas.get(claves[0]) : null;
+            return lista != null ? lista.tamano : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void actualizar(long clienteId, String texto, EstadoClienteEnum estado) {
+        lock.writeLock().lock();
+        try {
+            indexar(clienteId, texto, estado);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Requiere el write lock
+    private void indexar(long clienteId, String texto, EstadoClienteEnum estado) {
+        Documento anterior = documentos.get(clienteId);
+        if (anterior != null) {
+            if (anterior.texto.equals(texto)) {
+                anterior.estado = estado;
+                return;
+            }
+            recorrerTrigramas(anterior.texto, clave -> {
+                Postings lista = trigramas.get(clave);
+                if (lista != null) {
+                    lista.quitar(clienteId);
+                }
+            });
+        }
+        documentos.put(clienteId, new Documento(texto, estado));
+        recorrerTrigramas(texto, clave -> trigramas.computeIfAbsent(clave, Postings::new).agregar(clienteId));
+    }
+
+    /**
+     * 0 si un campo es igual al filtro, 1 si un campo empieza con él, 2 si alguna palabra
+     * empieza con él, 3 si solo lo contiene y -1 si no lo contiene.
+     */
+    private static int relevancia(String texto, String consulta) {
+        int mejor = -1;
+        for (int i = texto.indexOf(consulta); i >= 0; i = texto.indexOf(consulta, i + 1)) {
+            int fin = i + consulta.length();
+            boolean inicioCampo = i == 0 || texto.charAt(i - 1) == SEPARADOR;
+            boolean finCampo = fin == texto.length() || texto.charAt(fin) == SEPARADOR;
+            int actual;
+            if (inicioCampo && finCampo) {
+                return 0;
+            } else if (inicioCampo) {
+                actual = 1;
+            } else if (" @._-".indexOf(texto.charAt(i - 1)) >= 0) {
+                actual = 2;
+            } else {
+                actual = 3;
+            }
+            mejor = mejor < 0 ? actual : Math.min(mejor, actual);
+        }
+        return mejor;
+    }
+
+    private static String texto(String firstName, String lastName, String dni, String email) {
+        StringBuilder texto = new StringBuilder();
+        for (String campo : new String[]{firstName, lastName, firstName + " " + lastName, dni, email}) {
+            if (campo != null && !campo.isEmpty()) {
+                if (!texto.isEmpty()) {
+                    texto.append(SEPARADOR);
+                }
+                texto.append(campo);
+            }
+        }
+        return normalizar(texto.toString());
+    }
+
+    private static String normalizar(String valor) {
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(valor, Normalizer.Form.NFD)).replaceAll("");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+
+    private static long[] trigramasDistintos(String consulta) {
+        long[] claves = new long[consulta.length() - LARGO_TRIGRAMA + 1];
+        int[] cantidad = {0};
+        recorrerTrigramas(consulta, clave -> claves[cantidad[0]++] = clave);
+        return Arrays.stream(claves, 0, cantidad[0]).distinct().toArray();
+    }
+
+    // Tres caracteres UTF-16 empaquetados en un long; se omiten los que cruzan campos
+    private static void recorrerTrigramas(String texto, LongConsumer accion) {
+        for (int i = 0; i + LARGO_TRIGRAMA <= texto.length(); i++) {
+            char a = texto.charAt(i);
+            char b = texto.charAt(i + 1);
+            char c = texto.charAt(i + 2);
+            if (a != SEPARADOR && b != SEPARADOR && c != SEPARADOR) {
+                accion.accept(((long) a << 32) | ((long) b << 16) | c);
+            }
+        }
+    }
+
+    /**
+     * Una página de resultados del índice.
+     */
+    @Value
+    public static class Resultado {
+        List<Long> clienteIds;
+        long total;
+    }
+
+    private static final class Documento {
+        private final String texto;
+        private EstadoClienteEnum estado;
+
+        private Documento(String texto, EstadoClienteEnum estado) {
+            this.texto = texto;
+            this.estado = estado;
+        }
+    }
+
+    /**
+     * Ids de cliente ordenados y sin repetir.
+     */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int tamano;
+
+        private void agregar(long id) {
+            // Las altas tienen ids crecientes: casi siempre van al final
+            int posicion = tamano;
+            if (tamano > 0 && ids[tamano - 1] >= id) {
+                posicion = Arrays.binarySearch(ids, 0, tamano, id);
+                if (posicion >= 0) {
+                    return;
+                }
+                posicion = -posicion - 1;
+            }
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            System.arraycopy(ids, posicion, ids, posicion + 1, tamano - posicion);
+            ids[posicion] = id;
+            tamano++;
+        }
+
+        private void quitar(long id) {
+            int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+            if (posicion >= 0) {
+                System.arraycopy(ids, posicion + 1, ids, posicion, tamano - posicion - 1);
+                tamano--;
+            }
+        }
+
+        private boolean contiene(long id) {
+            return Arrays.binarySearch(ids, 0, tamano, id) >= 0;
+        }
+    }
+
+    /**
+     * Tabla hash de direccionamiento abierto con claves long, sin borrado (los clientes
+     * no se eliminan y una lista de trigrama vacía se conserva).
+     */
+    private static final class TablaLong<V> {
+        private long[] claves = new long[1024];
+        private Object[] valores = new Object[1024];
+        private int tamano;
+
+        @SuppressWarnings("unchecked")
+        private V get(long clave) {
+            int mascara = claves.length - 1;
+            for (int i = indice(clave, mascara); valores[i] != null; i = (i + 1) & mascara) {
+                if (claves[i] == clave) {
+                    return (V) valores[i];
+                }
+            }
+            return null;
+        }
+
+        private void put(long clave, V valor) {
+            if ((tamano + 1) * 4L > claves.length * 3L) {
+                crecer();
+            }
+            int mascara = claves.length - 1;
+            int i = indice(clave, mascara);
+            while (valores[i] != null) {
+                if (claves[i] == clave) {
+                    valores[i] = valor;
+                    return;
+                }
+                i = (i + 1) & mascara;
+            }
+            claves[i] = clave;
+            valores[i] = valor;
+            tamano++;
+        }
+
+        private V computeIfAbsent(long clave, Supplier<V> nuevo) {
+            V valor = get(clave);
+            if (valor == null) {
+                valor = nuevo.get();
+                put(clave, valor);
+            }
+            return valor;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void crecer() {
+            long[] clavesAnteriores = claves;
+            Object[] valoresAnteriores = valores;
+            claves = new long[clavesAnteriores.length * 2];
+            valores = new Object[valoresAnteriores.length * 2];
+            tamano = 0;
+            for (int i = 0; i < clavesAnteriores.length; i++) {
+                if (valoresAnteriores[i] != null) {
+                    put(clavesAnteriores[i], (V) valoresAnteriores[i]);
+                }
+            }
+        }
+
+        private static int indice(long clave, int mascara) {
+            long hash = clave * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mascara;
+        }
+    }
+}
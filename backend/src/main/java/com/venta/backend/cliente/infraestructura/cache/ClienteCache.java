@@ -0,0 +1,206 @@
+package com.venta.backend.cliente.infraestructura.cache;
+
+import com.venta.backend.cliente.entities.Cliente;
+import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Caché de lectura (read-through) de clientes por DNI y por id, para las búsquedas
+ * que se repiten en casi cada venta.
+ *
+ * Guarda copias inmutables ({@link ClienteSnapshot}) con un máximo de
+ * cliente.cache.max-entradas (se desaloja la menos usada) y una vida de
+ * cliente.cache.ttl-ms. Los "no encontrado" no se guardan, así un cliente recién
+ * registrado se ve de inmediato. Las modificaciones de ClienteServicioImpl llaman a
+ * {@link #invalidar} antes y después del commit; una carga que empezó antes de una
+ * invalidación no se guarda, para no reinstalar datos viejos.
+ *
+ * Métricas: cliente.cache.gets (tag result=hit|miss) y cliente.cache.size.
+ */
+@Component
+public class ClienteCache {
+
+    private final ClienteRepositorio clienteRepositorio;
+    private final boolean habilitado;
+    private final int maxEntradas;
+    private final long ttlMs;
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    // Orden de acceso (LRU). Ambos mapas y la generación se guardan con el monitor de entradas
+    private final LinkedHashMap<Long, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> idsPorDni = new HashMap<>();
+    private long generacion;
+
+    public ClienteCache(
+            ClienteRepositorio clienteRepositorio,
+            MeterRegistry meterRegistry,
+            @Value("${cliente.cache.habilitado:true}") boolean habilitado,
+            @Value("${cliente.cache.max-entradas:10000}") int maxEntradas,
+            @Value("${cliente.cache.ttl-ms:300000}") long ttlMs
+    ) {
+        this.clienteRepositorio = clienteRepositorio;
+        this.habilitado = habilitado;
+        this.maxEntradas = maxEntradas;
+        this.ttlMs = ttlMs;
+
+        this.aciertos = Counter.builder("cliente.cache.gets")
+                .tag("result", "hit")
+                .description("Client lookups served from the cache")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("cliente.cache.gets")
+                .tag("result", "miss")
+                .description("Client lookups that went to the database")
+                .register(meterRegistry);
+        Gauge.builder("cliente.cache.size", entradas, mapa -> {
+                    synchronized (mapa) {
+                        return mapa.size();
+                    }
+                })
+                .description("Clients currently cached")
+                .register(meterRegistry);
+    }
+
+    public Optional<ClienteSnapshot> porDni(String dni) {
+        if (dni == null) {
+            return Optional.empty();
+        }
+        ClienteSnapshot guardado = null;
+        if (habilitado) {
+            synchronized (entradas) {
+                Long clienteId = idsPorDni.get(dni);
+                guardado = clienteId != null ? vigente(clienteId) : null;
+            }
+        }
+        return resolver(guardado, () -> clienteRepositorio.findByDni(dni));
+    }
+
+    public Optional<ClienteSnapshot> porId(Long clienteId) {
+        if (clienteId == null) {
+            return Optional.empty();
+        }
+        ClienteSnapshot guardado = null;
+        if (habilitado) {
+            synchronized (entradas) {
+                guardado = vigente(clienteId);
+            }
+        }
+        return resolver(guardado, () -> clienteRepositorio.findById(clienteId));
+    }
+
+    /**
+     * Quita el cliente de la caché ahora y, dentro de una transacción, otra vez después
+     * del commit (una lectura concurrente pudo cargar la versión anterior mientras tanto).
+     */
+    public void invalidar(Long clienteId) {
+        if (!habilitado || clienteId == null) {
+            return;
+        }
+        quitar(clienteId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    quitar(clienteId);
+                }
+            });
+        }
+    }
+
+    private Optional<ClienteSnapshot> resolver(ClienteSnapshot guardado, Supplier<Optional<Cliente>> cargar) {
+        if (guardado != null) {
+            aciertos.increment();
+            return Optional.of(guardado);
+        }
+        fallos.increment();
+        if (!habilitado) {
+            return cargar.get().map(ClienteSnapshot::de);
+        }
+
+        long generacionCarga;
+        synchronized (entradas) {
+            generacionCarga = generacion;
+        }
+        Optional<ClienteSnapshot> cargado = cargar.get().map(ClienteSnapshot::de);
+        cargado.ifPresent(snapshot -> guardar(snapshot, generacionCarga));
+        return cargado;
+    }
+
+    // Requiere el monitor de entradas
+    private ClienteSnapshot vigente(Long clienteId) {
+        Entrada entrada = entradas.get(clienteId);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.expira < System.currentTimeMillis()) {
+            eliminar(clienteId);
+            return null;
+        }
+        return entrada.snapshot;
+    }
+
+    private void guardar(ClienteSnapshot snapshot, long generacionCarga) {
+        synchronized (entradas) {
+            if (generacion != generacionCarga) {
+                return;
+            }
+            eliminar(snapshot.getClienteId());
+            entradas.put(snapshot.getClienteId(), new Entrada(snapshot, System.currentTimeMillis() + ttlMs));
+            if (snapshot.getDni() != null) {
+                idsPorDni.put(snapshot.getDni(), snapshot.getClienteId());
+            }
+
+            Iterator<Map.Entry<Long, Entrada>> menosUsadas = entradas.entrySet().iterator();
+            while (entradas.size() > maxEntradas && menosUsadas.hasNext()) {
+                Entrada desalojada = menosUsadas.next().getValue();
+                menosUsadas.remove();
+                quitarDni(desalojada.snapshot);
+            }
+        }
+    }
+
+    private void quitar(Long clienteId) {
+        synchronized (entradas) {
+            generacion++;
+            eliminar(clienteId);
+        }
+    }
+
+    // Requiere el monitor de entradas
+    private void eliminar(Long clienteId) {
+        Entrada anterior = entradas.remove(clienteId);
+        if (anterior != null) {
+            quitarDni(anterior.snapshot);
+        }
+    }
+
+    // Requiere el monitor de entradas
+    private void quitarDni(ClienteSnapshot snapshot) {
+        if (snapshot.getDni() != null) {
+            idsPorDni.remove(snapshot.getDni(), snapshot.getClienteId());
+        }
+    }
+
+    private static final class Entrada {
+        private final ClienteSnapshot snapshot;
+        private final long expira;
+
+        private Entrada(ClienteSnapshot snapshot, long expira) {
+            this.snapshot = snapshot;
+            this.expira = expira;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.venta.backend.cliente.infraestructura.cache;
+
+import com.venta.backend.cliente.entities.Cliente;
+import com.venta.backend.cliente.enums.EstadoClienteEnum;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Copia inmutable de un cliente, tal como la guarda {@link ClienteCache}.
+ */
+@Value
+@Builder
+public class ClienteSnapshot {
+    Long clienteId;
+    String dni;
+    String firstName;
+    String lastName;
+    String email;
+    String phoneNumber;
+    String telefonoFijo;
+    String address;
+    LocalDate fechaNacimiento;
+    String genero;
+    String ocupacion;
+    LocalDate registrationDate;
+    EstadoClienteEnum estado;
+    String categoria;
+
+    public static ClienteSnapshot de(Cliente cliente) {
+        return ClienteSnapshot.builder()
+                .clienteId(cliente.getClienteId())
+                .dni(cliente.getDni())
+                .firstName(cliente.getFirstName())
+                .lastName(cliente.getLastName())
+                .email(cliente.getEmail())
+                .phoneNumber(cliente.getPhoneNumber())
+                .telefonoFijo(cliente.getTelefonoFijo())
+                .address(cliente.getAddress())
+                .fechaNacimiento(cliente.getFechaNacimiento())
+                .genero(cliente.getGenero())
+                .ocupacion(cliente.getOcupacion())
+                .registrationDate(cliente.getRegistrationDate())
+                .estado(cliente.getEstado())
+                .categoria(cliente.getCategoria())
+                .build();
+    }
+
+    /**
+     * Entidad nueva y desconectada de Hibernate con estos datos, para el código que
+     * trabaja con Cliente (mapeadores, reglas de descuento, plantillas). No debe guardarse.
+     */
+    public Cliente aCliente() {
+        return Cliente.builder()
+                .clienteId(clienteId)
+                .dni(dni)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .phoneNumber(phoneNumber)
+                .telefonoFijo(telefonoFijo)
+                .address(address)
+                .fechaNacimiento(fechaNacimiento)
+                .genero(genero)
+                .ocupacion(ocupacion)
+                .registrationDate(registrationDate)
+                .estado(estado)
+                .categoria(categoria)
+                .build();
+    }
+
+    public boolean isActive() {
+        return estado == EstadoClienteEnum.ACTIVO;
+    }
+
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+}
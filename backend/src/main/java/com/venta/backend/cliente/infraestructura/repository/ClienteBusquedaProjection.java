@@ -0,0 +1,15 @@
+package com.venta.backend.cliente.infraestructura.repository;
+
+import com.venta.backend.cliente.enums.EstadoClienteEnum;
+
+/**
+ * Campos de un cliente que usa el índice de búsqueda en memoria.
+ */
+public interface ClienteBusquedaProjection {
+    Long getClienteId();
+    String getDni();
+    String getFirstName();
+    String getLastName();
+    String getEmail();
+    EstadoClienteEnum getEstado();
+}
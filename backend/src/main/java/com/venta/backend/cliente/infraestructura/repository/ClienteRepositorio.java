@@ -1,11 +1,21 @@
 package com.venta.backend.cliente.infraestructura.repository;
 
 import com.venta.backend.cliente.entities.Cliente;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ClienteRepositorio extends JpaRepository<Cliente, Long>, JpaSpecificationExecutor<Cliente> {
@@ -30,5 +40,36 @@ public interface ClienteRepositorio extends JpaRepository<Cliente, Long>, JpaSpe
      * @return true si el email ya existe, false de lo contrario.
      */
     boolean existsByEmail(String email);
-}
 
+    /**
+     * De una lista de DNI, devuelve los que ya están registrados (una sola consulta IN).
+     * @param dnis Los DNI a verificar.
+     * @return Los DNI existentes, tal como están guardados.
+     */
+    @Query("SELECT c.dni FROM Cliente c WHERE c.dni IN :dnis")
+    List<String> findDnisExistentes(@Param("dnis") Collection<String> dnis);
+
+    /**
+     * De una lista de emails, devuelve los que ya están registrados (una sola consulta IN).
+     * @param emails Los emails a verificar.
+     * @return Los emails existentes, tal como están guardados.
+     */
+    @Query("SELECT c.email FROM Cliente c WHERE c.email IN :emails")
+    List<String> findEmailsExistentes(@Param("emails") Collection<String> emails);
+
+    /**
+     * Recorre todos los clientes con un cursor, solo con los campos que indexa la
+     * búsqueda en memoria. Debe consumirse dentro de una transacción y cerrarse.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT c.clienteId AS clienteId, c.dni AS dni, c.firstName AS firstName,
+               c.lastName AS lastName, c.email AS email, c.estado AS estado
+        FROM Cliente c
+        ORDER BY c.clienteId
+        """)
+    Stream<ClienteBusquedaProjection> streamDatosBusqueda();
+}
@@ -0,0 +1,68 @@
+package com.venta.backend.cliente.infraestructura.repository;
+
+import com.venta.backend.cliente.entities.MetricasCompraCliente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface MetricasCompraClienteRepositorio extends JpaRepository<MetricasCompraCliente, Long> {
+
+    /**
+     * Suma los deltas a las métricas del cliente, creando la fila si no existe (upsert atómico).
+     * La fecha de última compra solo avanza; con fecha null se conserva la actual.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO cliente_metricas_compras
+            (cliente_id, total_ventas, monto_acumulado, descuento_acumulado, fecha_ultima_compra)
+        VALUES (:clienteId, :cantidad, :monto, :descuento, :fecha)
+        ON DUPLICATE KEY UPDATE
+            total_ventas = total_ventas + :cantidad,
+            monto_acumulado = monto_acumulado + :monto,
+            descuento_acumulado = descuento_acumulado + :descuento,
+            fecha_ultima_compra = GREATEST(COALESCE(fecha_ultima_compra, :fecha), COALESCE(:fecha, fecha_ultima_compra))
+        """, nativeQuery = true)
+    int sumar(@Param("clienteId") Long clienteId,
+              @Param("cantidad") long cantidad,
+              @Param("monto") BigDecimal monto,
+              @Param("descuento") BigDecimal descuento,
+              @Param("fecha") LocalDate fecha);
+
+    /**
+     * Recalcula la fecha de última compra de un cliente (tras cancelar una venta).
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE cliente_metricas_compras m
+        SET m.fecha_ultima_compra = (
+            SELECT MAX(v.fecha_venta_creada) FROM venta v
+            WHERE v.cliente_id = :clienteId AND v.estado = 'CONFIRMADA')
+        WHERE m.cliente_id = :clienteId
+        """, nativeQuery = true)
+    int recalcularFechaUltimaCompra(@Param("clienteId") Long clienteId);
+
+    @Modifying
+    @Query(value = "DELETE FROM cliente_metricas_compras", nativeQuery = true)
+    int vaciar();
+
+    /**
+     * Reconstruye todas las métricas con una única agregación sobre las ventas confirmadas.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO cliente_metricas_compras
+            (cliente_id, total_ventas, monto_acumulado, descuento_acumulado, fecha_ultima_compra)
+        SELECT v.cliente_id, COUNT(*), COALESCE(SUM(v.total), 0), COALESCE(SUM(v.descuento_total), 0),
+               MAX(v.fecha_venta_creada)
+        FROM venta v
+        WHERE v.estado = 'CONFIRMADA' AND v.cliente_id IS NOT NULL
+        GROUP BY v.cliente_id
+        """, nativeQuery = true)
+    int reconstruir();
+}
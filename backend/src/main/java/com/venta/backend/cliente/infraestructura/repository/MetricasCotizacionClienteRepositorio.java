@@ -0,0 +1,43 @@
+package com.venta.backend.cliente.infraestructura.repository;
+
+import com.venta.backend.cliente.entities.MetricasCotizacionCliente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MetricasCotizacionClienteRepositorio extends JpaRepository<MetricasCotizacionCliente, Long> {
+
+    /**
+     * Suma los deltas a las métricas del cliente, creando la fila si no existe (upsert atómico).
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO cliente_metricas_cotizaciones (cliente_id, total_cotizaciones, cotizaciones_aceptadas)
+        VALUES (:clienteId, :total, :aceptadas)
+        ON DUPLICATE KEY UPDATE
+            total_cotizaciones = total_cotizaciones + :total,
+            cotizaciones_aceptadas = cotizaciones_aceptadas + :aceptadas
+        """, nativeQuery = true)
+    int sumar(@Param("clienteId") Long clienteId,
+              @Param("total") long total,
+              @Param("aceptadas") long aceptadas);
+
+    @Modifying
+    @Query(value = "DELETE FROM cliente_metricas_cotizaciones", nativeQuery = true)
+    int vaciar();
+
+    /**
+     * Reconstruye todas las métricas con una única agregación sobre las cotizaciones.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO cliente_metricas_cotizaciones (cliente_id, total_cotizaciones, cotizaciones_aceptadas)
+        SELECT cliente_id, COUNT(*), SUM(CASE WHEN estado = 'ACEPTADA' THEN 1 ELSE 0 END)
+        FROM cotizacion
+        GROUP BY cliente_id
+        """, nativeQuery = true)
+    int reconstruir();
+}
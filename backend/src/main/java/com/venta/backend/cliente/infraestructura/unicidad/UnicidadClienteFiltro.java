@@ -0,0 +1,313 @@
+package com.venta.backend.cliente.infraestructura.unicidad;
+
+import com.venta.backend.cliente.infraestructura.repository.ClienteBusquedaProjection;
+import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Filtros de Bloom en memoria con los DNI y emails de clientes existentes, para evitar
+ * las consultas existsByDni / existsByEmail cuando el valor seguro no existe.
+ *
+ * Un "no está" del filtro es definitivo y la consulta se omite; un "puede estar" (un
+ * duplicado real o un falso positivo, cerca de cliente.unicidad.fpp) se confirma en la
+ * base de datos. La restricción UNIQUE de la tabla sigue siendo la que decide.
+ *
+ * Se cargan al arrancar y cada alta o modificación agrega sus valores antes de guardar,
+ * así nunca hay un valor confirmado que el filtro no conozca. Una reconstrucción también
+ * copia los valores cuyas transacciones siguen abiertas al empezar, porque pueden
+ * confirmarse después de que lea la tabla. Los valores reemplazados
+ * no se pueden quitar (solo suben los falsos positivos); cuando se supera la capacidad
+ * calculada al cargar, los filtros se reconstruyen en segundo plano. Mientras no están
+ * listos, todo valor "puede estar".
+ *
+ * Métricas: cliente.unicidad.checks (tag result=absent|maybe).
+ */
+@Slf4j
+@Component
+public class UnicidadClienteFiltro {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final int CAPACIDAD_MINIMA = 10_000;
+
+    private final ClienteRepositorio clienteRepositorio;
+    private final TransactionTemplate transaccionLectura;
+    private final double fpp;
+    private final Counter ausentes;
+    private final Counter posibles;
+    private final ExecutorService reconstructor;
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean();
+
+    private final Object lock = new Object();
+    private volatile Filtros filtros;
+    // Valores agregados mientras se (re)construye, incluida la carga inicial; guardado por lock
+    private List<String[]> pendientes = new ArrayList<>();
+    // Valores registrados cuya transacción aún no terminó (por identidad); guardado por lock
+    private final Set<String[]> enVuelo = new HashSet<>();
+
+    public UnicidadClienteFiltro(
+            ClienteRepositorio clienteRepositorio,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${cliente.unicidad.fpp:0.01}") double fpp
+    ) {
+        this.clienteRepositorio = clienteRepositorio;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.fpp = fpp;
+        this.ausentes = Counter.builder("cliente.unicidad.checks")
+                .tag("result", "absent")
+                .description("Uniqueness checks answered in memory (value not present)")
+                .register(meterRegistry);
+        this.posibles = Counter.builder("cliente.unicidad.checks")
+                .tag("result", "maybe")
+                .description("Uniqueness checks that had to query the database")
+                .register(meterRegistry);
+        this.reconstructor = Executors.newSingleThreadExecutor(r -> {
+            Thread hilo = new Thread(r, "cliente-unicidad-reconstructor");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        reconstruyendo.set(true);
+        reconstruir();
+    }
+
+    /**
+     * false solo si ningún cliente tiene ese DNI.
+     */
+    public boolean podriaExistirDni(String dni) {
+        return consultar(dni, true);
+    }
+
+    /**
+     * false solo si ningún cliente tiene ese email (sin distinguir mayúsculas ni tildes).
+     */
+    public boolean podriaExistirEmail(String email) {
+        return consultar(email, false);
+    }
+
+    /**
+     * Agrega el DNI y el email de un cliente que se va a guardar. Debe llamarse dentro de
+     * la transacción que lo guarda y antes de guardarlo: agregar un valor que luego no se
+     * confirma solo cuesta una consulta.
+     */
+    public void registrar(String dni, String email) {
+        String[] valores = {normalizar(dni), normalizar(email)};
+        boolean enTransaccion = TransactionSynchronizationManager.isSynchronizationActive();
+        Filtros actuales;
+        synchronized (lock) {
+            if (pendientes != null) {
+                pendientes.add(valores);
+            }
+            if (enTransaccion) {
+                enVuelo.add(valores);
+            }
+            actuales = filtros;
+        }
+        if (enTransaccion) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    synchronized (lock) {
+                        enVuelo.remove(valores);
+                    }
+                }
+            });
+        }
+        if (actuales == null) {
+            return;
+        }
+        actuales.agregar(valores[0], valores[1]);
+        if (actuales.saturados() && reconstruyendo.compareAndSet(false, true)) {
+            log.info("Filtros de unicidad saturados ({} valores), se reconstruyen [UnicidadClienteFiltro]",
+                    actuales.insertados.get());
+            reconstructor.execute(this::reconstruir);
+        }
+    }
+
+    private boolean consultar(String valor, boolean esDni) {
+        Filtros actuales = filtros;
+        String normalizado = normalizar(valor);
+        if (actuales == null || normalizado == null) {
+            return true;
+        }
+        boolean podria = (esDni ? actuales.dnis : actuales.emails).podriaContener(normalizado);
+        (podria ? posibles : ausentes).increment();
+        return podria;
+    }
+
+    /**
+     * Carga filtros nuevos desde la tabla y los reemplaza. Lo que se registra mientras
+     * tanto se agrega a los actuales y a los nuevos.
+     */
+    private void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        try {
+            synchronized (lock) {
+                if (pendientes == null) {
+                    pendientes = new ArrayList<>();
+                }
+                // Registrados antes de empezar pero quizá confirmados después de leer la tabla
+                pendientes.addAll(enVuelo);
+            }
+            Filtros nuevos = transaccionLectura.execute(status -> {
+                Filtros cargados = new Filtros(Math.max(CAPACIDAD_MINIMA, clienteRepositorio.count() * 2), fpp);
+                try (Stream<ClienteBusquedaProjection> clientes = clienteRepositorio.streamDatosBusqueda()) {
+                    clientes.forEach(c -> cargados.agregar(normalizar(c.getDni()), normalizar(c.getEmail())));
+                }
+                return cargados;
+            });
+            synchronized (lock) {
+                for (String[] valores : pendientes) {
+                    nuevos.agregar(valores[0], valores[1]);
+                }
+                filtros = nuevos;
+            }
+            log.info("Filtros de unicidad de clientes cargados: {} clientes, capacidad {} en {} ms [UnicidadClienteFiltro]",
+                    nuevos.insertados.get(), nuevos.capacidad, System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            // Sin filtros (o con los anteriores) todas las verificaciones siguen yendo a la base de datos
+            log.warn("No se pudieron cargar los filtros de unicidad de clientes: {} [UnicidadClienteFiltro]", e.getMessage());
+        } finally {
+            synchronized (lock) {
+                pendientes = null;
+            }
+            reconstruyendo.set(false);
+        }
+    }
+
+    /**
+     * Misma equivalencia que la intercalación de MySQL (sin mayúsculas ni tildes): dos
+     * valores que la restricción UNIQUE considera iguales dan el mismo resultado.
+     */
+    private static String normalizar(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        return MARCAS.matcher(Normalizer.normalize(valor, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    void detener() {
+        reconstructor.shutdownNow();
+    }
+
+    private static final class Filtros {
+        private final Bloom dnis;
+        private final Bloom emails;
+        private final long capacidad;
+        private final AtomicLong insertados = new AtomicLong();
+
+        private Filtros(long capacidad, double fpp) {
+            this.capacidad = capacidad;
+            this.dnis = new Bloom(capacidad, fpp);
+            this.emails = new Bloom(capacidad, fpp);
+        }
+
+        private void agregar(String dni, String email) {
+            if (dni != null) {
+                dnis.agregar(dni);
+            }
+            if (email != null) {
+                emails.agregar(email);
+            }
+            insertados.incrementAndGet();
+        }
+
+        private boolean saturados() {
+            return insertados.get() > capacidad;
+        }
+    }
+
+    /**
+     * Filtro de Bloom sobre un AtomicLongArray (se puede escribir desde varios hilos sin
+     * perder bits). Las k posiciones salen de dos mitades de un hash de 64 bits.
+     */
+    private static final class Bloom {
+        private final AtomicLongArray palabras;
+        private final long bits;
+        private final int funciones;
+
+        private Bloom(long capacidad, double fpp) {
+            long m = (long) Math.ceil(-capacidad * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            this.palabras = new AtomicLongArray((int) ((m + 63) / 64));
+            this.bits = palabras.length() * 64L;
+            this.funciones = Math.max(1, (int) Math.round((double) bits / capacidad * Math.log(2)));
+        }
+
+        private void agregar(String valor) {
+            long hash = hash(valor);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= funciones; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+                int palabra = (int) (bit >>> 6);
+                long mascara = 1L << bit;
+                long actual;
+                do {
+                    actual = palabras.get(palabra);
+                    if ((actual & mascara) != 0) {
+                        break;
+                    }
+                } while (!palabras.compareAndSet(palabra, actual, actual | mascara));
+            }
+        }
+
+        private boolean podriaContener(String valor) {
+            long hash = hash(valor);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= funciones; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+                if ((palabras.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a de 64 bits con la mezcla final de MurmurHash3
+        private static long hash(String valor) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < valor.length(); i++) {
+                hash ^= valor.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.venta.backend.common.paginacion;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Consulta paginada sin COUNT: trae una fila más que el tamaño de página y solo con eso
+ * sabe si hay página siguiente. Es el equivalente de findAll(spec, pageable) para
+ * búsquedas donde el COUNT cuesta tanto como la página.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConsultaSlice {
+
+    private final EntityManager entityManager;
+
+    /**
+     * @param spec filtros a aplicar (null para todas las filas)
+     */
+    public <T> Slice<T> buscar(Class<T> tipo, Specification<T> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(tipo);
+        Root<T> root = query.from(tipo);
+        query.select(root);
+        if (spec != null) {
+            Predicate predicado = spec.toPredicate(root, query, cb);
+            if (predicado != null) {
+                query.where(predicado);
+            }
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<T> consulta = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(consulta.getResultList(), pageable, false);
+        }
+        consulta.setFirstResult(Math.toIntExact(pageable.getOffset()));
+        consulta.setMaxResults(pageable.getPageSize() + 1);
+
+        List<T> filas = consulta.getResultList();
+        boolean hayMas = filas.size() > pageable.getPageSize();
+        return new SliceImpl<>(hayMas ? filas.subList(0, pageable.getPageSize()) : filas, pageable, hayMas);
+    }
+}
@@ -0,0 +1,167 @@
+package com.venta.backend.common.paginacion;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Total aproximado para las búsquedas paginadas con {@link ConsultaSlice}, sin hacer un
+ * COUNT en cada pedido.
+ *
+ * Los totales se guardan por clave de búsqueda (la consulta y sus filtros) durante
+ * paginacion.conteo.ttl-ms. Si falta o venció, se devuelve el último conocido (o una
+ * cota inferior) y el COUNT se lanza en segundo plano, uno a la vez por clave, en un pool
+ * propio (paginacion.conteo.hilos). En la última página el total se conoce sin contar y
+ * es exacto. Las altas y bajas posteriores se reflejan al vencer el total guardado.
+ */
+@Slf4j
+@Component
+public class ConteoEstimado {
+
+    private final TransactionTemplate transaccionLectura;
+    private final ThreadPoolExecutor executor;
+    private final long ttlMs;
+    private final int maxEntradas;
+    private final Set<String> enCurso = ConcurrentHashMap.newKeySet();
+
+    // Orden de acceso (LRU), guardado con su propio monitor
+    private final LinkedHashMap<String, Conteo> conteos = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ConteoEstimado(
+            PlatformTransactionManager transactionManager,
+            @Value("${paginacion.conteo.hilos:1}") int hilos,
+            @Value("${paginacion.conteo.ttl-ms:60000}") long ttlMs,
+            @Value("${paginacion.conteo.max-entradas:1000}") int maxEntradas
+    ) {
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.ttlMs = ttlMs;
+        this.maxEntradas = maxEntradas;
+
+        AtomicInteger numeroHilo = new AtomicInteger();
+        // Cola acotada: si se llena, el COUNT se vuelve a pedir en una próxima búsqueda
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxEntradas), runnable -> {
+            Thread thread = new Thread(runnable, "conteo-estimado-" + numeroHilo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Total de la búsqueda a la que pertenece el slice.
+     *
+     * @param clave identifica la consulta y sus filtros (no la página)
+     * @param contar el COUNT de la consulta; se ejecuta en segundo plano y en una
+     *               transacción de solo lectura
+     */
+    public Total total(String clave, Slice<?> slice, LongSupplier contar) {
+        long vistos = slice.getPageable().isPaged()
+                ? slice.getPageable().getOffset() + slice.getNumberOfElements()
+                : slice.getNumberOfElements();
+        if (!slice.hasNext() && (slice.hasContent() || slice.isFirst())) {
+            // Última página: el total es exacto sin contar
+            guardar(clave, vistos);
+            return new Total(vistos, true);
+        }
+
+        Conteo conteo;
+        synchronized (conteos) {
+            conteo = conteos.get(clave);
+        }
+        if (conteo == null || conteo.expira < System.currentTimeMillis()) {
+            refrescar(clave, contar);
+        }
+
+        if (!slice.hasContent()) {
+            // Página posterior a la última: hay menos filas que el offset pedido
+            return new Total(conteo != null ? Math.min(conteo.valor, vistos) : vistos, false);
+        }
+        // Hay página siguiente, así que al menos una fila más de las vistas
+        long minimo = vistos + 1;
+        return new Total(conteo != null ? Math.max(conteo.valor, minimo) : minimo, false);
+    }
+
+    private void refrescar(String clave, LongSupplier contar) {
+        if (!enCurso.add(clave)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    Long total = transaccionLectura.execute(status -> contar.getAsLong());
+                    if (total != null) {
+                        guardar(clave, total);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo contar la búsqueda {}: {} [ConteoEstimado]", clave, e.getMessage());
+                } finally {
+                    enCurso.remove(clave);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            enCurso.remove(clave);
+        }
+    }
+
+    private void guardar(String clave, long valor) {
+        synchronized (conteos) {
+            conteos.put(clave, new Conteo(valor, System.currentTimeMillis() + ttlMs));
+            Iterator<Map.Entry<String, Conteo>> menosUsados = conteos.entrySet().iterator();
+            while (conteos.size() > maxEntradas && menosUsados.hasNext()) {
+                menosUsados.next();
+                menosUsados.remove();
+            }
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        executor.shutdownNow();
+    }
+
+    public static final class Total {
+        private final long valor;
+        // false si es un total guardado (o una cota inferior) y no el actual
+        private final boolean exacto;
+
+        private Total(long valor, boolean exacto) {
+            this.valor = valor;
+            this.exacto = exacto;
+        }
+
+        public long getValor() {
+            return valor;
+        }
+
+        public boolean isExacto() {
+            return exacto;
+        }
+    }
+
+    private static final class Conteo {
+        private final long valor;
+        private final long expira;
+
+        private Conteo(long valor, long expira) {
+            this.valor = valor;
+            this.expira = expira;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.venta.backend.common.paginacion;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Page armada desde un {@link Slice} y un total de {@link ConteoEstimado}, para los
+ * endpoints que devuelven Page directamente. Se serializa con el campo totalExact,
+ * igual que PageClienteResponse.
+ */
+public class PaginaEstimada<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+
+    public PaginaEstimada(Slice<T> slice, ConteoEstimado.Total total) {
+        super(slice.getContent(), slice.getPageable(), total.getValor());
+        this.totalExact = total.isExacto();
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+}
@@ -0,0 +1,43 @@
+package com.venta.backend.common.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversión entre montos BigDecimal (persistencia / DTOs) y centavos en long,
+ * usados para la aritmética frecuente de carritos sin crear BigDecimal intermedios.
+ *
+ * Uso:
+ * - MontoUtils.aCentavos(new BigDecimal("12.50")) → 1250
+ * - MontoUtils.aMonto(1250) → 12.50
+ */
+public class MontoUtils {
+
+    private static final int ESCALA = 2;
+
+    private MontoUtils() {
+    }
+
+    /**
+     * Convierte un monto a centavos redondeando a 2 decimales (HALF_UP).
+     *
+     * @param monto Monto a convertir (null se considera 0)
+     * @return Monto en centavos
+     */
+    public static long aCentavos(BigDecimal monto) {
+        if (monto == null) {
+            return 0L;
+        }
+        return monto.setScale(ESCALA, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Convierte centavos a un monto con escala 2.
+     *
+     * @param centavos Monto en centavos
+     * @return Monto como BigDecimal
+     */
+    public static BigDecimal aMonto(long centavos) {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+}
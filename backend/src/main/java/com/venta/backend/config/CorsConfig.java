@@ -17,6 +17,7 @@ public class CorsConfig {
         config.addAllowedOriginPattern("*"); // permite todos los orígenes (!)
         config.addAllowedMethod("*");        // permite todos los métodos
         config.addAllowedHeader("*");        // permite todos los headers
+        config.addExposedHeader("ETag");     // versión de la venta para If-Match
         config.setAllowCredentials(false);   // DEBE ser false si usas "*"
 
         source.registerCorsConfiguration("/**", config);
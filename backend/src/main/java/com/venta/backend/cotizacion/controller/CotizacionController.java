@@ -6,6 +6,7 @@ import com.venta.backend.cotizacion.dto.CotizacionRequest;
 import com.venta.backend.cotizacion.dto.CotizacionResponse;
 import com.venta.backend.cotizacion.dto.EnviarCotizacionRequest;
 import com.venta.backend.cotizacion.infraestructura.html.CotizacionHtmlTemplate;
+import com.venta.backend.cotizacion.infraestructura.pdf.AsyncPdfGenerator;
 import com.venta.backend.cotizacion.model.Cotizacion;
 import com.venta.backend.cotizacion.repository.CotizacionRepository;
 import com.venta.backend.cotizacion.service.CotizacionCommandService;
@@ -24,6 +25,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @Tag(name = "Cotizaciones")
@@ -35,6 +37,7 @@ public class CotizacionController {
     private final CotizacionCommandService cotizacionCommandService;
     private final CotizacionRepository cotizacionRepository;
     private final CotizacionHtmlTemplate htmlTemplate;
+    private final AsyncPdfGenerator asyncPdfGenerator;
 
     /**
      * Listar cotizaciones con paginación y filtro opcional por vendedor
@@ -117,16 +120,17 @@ public class CotizacionController {
     @Operation(summary = "Descargar PDF", description = "Genera y descarga el PDF de la cotización")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "PDF generado exitosamente"),
-        @ApiResponse(responseCode = "404", description = "Cotización no encontrada")
+        @ApiResponse(responseCode = "404", description = "Cotización no encontrada"),
+        @ApiResponse(responseCode = "503", description = "Generación de PDFs saturada, reintentar luego")
     })
     @GetMapping("/cotizaciones/{id}/pdf")
-    public ResponseEntity<byte[]> descargarPdf(@PathVariable Integer id) {
-        byte[] pdfBytes = cotizacionQueryService.generarPdfCotizacion(id);
-        
-        return ResponseEntity.ok()
-                .header("Content-Type", "application/pdf")
-                .header("Content-Disposition", "attachment; filename=Cotizacion_" + id + ".pdf")
-                .body(pdfBytes);
+    public DeferredResult<ResponseEntity<byte[]>> descargarPdf(@PathVariable Integer id) {
+        return asyncPdfGenerator.toDeferredResult(
+                cotizacionQueryService.generarPdfCotizacionAsync(id),
+                pdfBytes -> ResponseEntity.ok()
+                        .header("Content-Type", "application/pdf")
+                        .header("Content-Disposition", "attachment; filename=Cotizacion_" + id + ".pdf")
+                        .body(pdfBytes));
     }
 
     /**
@@ -144,8 +148,9 @@ public class CotizacionController {
         // Auto-accept the quotation
         try {
             if (cotizacion.getEstado() != com.venta.backend.cotizacion.model.CotizacionEstado.ACEPTADA) {
+                // Por el servicio, para que la aceptación actualice también las métricas del cliente
+                cotizacionCommandService.aceptarCotizacion(id, null);
                 cotizacion.setEstado(com.venta.backend.cotizacion.model.CotizacionEstado.ACEPTADA);
-                cotizacionRepository.save(cotizacion);
             }
         } catch (Exception e) {
             // If already accepted or error, continue to show success page
@@ -0,0 +1,40 @@
+package com.venta.backend.cotizacion.controller;
+
+import com.venta.backend.cotizacion.infraestructura.pdf.PdfRenderRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Responde 503 con Retry-After cuando la cola de generación de PDFs está llena
+ * (ventas y cotizaciones). Tiene prioridad sobre los manejadores globales.
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class PdfExceptionHandler {
+
+    private static final String RETRY_AFTER_SEGUNDOS = "5";
+
+    @ExceptionHandler(PdfRenderRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleRechazo(PdfRenderRejectedException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SEGUNDOS)
+                .body(body);
+    }
+}
@@ -0,0 +1,156 @@
+package com.venta.backend.cotizacion.infraestructura.pdf;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Renders PDFs on a dedicated, fixed-size worker pool with a bounded queue, so a burst
+ * of downloads cannot occupy the servlet threads used by the rest of the API.
+ *
+ * When the queue is full the request is rejected immediately with
+ * {@link PdfRenderRejectedException} (503 + Retry-After) instead of waiting.
+ * PDFs already in the cache are returned without going through the pool; drafts
+ * (cacheable = false) are neither looked up nor stored.
+ *
+ * Metrics: pdf.render.queue (queued renders), pdf.render.active (busy workers),
+ * pdf.render.time (render duration), pdf.render.rejected (rejections).
+ */
+@Slf4j
+@Component
+public class AsyncPdfGenerator {
+
+    private final IPdfGenerator pdfGenerator;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Timer renderTimer;
+    private final Counter rejectedCounter;
+
+    public AsyncPdfGenerator(
+            IPdfGenerator pdfGenerator,
+            MeterRegistry meterRegistry,
+            @Value("${pdf.render.hilos:2}") int threads,
+            @Value("${pdf.render.cola:50}") int queueCapacity,
+            @Value("${pdf.render.timeout-ms:30000}") long timeoutMs
+    ) {
+        this.pdfGenerator = pdfGenerator;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-render-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("pdf.render.queue", executor, pool -> pool.getQueue().size())
+                .description("PDF renders waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("PDF workers currently rendering")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("pdf.render.time")
+                .description("Time spent rendering a PDF")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("pdf.render.rejected")
+                .description("PDF renders rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the rendering of the given HTML.
+     *
+     * @throws PdfRenderRejectedException if the render queue is full
+     */
+    public CompletableFuture<byte[]> generatePdfAsync(String htmlContent) {
+        return generatePdfAsync(htmlContent, true);
+    }
+
+    /**
+     * Queues the rendering of the given HTML, bypassing the PDF cache when it is not cacheable.
+     *
+     * @throws PdfRenderRejectedException if the render queue is full
+     */
+    public CompletableFuture<byte[]> generatePdfAsync(String htmlContent, boolean cacheable) {
+        if (cacheable) {
+            byte[] generated = pdfGenerator.findGenerated(htmlContent);
+            if (generated != null) {
+                return CompletableFuture.completedFuture(generated);
+            }
+        }
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> renderTimer.record(() -> pdfGenerator.generatePdf(htmlContent, cacheable)), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("PDF render rejected, queue full ({} waiting)", executor.getQueue().size());
+            throw new PdfRenderRejectedException("PDF generation is busy, please retry shortly.");
+        }
+    }
+
+    /**
+     * Renders on the pool and waits for the result, for callers that need the bytes
+     * synchronously (e.g. an email attachment) but must still respect the pool limits.
+     */
+    public byte[] generatePdf(String htmlContent) {
+        return generatePdf(htmlContent, true);
+    }
+
+    /**
+     * Synchronous variant of {@link #generatePdfAsync(String, boolean)}.
+     */
+    public byte[] generatePdf(String htmlContent, boolean cacheable) {
+        try {
+            return generatePdfAsync(htmlContent, cacheable).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Adapts a pending PDF to a DeferredResult so the servlet thread is released while
+     * it renders. Times out with 503 after pdf.render.timeout-ms.
+     */
+    public DeferredResult<ResponseEntity<byte[]>> toDeferredResult(
+            CompletableFuture<byte[]> pdf, Function<byte[], ResponseEntity<byte[]>> response) {
+        DeferredResult<ResponseEntity<byte[]>> result = new DeferredResult<>(timeoutMs,
+                () -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).<byte[]>build());
+        pdf.whenComplete((bytes, error) -> {
+            if (error != null) {
+                result.setErrorResult(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                result.setResult(response.apply(bytes));
+            }
+        });
+        return result;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
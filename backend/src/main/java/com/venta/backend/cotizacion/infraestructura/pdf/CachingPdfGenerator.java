@@ -0,0 +1,292 @@
+package com.venta.backend.cotizacion.infraestructura.pdf;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache in front of the Flying Saucer adapter.
+ *
+ * Pattern: Decorator
+ * PDFs are keyed by the SHA-256 of the HTML they are rendered from, so a sale or
+ * quotation that changes produces a different key and can never be served stale;
+ * the old entry simply ages out. Two tiers, both evicted least-recently-used by size:
+ * a small in-memory tier and a larger on-disk tier under pdf.cache.directorio.
+ *
+ * Drafts change on every edit, so callers render them with cacheable = false and they
+ * go straight to the delegate.
+ *
+ * Returned arrays are shared with the cache and must not be modified by callers.
+ */
+@Slf4j
+@Primary
+@Component
+public class CachingPdfGenerator implements IPdfGenerator {
+
+    private static final String EXTENSION = ".pdf";
+
+    private final IPdfGenerator delegate;
+    private final boolean enabled;
+    private final long memoryMaxBytes;
+    private final long diskMaxBytes;
+    private final Path directory;
+
+    // Access-ordered (LRU); each guarded by its own monitor
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+    private boolean diskAvailable;
+
+    public CachingPdfGenerator(
+            FlyingSaucerPdfAdapter delegate,
+            @Value("${pdf.cache.habilitado:true}") boolean enabled,
+            @Value("${pdf.cache.memoria-max-bytes:33554432}") long memoryMaxBytes,
+            @Value("${pdf.cache.disco-max-bytes:268435456}") long diskMaxBytes,
+            @Value("${pdf.cache.directorio:${java.io.tmpdir}/venta-pdf-cache}") String directory
+    ) {
+        this.delegate = delegate;
+        this.enabled = enabled;
+        this.memoryMaxBytes = memoryMaxBytes;
+        this.diskMaxBytes = diskMaxBytes;
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Rebuilds the disk index from the files left by previous runs, oldest first.
+     */
+    @PostConstruct
+    void loadDiskIndex() {
+        if (!enabled || diskMaxBytes <= 0) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing
+                        .filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                        .sorted(Comparator.comparing(CachingPdfGenerator::lastModified))
+                        .toList();
+            }
+            List<String> evicted;
+            synchronized (diskIndex) {
+                for (Path file : files) {
+                    long size = Files.size(file);
+                    diskIndex.put(keyOf(file), size);
+                    diskBytes += size;
+                }
+                evicted = evictDisk();
+            }
+            deleteFiles(evicted);
+            diskAvailable = true;
+            log.info("PDF cache ready: {} files ({} bytes) in {}", diskIndex.size(), diskBytes, directory);
+        } catch (IOException | RuntimeException e) {
+            log.warn("PDF disk cache disabled, cannot use {}: {}", directory, e.getMessage());
+        }
+    }
+
+    @Override
+    public byte[] generatePdf(String htmlContent) {
+        return generatePdf(htmlContent, true);
+    }
+
+    @Override
+    public byte[] generatePdf(String htmlContent, boolean cacheable) {
+        if (!enabled || !cacheable) {
+            return delegate.generatePdf(htmlContent);
+        }
+
+        String key = sha256(htmlContent);
+        byte[] pdf = lookup(key);
+        if (pdf == null) {
+            pdf = delegate.generatePdf(htmlContent);
+            toMemory(key, pdf);
+            toDisk(key, pdf);
+        }
+        return pdf;
+    }
+
+    @Override
+    public byte[] findGenerated(String htmlContent) {
+        return enabled ? lookup(sha256(htmlContent)) : null;
+    }
+
+    /**
+     * Memory first, then disk (promoting the hit to memory).
+     */
+    private byte[] lookup(String key) {
+        byte[] pdf = fromMemory(key);
+        if (pdf == null) {
+            pdf = fromDisk(key);
+            if (pdf != null) {
+                toMemory(key, pdf);
+            }
+        }
+        return pdf;
+    }
+
+    private byte[] fromMemory(String key) {
+        synchronized (memory) {
+            return memory.get(key);
+        }
+    }
+
+    private void toMemory(String key, byte[] pdf) {
+        if (pdf.length > memoryMaxBytes) {
+            return;
+        }
+        synchronized (memory) {
+            byte[] previous = memory.put(key, pdf);
+            memoryBytes += pdf.length - (previous != null ? previous.length : 0);
+            Iterator<byte[]> eldest = memory.values().iterator();
+            while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+                memoryBytes -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private byte[] fromDisk(String key) {
+        if (!diskAvailable) {
+            return null;
+        }
+        synchronized (diskIndex) {
+            if (diskIndex.get(key) == null) {
+                return null;
+            }
+        }
+        try {
+            return Files.readAllBytes(fileOf(key));
+        } catch (IOException e) {
+            log.warn("Cannot read cached PDF {}: {}", key, e.getMessage());
+            synchronized (diskIndex) {
+                Long size = diskIndex.remove(key);
+                if (size != null) {
+                    diskBytes -= size;
+                }
+            }
+            return null;
+        }
+    }
+
+    private void toDisk(String key, byte[] pdf) {
+        if (!diskAvailable || pdf.length > diskMaxBytes) {
+            return;
+        }
+        try {
+            // Write to a temp file and rename, so a reader never sees a partial PDF
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, pdf);
+            Files.move(temp, fileOf(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Cannot write cached PDF {}: {}", key, e.getMessage());
+            return;
+        }
+        List<String> evicted;
+        synchronized (diskIndex) {
+            Long previous = diskIndex.put(key, (long) pdf.length);
+            diskBytes += pdf.length - (previous != null ? previous : 0L);
+            evicted = evictDisk();
+        }
+        deleteFiles(evicted);
+    }
+
+    /**
+     * Drops the least recently used entries until the disk tier fits its budget.
+     * Must be called holding the diskIndex lock; the files are deleted afterwards.
+     */
+    private List<String> evictDisk() {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> eldest = diskIndex.entrySet().iterator();
+        while (diskBytes > diskMaxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            diskBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+            eldest.remove();
+        }
+        return evicted;
+    }
+
+    private void deleteFiles(List<String> keys) {
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(fileOf(key));
+            } catch (IOException e) {
+                log.warn("Cannot delete cached PDF {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private Path fileOf(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    private static String keyOf(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - EXTENSION.length());
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Hashes the UTF-8 encoding of the content through a small buffer instead of
+     * materializing a byte[] copy of the whole document.
+     */
+    private static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer chars = CharBuffer.wrap(content);
+            ByteBuffer bytes = ByteBuffer.allocate(8192);
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, bytes, true);
+                if (result.isOverflow() || !chars.hasRemaining()) {
+                    bytes.flip();
+                    digest.update(bytes);
+                    bytes.clear();
+                }
+            } while (result.isOverflow());
+            encoder.flush(bytes);
+            bytes.flip();
+            digest.update(bytes);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,24 +1,76 @@
 package com.venta.backend.cotizacion.infraestructura.pdf;
 
 import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.BaseFont;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.xhtmlrenderer.pdf.ITextOutputDevice;
 import org.xhtmlrenderer.pdf.ITextRenderer;
+import org.xhtmlrenderer.pdf.ITextUserAgent;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Flying Saucer implementation of the PDF generator adapter.
  * Converts HTML to PDF using the Flying Saucer library.
+ *
+ * Each thread keeps its own ITextRenderer (the renderer is not thread-safe but can be
+ * reused for successive documents), so the font resolver setup and the parsed
+ * stylesheets linked through {@link PdfStylesheets} survive between renders. Renders
+ * run on fixed pools, so there is one renderer per worker: the pool of
+ * {@link AsyncPdfGenerator} for single downloads, and the bulk receipt ZIP pool
+ * (venta.comprobantes.hilos), which calls this adapter directly to bypass the PDF cache.
+ * Extra fonts in pdf.fuentes.directorio are located once at startup; iText caches the
+ * parsed font files, so later renderers only register them.
  */
+@Slf4j
 @Component
 public class FlyingSaucerPdfAdapter implements IPdfGenerator {
 
+    private final String fontDirectory;
+    private List<String> fontFiles = List.of();
+
+    private final ThreadLocal<ITextRenderer> renderers = ThreadLocal.withInitial(this::createRenderer);
+
+    public FlyingSaucerPdfAdapter(@Value("${pdf.fuentes.directorio:}") String fontDirectory) {
+        this.fontDirectory = fontDirectory;
+    }
+
+    @PostConstruct
+    void loadFonts() {
+        if (fontDirectory == null || fontDirectory.isBlank()) {
+            return;
+        }
+        Path directory = Paths.get(fontDirectory);
+        try (Stream<Path> listing = Files.list(directory)) {
+            fontFiles = listing
+                    .map(Path::toString)
+                    .filter(name -> name.toLowerCase().endsWith(".ttf") || name.toLowerCase().endsWith(".otf"))
+                    .sorted()
+                    .toList();
+            // Parse them now (and fail here, not on the first download) by building a renderer
+            createRenderer();
+            log.info("Loaded {} PDF fonts from {}", fontFiles.size(), directory);
+        } catch (IOException | RuntimeException e) {
+            fontFiles = List.of();
+            log.warn("PDF fonts not loaded from {}: {}", directory, e.getMessage());
+        }
+    }
+
     @Override
     public byte[] generatePdf(String htmlContent) {
+        ITextRenderer renderer = renderers.get();
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            ITextRenderer renderer = new ITextRenderer();
-            
             // Set the HTML content
             renderer.setDocumentFromString(htmlContent);
             renderer.layout();
@@ -28,7 +80,52 @@ public class FlyingSaucerPdfAdapter implements IPdfGenerator {
             
             return outputStream.toByteArray();
         } catch (DocumentException | IOException e) {
+            renderers.remove();
             throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            // Do not reuse a renderer left in an unknown state
+            renderers.remove();
+            throw e;
+        }
+    }
+
+    private ITextRenderer createRenderer() {
+        ITextRenderer renderer = new ITextRenderer();
+
+        StylesheetUserAgent userAgent = new StylesheetUserAgent(renderer.getOutputDevice());
+        userAgent.setSharedContext(renderer.getSharedContext());
+        renderer.getSharedContext().setUserAgentCallback(userAgent);
+
+        for (String fontFile : fontFiles) {
+            try {
+                renderer.getFontResolver().addFont(fontFile, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+            } catch (DocumentException | IOException e) {
+                throw new IllegalStateException("Cannot load PDF font " + fontFile + ": " + e.getMessage(), e);
+            }
+        }
+        return renderer;
+    }
+
+    /**
+     * Serves the template stylesheets from memory instead of resolving them as URLs.
+     */
+    private static final class StylesheetUserAgent extends ITextUserAgent {
+
+        private StylesheetUserAgent(ITextOutputDevice outputDevice) {
+            super(outputDevice);
+        }
+
+        @Override
+        public String resolveURI(String uri) {
+            return PdfStylesheets.handles(uri) ? uri : super.resolveURI(uri);
+        }
+
+        @Override
+        protected InputStream resolveAndOpenStream(String uri) {
+            if (PdfStylesheets.handles(uri)) {
+                return new ByteArrayInputStream(PdfStylesheets.open(uri));
+            }
+            return super.resolveAndOpenStream(uri);
         }
     }
 }
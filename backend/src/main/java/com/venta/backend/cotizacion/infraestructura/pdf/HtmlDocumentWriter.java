@@ -0,0 +1,92 @@
+package com.venta.backend.cotizacion.infraestructura.pdf;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Writes the HTML of a PDF template into a per-thread buffer that is reused between
+ * documents, so building a receipt does not grow (and copy) a fresh StringBuilder
+ * through hundreds of appends.
+ *
+ * Templates write their static markup as precompiled constants with {@link #raw} and
+ * every dynamic value through {@link #text} or {@link #money}, which escape it for XHTML
+ * (a product name with "&amp;" or "&lt;" used to break the parser).
+ *
+ * Usage: {@code HtmlDocumentWriter out = HtmlDocumentWriter.open(); ...; return out.finish();}
+ * The writer must not escape the thread that opened it.
+ */
+public final class HtmlDocumentWriter {
+
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+    // Larger buffers are released after use instead of being kept by the thread
+    private static final int MAX_RETAINED_CAPACITY = 512 * 1024;
+
+    private static final ThreadLocal<HtmlDocumentWriter> WRITERS =
+            ThreadLocal.withInitial(HtmlDocumentWriter::new);
+
+    private StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+
+    private HtmlDocumentWriter() {
+    }
+
+    /**
+     * Returns this thread's writer, emptied.
+     */
+    public static HtmlDocumentWriter open() {
+        HtmlDocumentWriter writer = WRITERS.get();
+        writer.buffer.setLength(0);
+        return writer;
+    }
+
+    /**
+     * Appends markup as is. Only for constants owned by the template.
+     */
+    public HtmlDocumentWriter raw(String markup) {
+        buffer.append(markup);
+        return this;
+    }
+
+    /**
+     * Appends a value as escaped text; null writes nothing.
+     */
+    public HtmlDocumentWriter text(Object value) {
+        if (value == null) {
+            return this;
+        }
+        String text = value.toString();
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> buffer.append("&amp;");
+                case '<' -> buffer.append("&lt;");
+                case '>' -> buffer.append("&gt;");
+                case '"' -> buffer.append("&quot;");
+                case '\'' -> buffer.append("&#39;");
+                default -> buffer.append(c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends an amount with two decimals, independent of the default locale.
+     */
+    public HtmlDocumentWriter money(BigDecimal amount) {
+        buffer.append((amount != null ? amount : BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP).toPlainString());
+        return this;
+    }
+
+    /**
+     * Returns the document and resets the buffer for the next one on this thread.
+     */
+    public String finish() {
+        String html = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = new StringBuilder(INITIAL_CAPACITY);
+        } else {
+            buffer.setLength(0);
+        }
+        return html;
+    }
+}
@@ -14,4 +14,26 @@ public interface IPdfGenerator {
      * @throws RuntimeException if PDF generation fails
      */
     byte[] generatePdf(String htmlContent);
+
+    /**
+     * Generates a PDF from HTML content, optionally keeping it out of any cache.
+     *
+     * @param htmlContent The HTML content to convert to PDF
+     * @param cacheable false for documents that are still being edited (drafts), whose
+     *                  PDFs would only fill the cache with versions nobody asks for again
+     * @return PDF as byte array
+     */
+    default byte[] generatePdf(String htmlContent, boolean cacheable) {
+        return generatePdf(htmlContent);
+    }
+
+    /**
+     * Returns the PDF for this HTML if it was already generated, without rendering it.
+     *
+     * @param htmlContent The HTML content the PDF would be rendered from
+     * @return PDF as byte array, or null if it is not available
+     */
+    default byte[] findGenerated(String htmlContent) {
+        return null;
+    }
 }
@@ -0,0 +1,10 @@
+package com.venta.backend.cotizacion.infraestructura.pdf;
+
+/**
+ * Thrown when the PDF render queue is full and the request cannot be accepted.
+ */
+public class PdfRenderRejectedException extends RuntimeException {
+    public PdfRenderRejectedException(String message) {
+        super(message);
+    }
+}
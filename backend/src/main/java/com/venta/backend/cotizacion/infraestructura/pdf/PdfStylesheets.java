@@ -0,0 +1,69 @@
+package com.venta.backend.cotizacion.infraestructura.pdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stylesheets for PDF templates, kept as classpath resources under /pdf/css.
+ *
+ * Templates link them with {@link #uri(String)} instead of inlining the CSS, so Flying
+ * Saucer can parse each stylesheet once per renderer and reuse it (inline styles are
+ * re-parsed on every document). The URI carries a hash of the CSS, so a stylesheet
+ * change also changes the HTML and therefore the PDF cache key.
+ */
+public final class PdfStylesheets {
+
+    static final String SCHEME = "classpath:";
+    private static final String BASE_PATH = "/pdf/css/";
+
+    private static final Map<String, byte[]> CONTENT = new ConcurrentHashMap<>();
+    private static final Map<String, String> URIS = new ConcurrentHashMap<>();
+
+    private PdfStylesheets() {
+    }
+
+    /**
+     * URI to use in a template's link element, e.g. uri("venta.css").
+     */
+    public static String uri(String name) {
+        return URIS.computeIfAbsent(name, key -> SCHEME + BASE_PATH + key + "?v=" + version(content(key)));
+    }
+
+    static boolean handles(String uri) {
+        return uri != null && uri.startsWith(SCHEME + BASE_PATH);
+    }
+
+    static byte[] open(String uri) {
+        String path = uri.substring((SCHEME + BASE_PATH).length());
+        int query = path.indexOf('?');
+        return content(query >= 0 ? path.substring(0, query) : path);
+    }
+
+    private static byte[] content(String name) {
+        return CONTENT.computeIfAbsent(name, key -> {
+            try (InputStream in = PdfStylesheets.class.getResourceAsStream(BASE_PATH + key)) {
+                if (in == null) {
+                    throw new IllegalArgumentException("PDF stylesheet not found: " + key);
+                }
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String version(byte[] css) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(css);
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -28,6 +28,13 @@ public interface CotizacionRepository extends JpaRepository<Cotizacion, Integer>
     @EntityGraph(attributePaths = {"cliente", "vendedor"})
     Page<Cotizacion> findByVendedor_SellerId(@Param("sellerId") Long sellerId, Pageable pageable);
 
+    /**
+     * Obtiene una cotización con cliente, vendedor, ítems y productos en una sola consulta,
+     * para convertirla en venta sin cargas perezosas por línea.
+     */
+    @EntityGraph(attributePaths = {"cliente", "vendedor", "items", "items.producto"})
+    Optional<Cotizacion> findConItemsById(Integer id);
+
     /**
      * Cuenta el número de cotizaciones de un vendedor en estados específicos.
      */
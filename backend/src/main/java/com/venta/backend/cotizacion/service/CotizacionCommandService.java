@@ -1,5 +1,6 @@
 package com.venta.backend.cotizacion.service;
 
+import com.venta.backend.cliente.application.servicios.IMetricasClienteServicio;
 import com.venta.backend.cliente.entities.Cliente;
 import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
 import com.venta.backend.cotizacion.dto.AceptacionCotizacionRequest;
@@ -9,7 +10,7 @@ import com.venta.backend.cotizacion.dto.EnviarCotizacionRequest;
 import com.venta.backend.cotizacion.exception.CotizacionNotFoundException;
 import com.venta.backend.cotizacion.exception.CotizacionStateException;
 import com.venta.backend.cotizacion.infraestructura.pdf.CotizacionPdfTemplate;
-import com.venta.backend.cotizacion.infraestructura.pdf.IPdfGenerator;
+import com.venta.backend.cotizacion.infraestructura.pdf.AsyncPdfGenerator;
 import com.venta.backend.cotizacion.mapper.CotizacionMapper;
 import com.venta.backend.cotizacion.model.Cotizacion;
 import com.venta.backend.cotizacion.model.CotizacionEstado;
@@ -35,8 +36,9 @@ public class CotizacionCommandService {
     private final ClienteRepositorio clienteRepositorio;
     private final VendedorRepositorio vendedorRepositorio;
     private final ProductoRepository productoRepository;
-    private final IPdfGenerator pdfGenerator;
+    private final AsyncPdfGenerator pdfGenerator;
     private final CotizacionPdfTemplate pdfTemplate;
+    private final IMetricasClienteServicio metricasClienteServicio;
 
     @Transactional
     public CotizacionResponse crearCotizacion(CotizacionRequest request) {
@@ -82,7 +84,9 @@ public class CotizacionCommandService {
         
         cotizacion.setTotalCotizado(totalCotizado);
         
-        return cotizacionMapper.toDto(cotizacionRepository.save(cotizacion));
+        Cotizacion guardada = cotizacionRepository.save(cotizacion);
+        metricasClienteServicio.registrarCotizacionCreada(cliente.getClienteId(), guardada.getEstado());
+        return cotizacionMapper.toDto(guardada);
     }
 
     @Transactional
@@ -94,8 +98,10 @@ public class CotizacionCommandService {
             throw new CotizacionStateException("La cotización ya fue aceptada");
         }
         
+        CotizacionEstado anterior = cotizacion.getEstado();
         cotizacion.setEstado(CotizacionEstado.ACEPTADA);
         cotizacionRepository.save(cotizacion);
+        metricasClienteServicio.registrarCambioEstadoCotizacion(cotizacion.getCliente().getClienteId(), anterior, CotizacionEstado.ACEPTADA);
     }
 
     @Transactional
@@ -106,14 +112,16 @@ public class CotizacionCommandService {
         // Generate HTML from quotation data
         String htmlContent = pdfTemplate.generateHtml(cotizacion);
         
-        // Generate PDF using the adapter
+        // Generate PDF on the bounded render pool (waits for the result)
         byte[] pdfBytes = pdfGenerator.generatePdf(htmlContent);
         
         // Update state and send email with PDF attachment
+        CotizacionEstado anterior = cotizacion.getEstado();
         cotizacion.setEstado(CotizacionEstado.ENVIADA);
         String enlace = "https://mod-ventas.onrender.com/api/cotizaciones/" + cotizacion.getId() + "/aceptacion";
         cotizacionEmailService.enviarCotizacionConPdf(cotizacion, request.getEmail(), enlace, pdfBytes);
         cotizacionRepository.save(cotizacion);
+        metricasClienteServicio.registrarCambioEstadoCotizacion(cotizacion.getCliente().getClienteId(), anterior, CotizacionEstado.ENVIADA);
     }
 }
 
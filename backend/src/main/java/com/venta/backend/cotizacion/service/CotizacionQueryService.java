@@ -4,9 +4,10 @@ import com.venta.backend.cotizacion.dto.CotizacionListResponse;
 import com.venta.backend.cotizacion.dto.CotizacionResponse;
 import com.venta.backend.cotizacion.exception.CotizacionNotFoundException;
 import com.venta.backend.cotizacion.infraestructura.pdf.CotizacionPdfTemplate;
-import com.venta.backend.cotizacion.infraestructura.pdf.IPdfGenerator;
+import com.venta.backend.cotizacion.infraestructura.pdf.AsyncPdfGenerator;
 import com.venta.backend.cotizacion.mapper.CotizacionMapper;
 import com.venta.backend.cotizacion.model.Cotizacion;
+import com.venta.backend.cotizacion.model.CotizacionEstado;
 import com.venta.backend.cotizacion.repository.CotizacionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -14,6 +15,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
@@ -21,7 +24,7 @@ public class CotizacionQueryService {
 
     private final CotizacionRepository cotizacionRepository;
     private final CotizacionMapper cotizacionMapper;
-    private final IPdfGenerator pdfGenerator;
+    private final AsyncPdfGenerator pdfGenerator;
     private final CotizacionPdfTemplate pdfTemplate;
 
     /**
@@ -47,13 +50,27 @@ public class CotizacionQueryService {
      * Genera el PDF de una cotización para descarga.
      */
     public byte[] generarPdfCotizacion(Integer id) {
-        Cotizacion cotizacion = cotizacionRepository.findById(id)
+        Cotizacion cotizacion = obtenerCotizacionParaPdf(id);
+        return pdfGenerator.generatePdf(pdfTemplate.generateHtml(cotizacion), esCacheable(cotizacion));
+    }
+
+    /**
+     * Arma el HTML de la cotización y encola su render en el pool de PDFs.
+     */
+    public CompletableFuture<byte[]> generarPdfCotizacionAsync(Integer id) {
+        Cotizacion cotizacion = obtenerCotizacionParaPdf(id);
+        return pdfGenerator.generatePdfAsync(pdfTemplate.generateHtml(cotizacion), esCacheable(cotizacion));
+    }
+
+    private Cotizacion obtenerCotizacionParaPdf(Integer id) {
+        return cotizacionRepository.findById(id)
                 .orElseThrow(() -> new CotizacionNotFoundException("Cotización no encontrada con ID: " + id));
-        
-        // Generate HTML from quotation data
-        String htmlContent = pdfTemplate.generateHtml(cotizacion);
-        
-        // Generate PDF using the adapter
-        return pdfGenerator.generatePdf(htmlContent);
+    }
+
+    /**
+     * Una cotización en borrador todavía se edita: su PDF no se guarda en la caché.
+     */
+    private static boolean esCacheable(Cotizacion cotizacion) {
+        return cotizacion.getEstado() != CotizacionEstado.BORRADOR;
     }
 }
@@ -1,14 +1,20 @@
 package com.venta.backend.descuento.aplicacion;
 
 import com.venta.backend.cliente.entities.Cliente;
-import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
+import com.venta.backend.cliente.infraestructura.cache.ClienteCache;
+import com.venta.backend.cliente.infraestructura.cache.ClienteSnapshot;
 import com.venta.backend.descuento.dominio.reglas.IReglaDescuento;
 import com.venta.backend.descuento.DTO.AplicarDescuentoRequest;
 import com.venta.backend.descuento.DTO.DescuentoAplicadoResponse;
 import com.venta.backend.venta.entities.Venta;
+import com.venta.backend.venta.enums.VentaEstado;
 import com.venta.backend.venta.repository.VentaRepositorio;
+import com.venta.backend.venta.servicios.BorradorVentaCache;
+import com.venta.backend.venta.servicios.ResumenVentaCanalService;
+import com.venta.backend.cliente.application.servicios.IMetricasClienteServicio;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import com.venta.backend.descuento.aplicacion.exceptions.CuponNoValidoException;
 import com.venta.backend.descuento.dominio.entidades.Cupon;
 import com.venta.backend.descuento.infraestructura.repository.CuponRepositorio;
@@ -26,8 +32,11 @@ public class DiscountService {
 
     private final List<IReglaDescuento> todasLasReglas;
     private final VentaRepositorio ventaRepositorio;
-    private final ClienteRepositorio clienteRepositorio;
+    private final ClienteCache clienteCache;
     private final CuponRepositorio cuponRepositorio;
+    private final ResumenVentaCanalService resumenVentaCanalService;
+    private final IMetricasClienteServicio metricasClienteServicio;
+    private final BorradorVentaCache borradorVentaCache;
 
     /**
      * Aplica el mejor descuento disponible para una venta.
@@ -36,12 +45,21 @@ public class DiscountService {
      * @param request Datos necesarios para evaluar descuentos (ventaId, dniCliente, codigoCupon)
      * @return Respuesta con el descuento aplicado o indicación de que no se aplicó ninguno
      */
+    @Transactional
     public DescuentoAplicadoResponse aplicarMejorDescuento(AplicarDescuentoRequest request) {
-        // 1. Obtener Entidades
+        // 1. Obtener Entidades (escribiendo antes el carrito en memoria, si lo hay)
+        borradorVentaCache.sincronizar(Long.parseLong(request.getVentaId()));
         Venta venta = ventaRepositorio.findById(Long.parseLong(request.getVentaId()))
                 .orElseThrow(() -> new RuntimeException("Venta no encontrada con ID: " + request.getVentaId()));
 
-        Cliente cliente = clienteRepositorio.findByDni(request.getDniCliente())
+        // Montos persistidos, tomados antes de evaluar: calcularTotal() (cupón y reglas)
+        // reinicia total = subtotal y descuentoTotal = 0 sobre la entidad
+        BigDecimal subtotalPersistido = venta.getSubtotal();
+        BigDecimal totalAnterior = venta.getTotal();
+        BigDecimal descuentoAnterior = venta.getDescuentoTotal();
+
+        Cliente cliente = clienteCache.porDni(request.getDniCliente())
+                .map(ClienteSnapshot::aCliente)
                 .orElseThrow(() -> new RuntimeException("Cliente no encontrado con DNI: " + request.getDniCliente()));
 
         DescuentoAplicadoResponse mejorDescuento = null;
@@ -90,10 +108,18 @@ public class DiscountService {
             venta.setDescuentoTotal(mejorDescuento.getMontoDescontado());
             venta.setTotal(mejorDescuento.getNuevoTotalVenta());
             ventaRepositorio.save(venta);
+            if (venta.getEstado() == VentaEstado.CONFIRMADA) {
+                resumenVentaCanalService.registrarCambioTotal(venta, totalAnterior);
+                metricasClienteServicio.registrarCambioMontosVenta(venta, totalAnterior, descuentoAnterior);
+            }
             return mejorDescuento;
         }
 
-        // No se aplicó ningún descuento
+        // No se aplicó ningún descuento: se restauran los montos persistidos para que el
+        // recálculo de las reglas no se guarde (borraría un descuento previo sin ajustar los acumulados)
+        venta.setSubtotal(subtotalPersistido);
+        venta.setTotal(totalAnterior);
+        venta.setDescuentoTotal(descuentoAnterior);
         return new DescuentoAplicadoResponse("NINGUNO", BigDecimal.ZERO, venta.getTotal(), "No aplicó ningún descuento.");
     }
 }
\ No newline at end of file
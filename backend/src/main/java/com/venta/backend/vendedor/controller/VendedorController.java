@@ -104,6 +104,7 @@ public class VendedorController {
      * - GET /api/vendedores?sellerType=INTERNAL&page=0&size=20
      * - GET /api/vendedores?sellerStatus=ACTIVE&sellerBranchId=1
      * - GET /api/vendedores?dni=12345678
+     * - GET /api/vendedores?sellerStatus=ACTIVE&totalExact=false (sin COUNT, total estimado)
      */
     @GetMapping
     public ResponseEntity<Page<VendedorResponse>> searchSellers(
@@ -112,11 +113,12 @@ public class VendedorController {
             @RequestParam(required = false) Long sellerBranchId,
             @RequestParam(required = false) String dni,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean totalExact) {
 
         Pageable pageable = PageRequest.of(page, size);
         Page<VendedorResponse> response = consultaServicio.searchSellers(
-                sellerType, sellerStatus, sellerBranchId, dni, pageable
+                sellerType, sellerStatus, sellerBranchId, dni, pageable, totalExact
         );
         return ResponseEntity.ok(response);
     }
@@ -1,5 +1,8 @@
 package com.venta.backend.vendedor.impl;
 
+import com.venta.backend.common.paginacion.ConsultaSlice;
+import com.venta.backend.common.paginacion.ConteoEstimado;
+import com.venta.backend.common.paginacion.PaginaEstimada;
 import com.venta.backend.vendedor.dto.request.ModificacionVendedorRequest;
 import com.venta.backend.vendedor.dto.request.RegistroVendedorRequest;
 import com.venta.backend.vendedor.dto.response.VendedorResponse;
@@ -26,6 +29,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -42,6 +46,8 @@ public class VendedorServicioImpl implements IVendedorAdminService, IVendedorCon
     private final IVendedorMapeador vendedorMapeador;
     private final IClienteCotizacion clienteCotizacion;
     private final IRrhhServiceSubject clienteRRHH;
+    private final ConsultaSlice consultaSlice;
+    private final ConteoEstimado conteoEstimado;
 
     @Override
     @Transactional
@@ -140,13 +146,21 @@ public class VendedorServicioImpl implements IVendedorAdminService, IVendedorCon
     @Override
     @Transactional(readOnly = true)
     public Page<VendedorResponse> searchSellers(SellerType sellerType, SellerStatus sellerStatus,
-                                                Long sellerBranchId, String dni, Pageable pageable) {
+                                                Long sellerBranchId, String dni, Pageable pageable,
+                                                boolean totalExacto) {
         //  Usar nuestro helper para construir la consulta dinámica
         Specification<Vendedor> spec = VendedorEspecificacion.buildSpecification(
                 sellerType, sellerStatus, sellerBranchId, dni
         );
 
         //  Ejecutar la consulta con paginación
+        if (!totalExacto) {
+            // Sin COUNT: una fila de más indica si hay siguiente; el total se estima aparte
+            Slice<Vendedor> slice = consultaSlice.buscar(Vendedor.class, spec, pageable);
+            String clave = "vendedores|" + sellerType + "|" + sellerStatus + "|" + sellerBranchId + "|" + dni;
+            ConteoEstimado.Total total = conteoEstimado.total(clave, slice, () -> vendedorRepositorio.count(spec));
+            return new PaginaEstimada<>(slice.map(vendedorMapeador::toVendedorResponse), total);
+        }
         Page<Vendedor> vendedorPage = vendedorRepositorio.findAll(spec, pageable);
 
         // Mapear la página de Entidades a una página de DTOs
@@ -35,6 +35,7 @@ public interface IVendedorConsultaService {
      * @param sellerBranchId (Filtro) ID de la sede.
      * @param dni (Filtro) DNI del vendedor.
      * @param pageable (Paginación) Objeto que contiene el número de página y tamaño.
+     * @param totalExacto (Paginación) false para evitar el COUNT y devolver un total estimado.
      * @return Un objeto Page que contiene la lista de VendedorResponse y la info de paginación.
      */
     Page<VendedorResponse> searchSellers(
@@ -42,7 +43,8 @@ public interface IVendedorConsultaService {
             SellerStatus sellerStatus,
             Long sellerBranchId,
             String dni,
-            Pageable pageable
+            Pageable pageable,
+            boolean totalExacto
     );
 
     /**
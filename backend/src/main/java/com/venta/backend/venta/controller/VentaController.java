@@ -1,14 +1,19 @@
 package com.venta.backend.venta.controller;
 
+import com.venta.backend.cotizacion.infraestructura.pdf.AsyncPdfGenerator;
 import com.venta.backend.venta.dto.request.AgregarItemVentaRequest;
 import com.venta.backend.venta.dto.request.CrearVentaDirectaRequest;
 import com.venta.backend.venta.dto.request.CrearVentaLeadRequest;
+import com.venta.backend.venta.dto.request.DescargaComprobantesRequest;
+import com.venta.backend.venta.dto.request.OperacionesCarritoRequest;
 import com.venta.backend.venta.dto.response.*;
+import com.venta.backend.venta.exceptions.CabeceraIfMatchInvalidaException;
 import com.venta.backend.venta.servicios.IVentaCarritoService;
 import com.venta.backend.venta.servicios.IVentaConsultaService;
 import com.venta.backend.venta.servicios.VentaLeadService;
 import com.venta.backend.venta.servicios.VentaLeadConsultaService;
 import com.venta.backend.venta.servicios.BoletaService;
+import com.venta.backend.venta.servicios.ComprobantesZipService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -17,8 +22,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -34,6 +42,8 @@ public class VentaController {
     private final VentaLeadService ventaLeadService;
     private final VentaLeadConsultaService ventaLeadConsultaService;
     private final BoletaService boletaService;
+    private final AsyncPdfGenerator asyncPdfGenerator;
+    private final ComprobantesZipService comprobantesZipService;
 
     @Operation(summary = "Listar todas las ventas", description = "Obtiene un listado completo de todas las ventas sin paginación")
     @GetMapping
@@ -42,14 +52,35 @@ public class VentaController {
         return ventaConsultaService.listarVentas();
     }
 
-    @Operation(summary = "Listar ventas paginadas", description = "Obtiene un listado paginado y ordenado de ventas")
+    @Operation(summary = "Exportar todas las ventas (NDJSON)", description = "Transmite el listado completo de ventas como JSON delimitado por saltos de línea, una venta por línea, sin cargarlo entero en memoria")
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportarVentas() {
+        log.info("Exportando todas las ventas en NDJSON [VentaController]");
+        StreamingResponseBody body = ventaConsultaService::exportarVentasNdjson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header("Content-Disposition", "attachment; filename=ventas.ndjson")
+                .body(body);
+    }
+
+    @Operation(summary = "Listar ventas paginadas", description = "Obtiene un listado paginado y ordenado de ventas. Con cursor=true (o enviando 'after') usa paginación por keyset sin conteo total; solo admite ordenar por id o fechaVentaCreada")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de ventas"),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido o de otro ordenamiento, u ordenamiento no soportado en modo cursor")
+    })
     @GetMapping("/paginadas")
     public VentaPaginadaResponse listarVentasPaginadas(
             @Parameter(description = "Número de página (inicia en 0)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Cantidad de elementos por página") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Campo por el cual ordenar") @RequestParam(defaultValue = "id") String sortBy,
-            @Parameter(description = "Dirección del ordenamiento (asc/desc)") @RequestParam(defaultValue = "desc") String sortDir
+            @Parameter(description = "Dirección del ordenamiento (asc/desc)") @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "Activa el modo cursor (keyset)") @RequestParam(defaultValue = "false") boolean cursor,
+            @Parameter(description = "Cursor opaco devuelto en nextCursor por la página anterior") @RequestParam(required = false) String after
     ) {
+        if (cursor || after != null) {
+            log.info("Listando ventas por cursor - Size: {}, SortBy: {}, SortDir: {} [VentaController]", size, sortBy, sortDir);
+            return ventaConsultaService.listarVentasPorCursor(after, size, sortBy, sortDir);
+        }
         log.info("Listando ventas paginadas - Page: {}, Size: {}, SortBy: {}, SortDir: {} [VentaController]", page, size, sortBy, sortDir);
         return ventaConsultaService.listarVentasPaginadas(page, size, sortBy, sortDir);
     }
@@ -70,34 +101,56 @@ public class VentaController {
 
     @Operation(summary = "Agregar producto al carrito", description = "Agrega un producto a una venta en borrador")
     @PostMapping("/{ventaId}/carrito/items")
-    public VentaResumenResponse agregarItem(
+    public ResponseEntity<VentaResumenResponse> agregarItem(
             @Parameter(description = "ID de la venta") @PathVariable Long ventaId,
             @Valid @RequestBody AgregarItemVentaRequest request
     ) {
         log.info("Agregando item al carrito - Producto ID: {}, Cantidad: {} [Venta ID: {}]", request.getProductoId(), request.getCantidad(), ventaId);
-        return ventaCarritoService.agregarItemALaVenta(ventaId, request);
+        VentaResumenResponse response = ventaCarritoService.agregarItemALaVenta(ventaId, request);
+        return ResponseEntity.ok().eTag(etag(response.getVersion())).body(response);
+    }
+
+    @Operation(summary = "Ejecutar operaciones del carrito en lote", description = "Aplica en orden una lista de operaciones (agregar/actualizar/quitar ítems, cliente, vendedor, método de pago, confirmar) sobre una venta en borrador, o sobre una venta directa nueva si no se indica ventaId, en una sola transacción. Si una operación falla no se aplica ninguna y la respuesta indica cuál falló")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operaciones aplicadas; devuelve el resumen final de la venta"),
+        @ApiResponse(responseCode = "400", description = "Una operación es inválida (indiceOperacion indica cuál) o la cabecera If-Match está mal formada"),
+        @ApiResponse(responseCode = "404", description = "Venta o producto no encontrado"),
+        @ApiResponse(responseCode = "409", description = "La venta cambió desde la versión indicada en If-Match")
+    })
+    @PostMapping("/carrito/operaciones")
+    public ResponseEntity<VentaResumenResponse> ejecutarOperaciones(
+            @Parameter(description = "ETag (versión) de la venta que vio el cliente") @RequestHeader(value = "If-Match", required = false) String ifMatch,
+            @Valid @RequestBody OperacionesCarritoRequest request
+    ) {
+        log.info("Ejecutando lote de {} operaciones del carrito [Venta ID: {}]", request.getOperaciones().size(), request.getVentaId());
+        VentaResumenResponse response = ventaCarritoService.ejecutarOperaciones(request, parseVersion(ifMatch));
+        return ResponseEntity.ok().eTag(etag(response.getVersion())).body(response);
     }
 
     @Operation(summary = "Obtener resumen de venta", description = "Obtiene el resumen completo de una venta con sus productos y totales")
     @GetMapping("/{ventaId}/carrito")
-    public VentaResumenResponse obtenerResumen(
+    public ResponseEntity<VentaResumenResponse> obtenerResumen(
             @Parameter(description = "ID de la venta") @PathVariable Long ventaId) {
         log.info("Obteniendo resumen del carrito [Venta ID: {}]", ventaId);
-        return ventaCarritoService.obtenerResumen(ventaId);
+        VentaResumenResponse response = ventaCarritoService.obtenerResumen(ventaId);
+        return ResponseEntity.ok().eTag(etag(response.getVersion())).body(response);
     }
 
     @Operation(summary = "Asignar vendedor a venta", description = "Asigna un vendedor a una venta existente")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Vendedor asignado exitosamente"),
-        @ApiResponse(responseCode = "404", description = "Venta o vendedor no encontrado")
+        @ApiResponse(responseCode = "400", description = "Cabecera If-Match mal formada"),
+        @ApiResponse(responseCode = "404", description = "Venta o vendedor no encontrado"),
+        @ApiResponse(responseCode = "409", description = "Otro usuario asignó un vendedor distinto")
     })
     @PutMapping("/{ventaId}/vendedor/{vendedorId}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void asignarVendedor(
+    public ResponseEntity<Void> asignarVendedor(
             @Parameter(description = "ID de la venta") @PathVariable Long ventaId, 
-            @Parameter(description = "ID del vendedor") @PathVariable Long vendedorId) {
+            @Parameter(description = "ID del vendedor") @PathVariable Long vendedorId,
+            @Parameter(description = "ETag (versión) de la venta que vio el cliente") @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         log.info("Asignando vendedor ID: {} a la venta [Venta ID: {}]", vendedorId, ventaId);
-        ventaCarritoService.asignarVendedor(ventaId, vendedorId);
+        Long version = ventaCarritoService.asignarVendedor(ventaId, vendedorId, parseVersion(ifMatch));
+        return ResponseEntity.noContent().eTag(etag(version)).build();
     }
 
     @Operation(summary = "Cancelar venta", description = "Cancela una venta cambiando su estado a CANCELADA")
@@ -200,19 +253,21 @@ public class VentaController {
         return boletaService.obtenerBoletasPorCliente(clienteId);
     }
     
-    @Operation(summary = "Guardar productos de la venta", description = "Sincroniza el carrito del frontend con la base de datos (insert/update/delete) y recalcula totales")
+    @Operation(summary = "Guardar productos de la venta", description = "Sincroniza el carrito del frontend con la base de datos (insert/update/delete) y recalcula totales. Si If-Match indica una versión anterior, fusiona los cambios por línea y responde 409 solo si chocan con otra edición")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Productos guardados exitosamente"),
-        @ApiResponse(responseCode = "400", description = "Venta no es borrador"),
-        @ApiResponse(responseCode = "404", description = "Venta no encontrada")
+        @ApiResponse(responseCode = "400", description = "Venta no es borrador o cabecera If-Match mal formada"),
+        @ApiResponse(responseCode = "404", description = "Venta no encontrada"),
+        @ApiResponse(responseCode = "409", description = "Cambios en conflicto con otra edición")
     })
     @PostMapping("/{ventaId}/guardar-productos")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void guardarProductos(
+    public ResponseEntity<Void> guardarProductos(
             @Parameter(description = "ID de la venta") @PathVariable Long ventaId,
+            @Parameter(description = "ETag (versión) de la venta que vio el cliente") @RequestHeader(value = "If-Match", required = false) String ifMatch,
             @RequestBody com.venta.backend.venta.dto.request.GuardarProductosRequest request) {
         log.info("Guardando productos de la venta - Cantidad items: {} [Venta ID: {}]", request.getProductos().size(), ventaId);
-        ventaCarritoService.guardarProductos(ventaId, request.getProductos());
+        Long version = ventaCarritoService.guardarProductos(ventaId, request, parseVersion(ifMatch));
+        return ResponseEntity.noContent().eTag(etag(version)).build();
     }
     
     @Operation(summary = "Calcular totales de la venta", description = "Obtiene subtotal, descuento y total calculados en tiempo real")
@@ -223,7 +278,8 @@ public class VentaController {
     @GetMapping("/{ventaId}/totales")
     public ResponseEntity<VentaResumenResponse> calcularTotales(@Parameter(description = "ID de la venta") @PathVariable Long ventaId) {
         log.info("Calculando totales [Venta ID: {}]", ventaId);
-        return ResponseEntity.ok(ventaCarritoService.calcularTotales(ventaId));
+        VentaResumenResponse response = ventaCarritoService.calcularTotales(ventaId);
+        return ResponseEntity.ok().eTag(etag(response.getVersion())).body(response);
     }
     
     @Operation(summary = "Actualizar método de pago", description = "Actualiza el método de pago de la venta (EFECTIVO o TARJETA)")
@@ -255,26 +311,69 @@ public class VentaController {
         log.info("Venta confirmada exitosamente [Venta ID: {}]", ventaId);
     }
     
-    @Operation(summary = "Descargar PDF de venta", description = "Genera y descarga un PDF con el detalle completo de la venta")
+    @Operation(summary = "Descargar PDF de venta", description = "Genera y descarga un PDF con el detalle completo de la venta. El render se hace en un pool dedicado; si está saturado responde 503 con Retry-After")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "PDF generado exitosamente"),
-        @ApiResponse(responseCode = "404", description = "Venta no encontrada")
+        @ApiResponse(responseCode = "404", description = "Venta no encontrada"),
+        @ApiResponse(responseCode = "503", description = "Generación de PDFs saturada, reintentar luego")
     })
     @GetMapping("/{ventaId}/pdf")
-    public ResponseEntity<byte[]> descargarPdfVenta(@Parameter(description = "ID de la venta") @PathVariable Long ventaId) {
+    public DeferredResult<ResponseEntity<byte[]>> descargarPdfVenta(@Parameter(description = "ID de la venta") @PathVariable Long ventaId) {
         log.info("Generando PDF de venta [Venta ID: {}]", ventaId);
-        byte[] pdfBytes = ventaCarritoService.generarPdfVenta(ventaId);
-        
-        return ResponseEntity.ok()
-                .header("Content-Type", "application/pdf")
-                .header("Content-Disposition", "attachment; filename=Venta_" + ventaId + ".pdf")
-                .body(pdfBytes);
+        return asyncPdfGenerator.toDeferredResult(
+                ventaCarritoService.generarPdfVentaAsync(ventaId),
+                pdfBytes -> ResponseEntity.ok()
+                        .header("Content-Type", "application/pdf")
+                        .header("Content-Disposition", "attachment; filename=Venta_" + ventaId + ".pdf")
+                        .body(pdfBytes));
     }
     
+    @Operation(summary = "Descargar comprobantes en ZIP", description = "Transmite un ZIP con los PDF de una lista de ventas (ventaIds) o de las ventas confirmadas en un rango de fechas (desde/hasta). Los PDF se generan en paralelo y se escriben a medida que terminan; las ventas no encontradas o con error se listan en errores.txt")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "ZIP en transmisión"),
+        @ApiResponse(responseCode = "400", description = "Selección inválida, vacía o demasiado grande")
+    })
+    @PostMapping(value = "/pdf/zip", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> descargarComprobantesZip(@Valid @RequestBody DescargaComprobantesRequest request) {
+        List<Long> ventaIds = comprobantesZipService.resolverVentas(request);
+        log.info("Descargando {} comprobantes en ZIP [VentaController]", ventaIds.size());
+        StreamingResponseBody body = out -> comprobantesZipService.escribirZip(ventaIds, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header("Content-Disposition", "attachment; filename=comprobantes.zip")
+                .body(body);
+    }
+
     @Operation(summary = "Obtener ventas agregadas por canal (Físico vs. Llamada)")
     @GetMapping("/analisis/ventas-por-canal")
     public ResponseEntity<List<VentasPorCanalResponse>> obtenerVentasPorCanal() {
         log.info("Obteniendo análisis de ventas por canal [VentaController]");
         return ResponseEntity.ok(ventaConsultaService.obtenerVentasPorCanal());
     }
+
+    @Operation(summary = "Recalcular ventas por canal", description = "Reconstruye el acumulado de ventas por canal a partir de todas las ventas confirmadas")
+    @PostMapping("/analisis/ventas-por-canal/recalcular")
+    public ResponseEntity<List<VentasPorCanalResponse>> recalcularVentasPorCanal() {
+        log.info("Recalculando acumulado de ventas por canal [VentaController]");
+        return ResponseEntity.ok(ventaConsultaService.recalcularVentasPorCanal());
+    }
+
+    private static String etag(Long version) {
+        return "\"" + (version != null ? version : 0L) + "\"";
+    }
+
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        try {
+            return Long.parseLong(valor.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new CabeceraIfMatchInvalidaException("Cabecera If-Match inválida: " + ifMatch);
+        }
+    }
 }
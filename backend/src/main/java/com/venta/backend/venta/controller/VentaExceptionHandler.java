@@ -0,0 +1,107 @@
+package com.venta.backend.venta.controller;
+
+import com.venta.backend.venta.exceptions.CabeceraIfMatchInvalidaException;
+import com.venta.backend.venta.exceptions.CursorPaginacionInvalidoException;
+import com.venta.backend.venta.exceptions.DescargaComprobantesException;
+import com.venta.backend.venta.exceptions.ItemProductoNoEncontradoException;
+import com.venta.backend.venta.exceptions.OperacionCarritoException;
+import com.venta.backend.venta.exceptions.VentaConflictoException;
+import com.venta.backend.venta.exceptions.VentaNoEncontradaException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Manejador de excepciones de concurrencia, de lotes del carrito, de descargas y de solicitudes
+ * mal formadas (If-Match, cursor) del módulo de Venta.
+ * Tiene prioridad sobre los manejadores globales, que capturan Exception como 500.
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class VentaExceptionHandler {
+
+    @ExceptionHandler(VentaConflictoException.class)
+    public ResponseEntity<Map<String, Object>> handleConflicto(VentaConflictoException ex) {
+        log.warn("Conflicto de edición concurrente (409): {}", ex.getMessage());
+        return conflicto(ex.getMessage());
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLock(ObjectOptimisticLockingFailureException ex) {
+        log.warn("Versión desactualizada (409): {}", ex.getMessage());
+        return conflicto("La venta fue modificada por otro usuario. Recargue e intente nuevamente.");
+    }
+
+    @ExceptionHandler(OperacionCarritoException.class)
+    public ResponseEntity<Map<String, Object>> handleOperacionCarrito(OperacionCarritoException ex) {
+        HttpStatus status;
+        if (ex.getCause() instanceof VentaConflictoException
+                || ex.getCause() instanceof ObjectOptimisticLockingFailureException) {
+            status = HttpStatus.CONFLICT;
+        } else if (ex.getCause() instanceof VentaNoEncontradaException
+                || ex.getCause() instanceof ItemProductoNoEncontradoException) {
+            status = HttpStatus.NOT_FOUND;
+        } else {
+            status = HttpStatus.BAD_REQUEST;
+        }
+        log.warn("Lote del carrito revertido ({}): {}", status.value(), ex.getMessage());
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", ex.getCause().getMessage());
+        body.put("indiceOperacion", ex.getIndice());
+        body.put("tipoOperacion", ex.getTipo());
+
+        return ResponseEntity.status(status).body(body);
+    }
+
+    @ExceptionHandler(DescargaComprobantesException.class)
+    public ResponseEntity<Map<String, Object>> handleDescargaComprobantes(DescargaComprobantesException ex) {
+        log.warn("Descarga de comprobantes rechazada (400): {}", ex.getMessage());
+        return solicitudInvalida(ex.getMessage());
+    }
+
+    @ExceptionHandler(CabeceraIfMatchInvalidaException.class)
+    public ResponseEntity<Map<String, Object>> handleIfMatchInvalido(CabeceraIfMatchInvalidaException ex) {
+        log.warn("Cabecera If-Match rechazada (400): {}", ex.getMessage());
+        return solicitudInvalida(ex.getMessage());
+    }
+
+    @ExceptionHandler(CursorPaginacionInvalidoException.class)
+    public ResponseEntity<Map<String, Object>> handleCursorInvalido(CursorPaginacionInvalidoException ex) {
+        log.warn("Cursor de paginación rechazado (400): {}", ex.getMessage());
+        return solicitudInvalida(ex.getMessage());
+    }
+
+    private ResponseEntity<Map<String, Object>> solicitudInvalida(String mensaje) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", mensaje);
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    private ResponseEntity<Map<String, Object>> conflicto(String mensaje) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", mensaje);
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+}
@@ -0,0 +1,29 @@
+package com.venta.backend.venta.dto.request;
+
+import jakarta.validation.constraints.AssertTrue;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Selección de comprobantes a descargar en un ZIP: una lista de ventas o un rango
+ * de fechas (ventas confirmadas entre desde y hasta, ambos inclusive).
+ */
+@Data
+public class DescargaComprobantesRequest {
+
+    private List<Long> ventaIds;
+
+    private LocalDate desde;
+
+    private LocalDate hasta;
+
+    @AssertTrue(message = "Debe indicar ventaIds o un rango de fechas válido (desde y hasta), no ambos.")
+    public boolean isSeleccionValida() {
+        if (ventaIds != null && !ventaIds.isEmpty()) {
+            return desde == null && hasta == null;
+        }
+        return desde != null && hasta != null && !desde.isAfter(hasta);
+    }
+}
@@ -27,5 +27,29 @@ public class GuardarProductosRequest {
         @NotNull(message = "La cantidad es requerida")
         @Min(value = 1, message = "La cantidad mínima es 1")
         private Integer cantidad;
+
+        /** Versión de la línea tal como la vio el cliente (null si es una línea nueva). */
+        private Long version;
+
+        /**
+         * Cantidad de la línea tal como la vio el cliente (opcional). Al fusionar, una línea
+         * que otro usuario modificó y que el cliente reenvía sin cambios (cantidad igual a
+         * cantidadOriginal) conserva el valor del servidor en lugar de generar un conflicto.
+         */
+        private Integer cantidadOriginal;
+    }
+
+    /**
+     * Líneas que el cliente quitó, con la versión que vio de cada una.
+     * Solo se usan al fusionar un carrito guardado sobre una versión desactualizada.
+     */
+    private List<LineaEliminada> eliminados;
+
+    @Data
+    public static class LineaEliminada {
+        @NotNull(message = "El ID del producto es requerido")
+        private Long idProducto;
+
+        private Long version;
     }
 }
@@ -0,0 +1,41 @@
+package com.venta.backend.venta.dto.request;
+
+import com.venta.backend.venta.enums.TipoOperacionCarrito;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class OperacionesCarritoRequest {
+
+    /** Venta en borrador a modificar; si es null se crea una venta directa en borrador. */
+    private Long ventaId;
+
+    @NotEmpty(message = "Debe indicar al menos una operación")
+    @Valid
+    private List<Operacion> operaciones;
+
+    /**
+     * Una operación del carrito. Solo se usan los campos que corresponden a su tipo:
+     * AGREGAR_ITEM (productoId, nombreProducto, precioUnitario, cantidad),
+     * ACTUALIZAR_CANTIDAD (productoId, cantidad), QUITAR_ITEM (productoId),
+     * ASIGNAR_CLIENTE (clienteId), ASIGNAR_VENDEDOR (vendedorId), METODO_PAGO (metodoPago).
+     */
+    @Data
+    public static class Operacion {
+        @NotNull(message = "El tipo de operación es requerido")
+        private TipoOperacionCarrito tipo;
+
+        private Long productoId;
+        private String nombreProducto;
+        private BigDecimal precioUnitario;
+        private Integer cantidad;
+        private Long clienteId;
+        private Long vendedorId;
+        private String metodoPago;
+    }
+}
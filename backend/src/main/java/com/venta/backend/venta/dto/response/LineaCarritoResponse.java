@@ -14,5 +14,6 @@ public class LineaCarritoResponse {
     Integer cantidad;
     BigDecimal precioUnitario;
     BigDecimal subtotal;
+    Long version;
 }
 
@@ -2,6 +2,7 @@ package com.venta.backend.venta.dto.response;
 
 import com.venta.backend.venta.enums.OrigenVenta;
 import com.venta.backend.venta.enums.VentaEstado;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Value;
 
@@ -9,6 +10,7 @@ import java.time.LocalDate;
 
 @Value
 @Builder
+@AllArgsConstructor
 public class VentaListadoResponse {
 
     Long id;
@@ -17,8 +19,8 @@ public class VentaListadoResponse {
     VentaEstado estado;
     LocalDate fechaVentaCreada;
 
-    // Por ahora no integramos cliente real
     String nombreCliente;
+    String nombreVendedor;
 }
 
 
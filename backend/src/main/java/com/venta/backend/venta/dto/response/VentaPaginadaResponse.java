@@ -20,4 +20,10 @@ public class VentaPaginadaResponse {
     private int totalPages;
     private boolean first;
     private boolean last;
+
+    /**
+     * Solo en modo cursor: token opaco para pedir la siguiente página (null si es la última).
+     * En ese modo no se calcula el total, por lo que totalElements y totalPages valen -1.
+     */
+    private String nextCursor;
 }
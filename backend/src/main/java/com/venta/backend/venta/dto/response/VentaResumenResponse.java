@@ -26,5 +26,6 @@ public class VentaResumenResponse {
     String clienteEmail;
     String clienteTelefono;
     List<LineaCarritoResponse> items;
+    Long version;
 }
 
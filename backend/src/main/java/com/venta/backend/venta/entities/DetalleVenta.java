@@ -1,5 +1,6 @@
 package com.venta.backend.venta.entities;
 
+import com.venta.backend.common.util.MontoUtils;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -14,11 +15,20 @@ import java.math.BigDecimal;
 @Builder
 public class DetalleVenta {
 
+    /*
+     * Generador por bloques (tabla detalle_venta_seq en MySQL) en lugar de IDENTITY:
+     * con IDENTITY Hibernate debe insertar fila por fila y no puede agrupar en lotes JDBC.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalle_venta_seq")
+    @SequenceGenerator(name = "detalle_venta_seq", sequenceName = "detalle_venta_seq", allocationSize = 50)
     @Column(name = "id_detalle_venta")
     private Long id;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "id_venta", nullable = false)
     private Venta venta;
@@ -41,17 +51,45 @@ public class DetalleVenta {
     @Column(nullable = false)
     private BigDecimal subtotal;
 
+    /*
+     * Montos de la línea en centavos (no persistidos), para que Venta actualice sus
+     * totales sin convertir BigDecimal en cada cambio. Se calculan desde los montos
+     * persistidos la primera vez que se necesitan y los setters de montos los invalidan.
+     * precioCentavos es null si el precio unitario tiene más de 2 decimales: en ese caso
+     * el producto se hace en BigDecimal, siempre multiplicando antes de redondear.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean centavosCalculados;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Long precioCentavos;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long descuentoCentavos;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long subtotalCentavos;
+
     public static DetalleVenta nuevoDetalle(Venta venta, Long idProducto, String nombreProducto, BigDecimal precioUnitario, int cantidad) {
-        BigDecimal subtotalCalculado = precioUnitario.multiply(BigDecimal.valueOf(cantidad));
-        return DetalleVenta.builder()
+        DetalleVenta detalle = DetalleVenta.builder()
                 .venta(venta)
                 .idProducto(idProducto)
                 .nombreProducto(nombreProducto)
                 .cantidad(cantidad)
                 .precioUnitario(precioUnitario)
                 .descuentoMonto(BigDecimal.ZERO)
-                .subtotal(subtotalCalculado)
+                .subtotal(BigDecimal.ZERO)
                 .build();
+        detalle.recalcularSubtotal();
+        return detalle;
     }
 
     public void incrementarCantidad(int delta) {
@@ -64,9 +102,45 @@ public class DetalleVenta {
         recalcularSubtotal();
     }
 
+    /**
+     * Subtotal de la línea en centavos, usado por Venta para mantener sus totales.
+     */
+    public long getSubtotalCentavos() {
+        calcularCentavos();
+        return subtotalCentavos;
+    }
+
+    public void setPrecioUnitario(BigDecimal precioUnitario) {
+        this.precioUnitario = precioUnitario;
+        this.centavosCalculados = false;
+    }
+
+    public void setDescuentoMonto(BigDecimal descuentoMonto) {
+        this.descuentoMonto = descuentoMonto;
+        this.centavosCalculados = false;
+    }
+
+    public void setSubtotal(BigDecimal subtotal) {
+        this.subtotal = subtotal;
+        this.centavosCalculados = false;
+    }
+
     private void recalcularSubtotal() {
-        BigDecimal total = precioUnitario.multiply(BigDecimal.valueOf(cantidad));
-        this.subtotal = total.subtract(descuentoMonto);
+        calcularCentavos();
+        long bruto = precioCentavos != null
+                ? precioCentavos * cantidad
+                : MontoUtils.aCentavos(precioUnitario.multiply(BigDecimal.valueOf(cantidad)));
+        subtotalCentavos = bruto - descuentoCentavos;
+        this.subtotal = MontoUtils.aMonto(subtotalCentavos);
     }
-}
 
+    private void calcularCentavos() {
+        if (centavosCalculados) {
+            return;
+        }
+        precioCentavos = precioUnitario.stripTrailingZeros().scale() <= 2 ? MontoUtils.aCentavos(precioUnitario) : null;
+        descuentoCentavos = MontoUtils.aCentavos(descuentoMonto);
+        subtotalCentavos = MontoUtils.aCentavos(subtotal);
+        centavosCalculados = true;
+    }
+}
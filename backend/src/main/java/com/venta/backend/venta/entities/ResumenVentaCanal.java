@@ -0,0 +1,30 @@
+package com.venta.backend.venta.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Acumulado de ventas CONFIRMADAS por canal (LLAMADA, FISICO, OTRO).
+ * Se actualiza en la misma transacción que confirma, cancela o descuenta una venta.
+ */
+@Entity
+@Table(name = "resumen_venta_canal")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumenVentaCanal {
+
+    @Id
+    @Column(name = "canal", length = 20)
+    private String canal;
+
+    @Column(name = "cantidad_ventas", nullable = false)
+    private Long cantidadVentas;
+
+    @Column(name = "ingresos_totales", nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresosTotales;
+}
@@ -0,0 +1,27 @@
+package com.venta.backend.venta.entities;
+
+import com.venta.backend.venta.enums.OrigenVenta;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Contador persistente de numeración de ventas por origen.
+ * siguienteValor es el primer número aún no reservado por ninguna instancia.
+ */
+@Entity
+@Table(name = "secuencia_venta")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SecuenciaVenta {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "origen_venta", length = 20)
+    private OrigenVenta origenVenta;
+
+    @Column(name = "siguiente_valor", nullable = false)
+    private Long siguienteValor;
+}
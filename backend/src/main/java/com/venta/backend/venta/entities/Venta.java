@@ -9,13 +9,19 @@ import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
+import com.venta.backend.common.util.MontoUtils;
 import com.venta.backend.descuento.dominio.entidades.LogDescuentoAplicado;
 
 @Entity
-@Table(name = "Venta")
+@Table(name = "Venta", indexes = {
+        @Index(name = "idx_venta_fecha_creada_id", columnList = "fecha_venta_creada, id_venta"),
+        @Index(name = "idx_venta_vendedor_fecha", columnList = "id_vendedor, fecha_venta_creada")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -28,7 +34,14 @@ public class Venta {
     @Column(name = "id_venta")
     private Long id;
 
-    @Column(name = "num_venta")
+    /**
+     * Control de concurrencia optimista: se expone como ETag en los endpoints del carrito.
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "num_venta", unique = true)
     private String numVenta;
 
     @Enumerated(EnumType.STRING)
@@ -73,45 +86,126 @@ public class Venta {
     @Column(nullable = false)
     private BigDecimal total;
 
+    /*
+     * Conjunto con orden de inserción (y por id al cargar) para que quitar una línea
+     * sea O(1); DetalleVenta usa la identidad del objeto como igualdad.
+     */
     @OneToMany(mappedBy = "venta", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
     @Builder.Default
-    private List<DetalleVenta> detalles = new ArrayList<>();
+    private Set<DetalleVenta> detalles = new LinkedHashSet<>();
+
+    /*
+     * Estado derivado en memoria (no persistido): líneas indexadas por producto y
+     * subtotal en centavos, para que cada cambio de línea actualice los totales en O(1).
+     * Se construye a partir de detalles la primera vez que se necesita.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<Long, DetalleVenta> lineasPorProducto;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long subtotalCentavos;
 
     public boolean esBorrador() {
         return VentaEstado.BORRADOR.equals(estado);
     }
     
     public void agregarOActualizarItem(Long idProducto, String nombreProducto, BigDecimal precioUnitario, int cantidad) {
-        DetalleVenta existente = detalles.stream()
-                .filter(det -> det.getIdProducto().equals(idProducto))
-                .findFirst()
-                .orElse(null);
+        Map<Long, DetalleVenta> lineas = lineas();
+        DetalleVenta existente = lineas.get(idProducto);
 
         if (existente == null) {
             DetalleVenta nuevo = DetalleVenta.nuevoDetalle(this, idProducto, nombreProducto, precioUnitario, cantidad);
             detalles.add(nuevo);
+            lineas.put(idProducto, nuevo);
+            subtotalCentavos += nuevo.getSubtotalCentavos();
         } else {
+            long anterior = existente.getSubtotalCentavos();
             existente.incrementarCantidad(cantidad);
+            subtotalCentavos += existente.getSubtotalCentavos() - anterior;
         }
 
-        recalcularMontos();
+        aplicarTotales();
     }
 
-    public void recalcularMontos() {
-        BigDecimal nuevoSubtotal = detalles.stream()
-                .map(DetalleVenta::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Fija la cantidad de la línea de un producto.
+     * @return false si la venta no tiene ese producto
+     */
+    public boolean actualizarCantidadItem(Long idProducto, int cantidad) {
+        DetalleVenta existente = lineas().get(idProducto);
+        if (existente == null) {
+            return false;
+        }
+        long anterior = existente.getSubtotalCentavos();
+        existente.actualizarCantidad(cantidad);
+        subtotalCentavos += existente.getSubtotalCentavos() - anterior;
+        aplicarTotales();
+        return true;
+    }
 
-        this.subtotal = nuevoSubtotal;
-        this.descuentoTotal = BigDecimal.ZERO;
-        this.total = nuevoSubtotal;
+    public DetalleVenta obtenerItem(Long idProducto) {
+        return lineas().get(idProducto);
+    }
+
+    public void quitarItem(Long idProducto) {
+        DetalleVenta existente = lineas().remove(idProducto);
+        if (existente != null) {
+            detalles.remove(existente);
+            subtotalCentavos -= existente.getSubtotalCentavos();
+            aplicarTotales();
+        }
+    }
+
+    /**
+     * Recalcula los montos recorriendo todas las líneas.
+     * Solo es necesario si se modificó la lista de detalles directamente.
+     */
+    public void recalcularMontos() {
+        lineasPorProducto = null;
+        lineas();
+        aplicarTotales();
     }
     
+    /**
+     * Construye ya el índice de líneas y los centavos (normalmente se construyen al primer
+     * uso). Para publicar la venta a varios lectores sin que la construcción perezosa corra
+     * en paralelo.
+     */
+    public void indexarLineas() {
+        lineas();
+    }
+
     @OneToOne(mappedBy = "venta", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private LogDescuentoAplicado descuentoAplicado; 
     
     public BigDecimal calcularTotal() {
-        recalcularMontos();
+        lineas();
+        aplicarTotales();
         return this.total;
     }
+
+    private Map<Long, DetalleVenta> lineas() {
+        if (lineasPorProducto == null) {
+            Map<Long, DetalleVenta> indice = new HashMap<>(Math.max(16, detalles.size() * 2));
+            long centavos = 0L;
+            for (DetalleVenta detalle : detalles) {
+                indice.put(detalle.getIdProducto(), detalle);
+                centavos += detalle.getSubtotalCentavos();
+            }
+            lineasPorProducto = indice;
+            subtotalCentavos = centavos;
+        }
+        return lineasPorProducto;
+    }
+
+    private void aplicarTotales() {
+        this.subtotal = MontoUtils.aMonto(subtotalCentavos);
+        this.descuentoTotal = BigDecimal.ZERO;
+        this.total = this.subtotal;
+    }
 }
\ No newline at end of file
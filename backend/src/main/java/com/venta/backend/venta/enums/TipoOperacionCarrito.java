@@ -0,0 +1,12 @@
+package com.venta.backend.venta.enums;
+
+public enum TipoOperacionCarrito {
+    AGREGAR_ITEM,
+    ACTUALIZAR_CANTIDAD,
+    QUITAR_ITEM,
+    ASIGNAR_CLIENTE,
+    DESASIGNAR_CLIENTE,
+    ASIGNAR_VENDEDOR,
+    METODO_PAGO,
+    CONFIRMAR
+}
@@ -0,0 +1,7 @@
+package com.venta.backend.venta.exceptions;
+
+public class CabeceraIfMatchInvalidaException extends RuntimeException {
+    public CabeceraIfMatchInvalidaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.venta.backend.venta.exceptions;
+
+public class CursorPaginacionInvalidoException extends RuntimeException {
+    public CursorPaginacionInvalidoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.venta.backend.venta.exceptions;
+
+public class DescargaComprobantesException extends RuntimeException {
+    public DescargaComprobantesException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.venta.backend.venta.exceptions;
+
+import com.venta.backend.venta.enums.TipoOperacionCarrito;
+import lombok.Getter;
+
+/**
+ * Falla de una operación dentro de un lote del carrito. Envuelve la excepción original
+ * e indica qué operación la produjo; el lote completo se revierte.
+ */
+@Getter
+public class OperacionCarritoException extends RuntimeException {
+
+    private final int indice;
+    private final TipoOperacionCarrito tipo;
+
+    public OperacionCarritoException(int indice, TipoOperacionCarrito tipo, RuntimeException causa) {
+        super("Operación " + indice + " (" + tipo + "): " + causa.getMessage(), causa);
+        this.indice = indice;
+        this.tipo = tipo;
+    }
+}
@@ -0,0 +1,7 @@
+package com.venta.backend.venta.exceptions;
+
+public class VentaConflictoException extends RuntimeException {
+    public VentaConflictoException(String message) {
+        super(message);
+    }
+}
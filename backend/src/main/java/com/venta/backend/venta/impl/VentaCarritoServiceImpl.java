@@ -1,36 +1,47 @@
 package com.venta.backend.venta.impl;
 
+import com.venta.backend.common.util.MontoUtils;
 import com.venta.backend.venta.dto.request.AgregarItemVentaRequest;
 import com.venta.backend.venta.dto.request.CrearVentaDirectaRequest;
 import com.venta.backend.venta.dto.request.GuardarProductosRequest;
+import com.venta.backend.venta.dto.request.OperacionesCarritoRequest;
 import com.venta.backend.venta.dto.response.VentaResumenResponse;
+import com.venta.backend.venta.exceptions.ItemProductoNoEncontradoException;
+import com.venta.backend.venta.exceptions.OperacionCarritoException;
+import com.venta.backend.venta.exceptions.VentaConflictoException;
 import com.venta.backend.venta.exceptions.VentaNoEncontradaException;
 import com.venta.backend.venta.exceptions.VentaOperacionNoPermitidaException;
 import com.venta.backend.venta.factory.VentaFactoryResolver;
 import com.venta.backend.venta.mappers.IVentaMapper;
+import com.venta.backend.venta.servicios.BorradorVentaCache;
 import com.venta.backend.venta.servicios.IVentaCarritoService;
+import com.venta.backend.venta.servicios.NumeracionVentaService;
+import com.venta.backend.venta.servicios.ReintentoOptimista;
+import com.venta.backend.venta.servicios.ResumenVentaCanalService;
+import com.venta.backend.cliente.application.servicios.IMetricasClienteServicio;
 import com.venta.backend.venta.entities.Venta;
 import com.venta.backend.venta.entities.DetalleVenta;
+import com.venta.backend.venta.enums.MetodoPago;
 import com.venta.backend.venta.enums.OrigenVenta;
 import com.venta.backend.venta.enums.VentaEstado;
 import com.venta.backend.venta.repository.VentaRepositorio;
-import com.venta.backend.venta.repository.VentaRepositorio;
-import com.venta.backend.venta.repository.DetalleVentaRepositorio;
 import com.venta.backend.vendedor.infraestructura.repository.VendedorRepositorio;
 import com.venta.backend.cotizacion.repository.CotizacionRepository;
 import com.venta.backend.cotizacion.model.Cotizacion;
 import com.venta.backend.cotizacion.model.DetalleCotizacion;
 import com.venta.backend.cotizacion.exception.CotizacionNotFoundException;
-import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
+import com.venta.backend.cliente.infraestructura.cache.ClienteCache;
+import com.venta.backend.cliente.infraestructura.cache.ClienteSnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import com.venta.backend.venta.pdf.VentaPdfTemplate;
-import com.venta.backend.cotizacion.infraestructura.pdf.IPdfGenerator;
+import com.venta.backend.cotizacion.infraestructura.pdf.AsyncPdfGenerator;
 
 @Service
 @RequiredArgsConstructor
@@ -38,13 +49,17 @@ import com.venta.backend.cotizacion.infraestructura.pdf.IPdfGenerator;
 public class VentaCarritoServiceImpl implements IVentaCarritoService {
 
     private final VentaRepositorio ventaRepositorio;
-    private final DetalleVentaRepositorio detalleVentaRepositorio;
     private final VentaFactoryResolver ventaFactoryResolver;
     private final VendedorRepositorio vendedorRepositorio;
     private final CotizacionRepository cotizacionRepository;
-    private final ClienteRepositorio clienteRepositorio;
+    private final ClienteCache clienteCache;
     private final VentaPdfTemplate ventaPdfTemplate;
-    private final IPdfGenerator pdfGenerator;
+    private final AsyncPdfGenerator asyncPdfGenerator;
+    private final NumeracionVentaService numeracionVentaService;
+    private final ResumenVentaCanalService resumenVentaCanalService;
+    private final IMetricasClienteServicio metricasClienteServicio;
+    private final ReintentoOptimista reintentoOptimista;
+    private final BorradorVentaCache borradorVentaCache;
     @Qualifier("IVentaMapper")
     private final IVentaMapper ventaMapper;
 
@@ -56,7 +71,7 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
                 .getFactory(OrigenVenta.DIRECTA)
                 .crearVentaBorrador();
 
-        venta.setNumVenta(generarCodigoVenta(OrigenVenta.DIRECTA));
+        venta.setNumVenta(numeracionVentaService.siguienteNumero(OrigenVenta.DIRECTA));
 
         Venta guardada = ventaRepositorio.save(venta);
         log.info("Venta directa creada - ID: {}, Num: {} [VentaCarritoService]", guardada.getId(), guardada.getNumVenta());
@@ -64,14 +79,26 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
     }
 
     @Override
-    @Transactional
     public VentaResumenResponse agregarItemALaVenta(Long ventaId, AgregarItemVentaRequest request) {
         log.info("Agregando item a venta - Producto ID: {}, Cantidad: {} [Venta ID: {}]", request.getProductoId(), request.getCantidad(), ventaId);
-        Venta venta = ventaRepositorio.findById(ventaId)
-                .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
+        return borradorVentaCache.modificar(ventaId, venta -> agregarItem(venta, request), ventaMapper::toResumen)
+                .orElseGet(() -> {
+                    // Agregar suma una cantidad (delta), así que conmuta con otras ediciones:
+                    // ante un conflicto de versión basta con recargar la venta y volver a aplicarlo
+                    return reintentoOptimista.ejecutar(ventaId, () -> {
+                        Venta venta = ventaRepositorio.findById(ventaId)
+                                .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
+                        agregarItem(venta, request);
+                        Venta guardada = ventaRepositorio.saveAndFlush(venta);
+                        log.debug("Item agregado/actualizado correctamente [Venta ID: {}]", ventaId);
+                        return ventaMapper.toResumen(guardada);
+                    });
+                });
+    }
 
+    private void agregarItem(Venta venta, AgregarItemVentaRequest request) {
         if (!venta.esBorrador()) {
-            log.warn("Intento de modificar venta no borrador [Venta ID: {}]", ventaId);
+            log.warn("Intento de modificar venta no borrador [Venta ID: {}]", venta.getId());
             throw new VentaOperacionNoPermitidaException("Solo se puede modificar una venta en estado borrador.");
         }
 
@@ -81,18 +108,22 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
             request.getPrecioUnitario(), 
             request.getCantidad()
         );
-        
-        Venta guardada = ventaRepositorio.save(venta);
-        log.debug("Item agregado/actualizado correctamente [Venta ID: {}]", ventaId);
-        return ventaMapper.toResumen(guardada);
     }
 
     @Override
     @Transactional(readOnly = true)
     public VentaResumenResponse obtenerResumen(Long ventaId) {
-        Venta venta = ventaRepositorio.findById(ventaId)
+        // Un borrador se sirve desde memoria si la caché de carritos está habilitada
+        Venta venta = borradorVentaCache.leer(ventaId)
+                .or(() -> ventaRepositorio.findById(ventaId))
                 .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
-        
+        return armarResumen(venta);
+    }
+
+    /**
+     * Resumen de la venta con los nombres del vendedor y del cliente resueltos.
+     */
+    private VentaResumenResponse armarResumen(Venta venta) {
         VentaResumenResponse resumen = ventaMapper.toResumen(venta);
         
         // Obtener nombre del vendedor si está asignado
@@ -110,7 +141,7 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
         String clienteTelefono = null;
         
         if (venta.getClienteId() != null) {
-            var clienteOpt = clienteRepositorio.findById(venta.getClienteId());
+            var clienteOpt = clienteCache.porId(venta.getClienteId());
             if (clienteOpt.isPresent()) {
                 var cliente = clienteOpt.get();
                 nombreCliente = cliente.getFirstName() + " " + cliente.getLastName();
@@ -138,6 +169,7 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
                     .clienteEmail(clienteEmail)
                     .clienteTelefono(clienteTelefono)
                     .items(resumen.getItems())
+                    .version(resumen.getVersion())
                     .build();
         }
         
@@ -145,29 +177,47 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
     }
 
     @Override
-    @Transactional
-    public void asignarVendedor(Long ventaId, Long vendedorId) {
+    public Long asignarVendedor(Long ventaId, Long vendedorId, Long versionEsperada) {
         log.info("Asignando vendedor ID: {} [Venta ID: {}]", vendedorId, ventaId);
-        Venta venta = ventaRepositorio.findById(ventaId)
-                .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
+        return borradorVentaCache.modificar(ventaId, venta -> aplicarVendedor(venta, vendedorId, versionEsperada), Venta::getVersion)
+                .orElseGet(() -> reintentoOptimista.ejecutar(ventaId, () -> {
+                    Venta venta = ventaRepositorio.findById(ventaId)
+                            .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
+                    aplicarVendedor(venta, vendedorId, versionEsperada);
+                    return ventaRepositorio.saveAndFlush(venta).getVersion();
+                }));
+    }
 
+    private void aplicarVendedor(Venta venta, Long vendedorId, Long versionEsperada) {
         if (!venta.esBorrador()) {
             throw new VentaOperacionNoPermitidaException("Solo se puede asignar vendedor a una venta en estado borrador.");
         }
 
+        // Con versión desactualizada solo se acepta si nadie asignó otro vendedor entretanto
+        if (esVersionDesactualizada(venta, versionEsperada)
+                && venta.getIdVendedor() != null
+                && !venta.getIdVendedor().equals(vendedorId)) {
+            throw new VentaConflictoException("Otro usuario asignó un vendedor distinto a la venta.");
+        }
+
         venta.setIdVendedor(vendedorId);
-        ventaRepositorio.save(venta);
     }
 
     @Override
     @Transactional
     public void cancelarVenta(Long ventaId) {
         log.info("Cancelando venta [Venta ID: {}]", ventaId);
+        borradorVentaCache.sincronizar(ventaId);
         Venta venta = ventaRepositorio.findById(ventaId)
                 .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
         
+        boolean estabaConfirmada = venta.getEstado() == VentaEstado.CONFIRMADA;
         venta.setEstado(VentaEstado.CANCELADA);
         ventaRepositorio.save(venta);
+        if (estabaConfirmada) {
+            resumenVentaCanalService.registrarCancelacion(venta);
+            metricasClienteServicio.registrarVentaCancelada(venta);
+        }
         log.info("Venta cancelada exitosamente [Venta ID: {}]", ventaId);
     }
 
@@ -175,13 +225,13 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
     @Transactional
     public VentaResumenResponse crearVentaDesdeCotizacion(Long cotizacionId) {
         log.info("Creando venta desde cotización ID: {} [VentaCarritoService]", cotizacionId);
-        // 1. Buscar cotización
-        Cotizacion cotizacion = cotizacionRepository.findById(cotizacionId.intValue())
+        // 1. Buscar cotización (con ítems y productos en la misma consulta)
+        Cotizacion cotizacion = cotizacionRepository.findConItemsById(cotizacionId.intValue())
                 .orElseThrow(() -> new CotizacionNotFoundException("Cotización no encontrada con ID: " + cotizacionId));
 
         // 2. Crear venta
         Venta venta = Venta.builder()
-                .numVenta(generarCodigoVenta(OrigenVenta.COTIZACION))
+                .numVenta(numeracionVentaService.siguienteNumero(OrigenVenta.COTIZACION))
                 .origenVenta(OrigenVenta.COTIZACION)
                 .estado(VentaEstado.CONFIRMADA)
                 .fechaVentaCreada(java.time.LocalDate.now())
@@ -189,42 +239,37 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
                 .clienteId(cotizacion.getCliente().getClienteId())
                 .idCotizacion(cotizacionId)
                 .idVendedor(cotizacion.getVendedor().getSellerId())
-                .subtotal(BigDecimal.ZERO)
-                .descuentoTotal(BigDecimal.ZERO)
-                .total(BigDecimal.ZERO)
                 .build();
 
-        Venta ventaGuardada = ventaRepositorio.save(venta);
-        log.info("Venta base creada desde cotización - ID: {} [VentaCarritoService]", ventaGuardada.getId());
-
-        // 3. Copiar productos de DetalleCotizacion a DetalleVenta
-        BigDecimal subtotalCalculado = BigDecimal.ZERO;
-        BigDecimal descuentoTotalCalculado = BigDecimal.ZERO;
+        // 3. Copiar productos de DetalleCotizacion a DetalleVenta y acumular totales una sola vez
+        long subtotalCentavos = 0L;
+        long descuentoCentavos = 0L;
+        Set<DetalleVenta> detalles = venta.getDetalles();
 
         for (DetalleCotizacion detalle : cotizacion.getItems()) {
-            DetalleVenta detalleVenta = DetalleVenta.builder()
-                    .venta(ventaGuardada)
+            detalles.add(DetalleVenta.builder()
+                    .venta(venta)
                     .idProducto(detalle.getProducto().getId())
                     .nombreProducto(detalle.getProducto().getNombre())
                     .cantidad(detalle.getCantidad())
                     .precioUnitario(detalle.getPrecioUnitario())
                     .descuentoMonto(detalle.getDescuentoMonto())
                     .subtotal(detalle.getSubtotal())
-                    .build();
+                    .build());
 
-            detalleVentaRepositorio.save(detalleVenta);
-
-            subtotalCalculado = subtotalCalculado.add(detalle.getSubtotal());
-            descuentoTotalCalculado = descuentoTotalCalculado.add(detalle.getDescuentoMonto());
+            subtotalCentavos += MontoUtils.aCentavos(detalle.getSubtotal());
+            descuentoCentavos += MontoUtils.aCentavos(detalle.getDescuentoMonto());
         }
 
-        // 4. Actualizar totales de la venta
-        ventaGuardada.setSubtotal(subtotalCalculado);
-        ventaGuardada.setDescuentoTotal(descuentoTotalCalculado);
-        ventaGuardada.setTotal(subtotalCalculado.subtract(descuentoTotalCalculado));
+        venta.setSubtotal(MontoUtils.aMonto(subtotalCentavos));
+        venta.setDescuentoTotal(MontoUtils.aMonto(descuentoCentavos));
+        venta.setTotal(MontoUtils.aMonto(subtotalCentavos - descuentoCentavos));
 
-        Venta ventaFinal = ventaRepositorio.save(ventaGuardada);
-        log.info("Venta desde cotización finalizada con totales calculados [Venta ID: {}]", ventaFinal.getId());
+        // 4. Un único save: la cabecera y los detalles (cascade) se insertan en lotes JDBC
+        Venta ventaFinal = ventaRepositorio.save(venta);
+        resumenVentaCanalService.registrarConfirmacion(ventaFinal);
+        metricasClienteServicio.registrarVentaConfirmada(ventaFinal);
+        log.info("Venta desde cotización creada con {} líneas [Venta ID: {}]", detalles.size(), ventaFinal.getId());
 
         return ventaMapper.toResumen(ventaFinal);
     }
@@ -233,6 +278,9 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
     @Transactional
     public void asignarCliente(Long ventaId, Long clienteId) {
         log.info("Asignando cliente ID: {} [Venta ID: {}]", clienteId, ventaId);
+        if (borradorVentaCache.modificar(ventaId, venta -> venta.setClienteId(clienteId), Venta::getId).isPresent()) {
+            return;
+        }
         Venta venta = ventaRepositorio.findById(ventaId)
                 .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
         
@@ -244,6 +292,9 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
     @Transactional
     public void desasignarCliente(Long ventaId) {
         log.info("Desasignando cliente [Venta ID: {}]", ventaId);
+        if (borradorVentaCache.modificar(ventaId, venta -> venta.setClienteId(null), Venta::getId).isPresent()) {
+            return;
+        }
         Venta venta = ventaRepositorio.findById(ventaId)
                 .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
         
@@ -252,63 +303,129 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
     }
     
     @Override
-    @Transactional
-    public void guardarProductos(Long ventaId, List<GuardarProductosRequest.ProductoCarrito> productosCarrito) {
+    public Long guardarProductos(Long ventaId, GuardarProductosRequest request, Long versionEsperada) {
+        List<GuardarProductosRequest.ProductoCarrito> productosCarrito = request.getProductos();
         log.info("Sincronizando productos del carrito - Items: {} [Venta ID: {}]", productosCarrito.size(), ventaId);
-        Venta venta = ventaRepositorio.findById(ventaId)
-                .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
-        
-        if (!venta.esBorrador()) {
-            throw new VentaOperacionNoPermitidaException("Solo se puede modificar una venta en estado borrador.");
-        }
-        
-        // 1. Obtener detalles actuales de la BD
-        List<DetalleVenta> detallesActuales = venta.getDetalles();
         
-        // 2. Crear mapa de productos del carrito (frontend)
-        java.util.Map<Long, com.venta.backend.venta.dto.request.GuardarProductosRequest.ProductoCarrito> carritoMap = 
+        // Mapa de productos del carrito (frontend)
+        java.util.Map<Long, GuardarProductosRequest.ProductoCarrito> carritoMap = 
             productosCarrito.stream()
                 .collect(java.util.stream.Collectors.toMap(
                     p -> p.getIdProducto(),
                     p -> p
                 ));
         
-        // 3. Actualizar o eliminar detalles existentes
-        java.util.Iterator<DetalleVenta> iterator = detallesActuales.iterator();
-        while (iterator.hasNext()) {
-            DetalleVenta detalle = iterator.next();
-            Long idProducto = detalle.getIdProducto();
-            
-            if (carritoMap.containsKey(idProducto)) {
-                // Producto existe en carrito → ACTUALIZAR cantidad
-                var productoCarrito = carritoMap.get(idProducto);
-                detalle.actualizarCantidad(productoCarrito.getCantidad());
-                carritoMap.remove(idProducto); // Ya procesado
-            } else {
-                // Producto NO existe en carrito → ELIMINAR
-                iterator.remove();
-                detalleVentaRepositorio.delete(detalle);
-            }
+        return borradorVentaCache.modificar(ventaId, venta -> aplicarCarrito(venta, carritoMap, request, versionEsperada), Venta::getVersion)
+                .orElseGet(() -> reintentoOptimista.ejecutar(ventaId, () -> {
+                    Venta venta = ventaRepositorio.findById(ventaId)
+                            .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
+                    aplicarCarrito(venta, carritoMap, request, versionEsperada);
+                    
+                    // Guardar venta (cascade guarda detalles)
+                    Long nuevaVersion = ventaRepositorio.saveAndFlush(venta).getVersion();
+                    log.info("Productos guardados y totales recalculados [Venta ID: {}]", ventaId);
+                    return nuevaVersion;
+                }));
+    }
+    
+    private void aplicarCarrito(Venta venta,
+                                java.util.Map<Long, GuardarProductosRequest.ProductoCarrito> carritoMap,
+                                GuardarProductosRequest request,
+                                Long versionEsperada) {
+        if (!venta.esBorrador()) {
+            throw new VentaOperacionNoPermitidaException("Solo se puede modificar una venta en estado borrador.");
         }
         
-        // 4. Insertar nuevos productos que están en carrito pero no en BD
+        if (esVersionDesactualizada(venta, versionEsperada)) {
+            log.info("Carrito guardado sobre versión {} (actual {}), fusionando por línea [Venta ID: {}]", versionEsperada, venta.getVersion(), venta.getId());
+            fusionarCarrito(venta, carritoMap, request.getEliminados());
+        } else {
+            sincronizarCarrito(venta, carritoMap);
+        }
+    }
+    
+    /**
+     * El carrito del cliente parte de la versión vigente: se aplica tal cual,
+     * eliminando lo que no viene en él.
+     */
+    private void sincronizarCarrito(Venta venta, java.util.Map<Long, GuardarProductosRequest.ProductoCarrito> carritoMap) {
+        // 1. Eliminar los productos que ya no están en el carrito (orphanRemoval borra el detalle)
+        List<Long> productosQuitados = venta.getDetalles().stream()
+                .map(DetalleVenta::getIdProducto)
+                .filter(idProducto -> !carritoMap.containsKey(idProducto))
+                .toList();
+        productosQuitados.forEach(venta::quitarItem);
+        
+        // 2. Actualizar cantidades o insertar nuevos productos; los totales se ajustan por línea
         for (var productoCarrito : carritoMap.values()) {
-            DetalleVenta nuevoDetalle = DetalleVenta.nuevoDetalle(
-                venta,
+            aplicarLinea(venta, productoCarrito);
+        }
+    }
+    
+    /**
+     * El carrito del cliente parte de una versión anterior: se aplican solo los cambios
+     * de línea que no chocan con lo que otro usuario modificó entretanto (comparando la
+     * versión de cada línea). Las líneas del servidor que el cliente no menciona, o que
+     * reenvía sin cambios (cantidadOriginal), se conservan, porque pueden haber sido
+     * agregadas o modificadas por otro usuario.
+     */
+    private void fusionarCarrito(Venta venta,
+                                 java.util.Map<Long, GuardarProductosRequest.ProductoCarrito> carritoMap,
+                                 List<GuardarProductosRequest.LineaEliminada> eliminados) {
+        List<String> conflictos = new java.util.ArrayList<>();
+        List<GuardarProductosRequest.ProductoCarrito> lineasAplicables = new java.util.ArrayList<>();
+        
+        for (var productoCarrito : carritoMap.values()) {
+            DetalleVenta actual = venta.obtenerItem(productoCarrito.getIdProducto());
+            if (actual == null) {
+                if (productoCarrito.getVersion() != null) {
+                    conflictos.add("el producto " + productoCarrito.getIdProducto() + " fue eliminado por otro usuario");
+                } else {
+                    lineasAplicables.add(productoCarrito);
+                }
+            } else if (java.util.Objects.equals(actual.getVersion(), productoCarrito.getVersion())) {
+                lineasAplicables.add(productoCarrito);
+            } else if (productoCarrito.getCantidad().equals(productoCarrito.getCantidadOriginal())) {
+                // El cliente no tocó la línea: se conserva la cantidad que dejó el otro usuario
+                continue;
+            } else if (!actual.getCantidad().equals(productoCarrito.getCantidad())) {
+                conflictos.add("el producto " + productoCarrito.getIdProducto() + " fue modificado por otro usuario");
+            }
+        }
+        
+        List<GuardarProductosRequest.LineaEliminada> lineasEliminadas = eliminados != null ? eliminados : List.of();
+        for (var eliminado : lineasEliminadas) {
+            DetalleVenta actual = venta.obtenerItem(eliminado.getIdProducto());
+            if (actual != null && !java.util.Objects.equals(actual.getVersion(), eliminado.getVersion())) {
+                conflictos.add("el producto " + eliminado.getIdProducto() + " fue modificado por otro usuario antes de quitarlo");
+            }
+        }
+        
+        if (!conflictos.isEmpty()) {
+            throw new VentaConflictoException("No se pudo fusionar el carrito: " + String.join("; ", conflictos) + ".");
+        }
+        
+        lineasAplicables.forEach(productoCarrito -> aplicarLinea(venta, productoCarrito));
+        lineasEliminadas.forEach(eliminado -> venta.quitarItem(eliminado.getIdProducto()));
+    }
+    
+    private void aplicarLinea(Venta venta, GuardarProductosRequest.ProductoCarrito productoCarrito) {
+        boolean actualizado = venta.actualizarCantidadItem(
+            productoCarrito.getIdProducto(),
+            productoCarrito.getCantidad()
+        );
+        if (!actualizado) {
+            venta.agregarOActualizarItem(
                 productoCarrito.getIdProducto(),
                 productoCarrito.getNombreProducto(),
                 productoCarrito.getPrecioUnitario(),
                 productoCarrito.getCantidad()
             );
-            detallesActuales.add(nuevoDetalle);
         }
-        
-        // 5. Recalcular totales
-        venta.recalcularMontos();
-        
-        // 6. Guardar venta (cascade guarda detalles)
-        ventaRepositorio.save(venta);
-        log.info("Productos guardados y totales recalculados [Venta ID: {}]", ventaId);
+    }
+    
+    private boolean esVersionDesactualizada(Venta venta, Long versionEsperada) {
+        return versionEsperada != null && !versionEsperada.equals(venta.getVersion());
     }
     
     @Override
@@ -321,12 +438,20 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
     @Transactional
     public void actualizarMetodoPago(Long ventaId, String metodoPago) {
         log.info("Actualizando método de pago: {} [Venta ID: {}]", metodoPago, ventaId);
+        MetodoPago nuevoMetodo = parseMetodoPago(metodoPago, ventaId);
+        
+        if (borradorVentaCache.modificar(ventaId, venta -> venta.setMetodoPago(nuevoMetodo), Venta::getId).isPresent()) {
+            return;
+        }
         Venta venta = ventaRepositorio.findById(ventaId)
                 .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
-        
+        venta.setMetodoPago(nuevoMetodo);
+        ventaRepositorio.save(venta);
+    }
+    
+    private MetodoPago parseMetodoPago(String metodoPago, Long ventaId) {
         try {
-            venta.setMetodoPago(com.venta.backend.venta.enums.MetodoPago.valueOf(metodoPago.toUpperCase()));
-            ventaRepositorio.save(venta);
+            return MetodoPago.valueOf(metodoPago.toUpperCase());
         } catch (IllegalArgumentException e) {
             log.error("Método de pago inválido: {} [Venta ID: {}]", metodoPago, ventaId);
             throw new IllegalArgumentException("Método de pago inválido: " + metodoPago);
@@ -337,9 +462,21 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
     @Transactional
     public void confirmarVenta(Long ventaId) {
         log.info("Iniciando validación para confirmar venta [Venta ID: {}]", ventaId);
+        // Escribir los cambios del carrito en memoria antes de validar y confirmar
+        borradorVentaCache.sincronizar(ventaId);
         Venta venta = ventaRepositorio.findById(ventaId)
                 .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
         
+        validarYConfirmar(venta);
+        
+        // Guardar venta y sumarla al acumulado por canal y a las métricas del cliente
+        ventaRepositorio.save(venta);
+        resumenVentaCanalService.registrarConfirmacion(venta);
+        metricasClienteServicio.registrarVentaConfirmada(venta);
+        log.info("Venta confirmada y guardada exitosamente [Venta ID: {}]", ventaId);
+    }
+    
+    private void validarYConfirmar(Venta venta) {
         // Validación 1: Solo se puede confirmar una venta en borrador
         if (!venta.esBorrador()) {
             throw new VentaOperacionNoPermitidaException("Solo se puede confirmar una venta en estado borrador.");
@@ -370,57 +507,143 @@ public class VentaCarritoServiceImpl implements IVentaCarritoService {
         
         // Cambiar estado a CONFIRMADA
         venta.setEstado(VentaEstado.CONFIRMADA);
+    }
+    
+    @Override
+    @Transactional
+    public VentaResumenResponse ejecutarOperaciones(OperacionesCarritoRequest request, Long versionEsperada) {
+        List<OperacionesCarritoRequest.Operacion> operaciones = request.getOperaciones();
+        log.info("Ejecutando lote de {} operaciones del carrito [Venta ID: {}]", operaciones.size(), request.getVentaId());
         
-        // Guardar venta
-        ventaRepositorio.save(venta);
-        log.info("Venta confirmada y guardada exitosamente [Venta ID: {}]", ventaId);
+        Venta venta;
+        if (request.getVentaId() == null) {
+            venta = ventaFactoryResolver
+                    .getFactory(OrigenVenta.DIRECTA)
+                    .crearVentaBorrador();
+            venta.setNumVenta(numeracionVentaService.siguienteNumero(OrigenVenta.DIRECTA));
+        } else {
+            // El lote trabaja sobre la base de datos: primero se escribe el carrito en memoria, si lo hay
+            borradorVentaCache.sincronizar(request.getVentaId());
+            venta = ventaRepositorio.findById(request.getVentaId())
+                    .orElseThrow(() -> new VentaNoEncontradaException(request.getVentaId()));
+            if (esVersionDesactualizada(venta, versionEsperada)) {
+                throw new VentaConflictoException("La venta fue modificada desde la versión indicada en If-Match.");
+            }
+        }
+        
+        // Todo o nada: la primera operación que falla revierte el lote completo
+        boolean confirmada = false;
+        for (int i = 0; i < operaciones.size(); i++) {
+            OperacionesCarritoRequest.Operacion operacion = operaciones.get(i);
+            try {
+                confirmada |= aplicarOperacion(venta, operacion);
+            } catch (RuntimeException e) {
+                throw new OperacionCarritoException(i, operacion.getTipo(), e);
+            }
+        }
+        
+        Venta guardada = ventaRepositorio.saveAndFlush(venta);
+        if (confirmada) {
+            resumenVentaCanalService.registrarConfirmacion(guardada);
+            metricasClienteServicio.registrarVentaConfirmada(guardada);
+        }
+        log.info("Lote del carrito aplicado - Estado: {} [Venta ID: {}]", guardada.getEstado(), guardada.getId());
+        return armarResumen(guardada);
     }
-
-    private String generarCodigoVenta(OrigenVenta origenVenta) {
-        String prefijoTipo;
-        switch (origenVenta) {
-            case LEAD -> prefijoTipo = "LED";
-            case COTIZACION -> prefijoTipo = "COT";
-            default -> prefijoTipo = "DIR";
+    
+    /**
+     * @return true si la operación confirmó la venta
+     */
+    private boolean aplicarOperacion(Venta venta, OperacionesCarritoRequest.Operacion operacion) {
+        if (!venta.esBorrador()) {
+            throw new VentaOperacionNoPermitidaException("Solo se puede modificar una venta en estado borrador.");
         }
-
-        String prefijo = "VTA-" + prefijoTipo + "-";
-
-        return ventaRepositorio.findFirstByOrigenVentaOrderByIdDesc(origenVenta)
-                .map(Venta::getNumVenta)
-                .filter(codigo -> codigo != null && codigo.startsWith(prefijo))
-                .map(codigo -> {
-                    String numeroStr = codigo.substring(prefijo.length());
-                    int numero = Integer.parseInt(numeroStr);
-                    return prefijo + String.format("%06d", numero + 1);
-                })
-                .orElse(prefijo + "000001");
+        
+        switch (operacion.getTipo()) {
+            case AGREGAR_ITEM -> venta.agregarOActualizarItem(
+                    requerido(operacion.getProductoId(), "el ID del producto"),
+                    requerido(operacion.getNombreProducto(), "el nombre del producto"),
+                    requerido(operacion.getPrecioUnitario(), "el precio unitario"),
+                    cantidadValida(operacion));
+            case ACTUALIZAR_CANTIDAD -> {
+                Long productoId = requerido(operacion.getProductoId(), "el ID del producto");
+                if (!venta.actualizarCantidadItem(productoId, cantidadValida(operacion))) {
+                    throw new ItemProductoNoEncontradoException(productoId);
+                }
+            }
+            case QUITAR_ITEM -> {
+                Long productoId = requerido(operacion.getProductoId(), "el ID del producto");
+                if (venta.obtenerItem(productoId) == null) {
+                    throw new ItemProductoNoEncontradoException(productoId);
+                }
+                venta.quitarItem(productoId);
+            }
+            case ASIGNAR_CLIENTE -> venta.setClienteId(requerido(operacion.getClienteId(), "el ID del cliente"));
+            case DESASIGNAR_CLIENTE -> venta.setClienteId(null);
+            case ASIGNAR_VENDEDOR -> venta.setIdVendedor(requerido(operacion.getVendedorId(), "el ID del vendedor"));
+            case METODO_PAGO -> venta.setMetodoPago(parseMetodoPago(
+                    requerido(operacion.getMetodoPago(), "el método de pago"), venta.getId()));
+            case CONFIRMAR -> {
+                validarYConfirmar(venta);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static <T> T requerido(T valor, String campo) {
+        if (valor == null) {
+            throw new IllegalArgumentException("Debe indicar " + campo + ".");
+        }
+        return valor;
     }
     
+    private static int cantidadValida(OperacionesCarritoRequest.Operacion operacion) {
+        int cantidad = requerido(operacion.getCantidad(), "la cantidad");
+        if (cantidad < 1) {
+            throw new IllegalArgumentException("La cantidad mínima es 1.");
+        }
+        return cantidad;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public byte[] generarPdfVenta(Long ventaId) {
-        // 1. Obtener venta
-        Venta venta = ventaRepositorio.findById(ventaId)
+        Venta venta = obtenerVentaParaPdf(ventaId);
+        // Un borrador cambia con cada edición: no se guarda en la caché de PDFs
+        return asyncPdfGenerator.generatePdf(generarHtmlVenta(venta), !venta.esBorrador());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CompletableFuture<byte[]> generarPdfVentaAsync(Long ventaId) {
+        // El HTML se arma aquí (necesita la transacción); el render va al pool de PDFs
+        Venta venta = obtenerVentaParaPdf(ventaId);
+        return asyncPdfGenerator.generatePdfAsync(generarHtmlVenta(venta), !venta.esBorrador());
+    }
+
+    private Venta obtenerVentaParaPdf(Long ventaId) {
+        // Un borrador puede estar en memoria
+        return borradorVentaCache.leer(ventaId)
+                .or(() -> ventaRepositorio.findById(ventaId))
                 .orElseThrow(() -> new VentaNoEncontradaException(ventaId));
-        
-        // 2. Obtener cliente
+    }
+
+    private String generarHtmlVenta(Venta venta) {
+        // 1. Obtener cliente
         com.venta.backend.cliente.entities.Cliente cliente = null;
         if (venta.getClienteId() != null) {
-            cliente = clienteRepositorio.findById(venta.getClienteId()).orElse(null);
+            cliente = clienteCache.porId(venta.getClienteId()).map(ClienteSnapshot::aCliente).orElse(null);
         }
         
-        // 3. Obtener vendedor
+        // 2. Obtener vendedor
         com.venta.backend.vendedor.entities.Vendedor vendedor = null;
         if (venta.getIdVendedor() != null) {
             vendedor = vendedorRepositorio.findById(venta.getIdVendedor()).orElse(null);
         }
         
-        // 4. Generar HTML
-        String htmlContent = ventaPdfTemplate.generateHtml(venta, cliente, vendedor);
-        
-        // 5. Generar PDF
-        return pdfGenerator.generatePdf(htmlContent);
+        // 3. Generar HTML
+        return ventaPdfTemplate.generateHtml(venta, cliente, vendedor);
     }
 }
 
@@ -1,68 +1,47 @@
 package com.venta.backend.venta.impl;
 
-import com.venta.backend.vendedor.entities.Vendedor;
-import com.venta.backend.vendedor.enums.BranchType;
-import com.venta.backend.vendedor.infraestructura.repository.VendedorRepositorio;
 import com.venta.backend.venta.dto.response.VentaListadoResponse;
 import com.venta.backend.venta.dto.response.VentaPaginadaResponse;
 import com.venta.backend.venta.dto.response.VentasPorCanalResponse;
-import com.venta.backend.venta.entities.Venta;
-import com.venta.backend.venta.enums.VentaEstado;
-import com.venta.backend.venta.mappers.IVentaMapper;
+import com.venta.backend.venta.exceptions.CursorPaginacionInvalidoException;
+import com.venta.backend.venta.paginacion.VentaCursor;
 import com.venta.backend.venta.servicios.IVentaConsultaService;
+import com.venta.backend.venta.servicios.ResumenVentaCanalService;
 import com.venta.backend.venta.repository.VentaRepositorio;
-import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class VentaConsultaServiceImpl implements IVentaConsultaService {
 
     private final VentaRepositorio ventaRepositorio;
-    private final ClienteRepositorio clienteRepositorio;
-    @Qualifier("IVentaMapper")
-    private final IVentaMapper ventaMapper;
-    private final VendedorRepositorio vendedorRepositorio;
+    private final ResumenVentaCanalService resumenVentaCanalService;
+    private final ObjectMapper objectMapper;
+
+    private static final int EXPORT_FLUSH_CADA = 500;
 
     @Override
     @Transactional(readOnly = true)
     public List<VentaListadoResponse> listarVentas() {
-        return ventaRepositorio.findAll()
-                .stream()
-                .map(venta -> {
-                    VentaListadoResponse response = ventaMapper.toListado(venta);
-                    
-                    // Cargar nombre del cliente si existe
-                    if (venta.getClienteId() != null) {
-                        String nombreCliente = clienteRepositorio.findById(venta.getClienteId())
-                                .map(cliente -> cliente.getFirstName() + " " + cliente.getLastName())
-                                .orElse(null);
-                        
-                        return VentaListadoResponse.builder()
-                                .id(response.getId())
-                                .numVenta(response.getNumVenta())
-                                .origenVenta(response.getOrigenVenta())
-                                .estado(response.getEstado())
-                                .fechaVentaCreada(response.getFechaVentaCreada())
-                                .nombreCliente(nombreCliente)
-                                .build();
-                    }
-                    
-                    return response;
-                })
-                .toList();
+        // Nombres de cliente y vendedor resueltos en una sola consulta
+        return ventaRepositorio.findListado();
     }
 
     @Override
@@ -73,28 +52,7 @@ public class VentaConsultaServiceImpl implements IVentaConsultaService {
             : Sort.by(sortBy).descending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<VentaListadoResponse> ventasPage = ventaRepositorio.findAll(pageable)
-                .map(venta -> {
-                    VentaListadoResponse response = ventaMapper.toListado(venta);
-                    
-                    // Cargar nombre del cliente si existe
-                    if (venta.getClienteId() != null) {
-                        String nombreCliente = clienteRepositorio.findById(venta.getClienteId())
-                                .map(cliente -> cliente.getFirstName() + " " + cliente.getLastName())
-                                .orElse(null);
-                        
-                        return VentaListadoResponse.builder()
-                                .id(response.getId())
-                                .numVenta(response.getNumVenta())
-                                .origenVenta(response.getOrigenVenta())
-                                .estado(response.getEstado())
-                                .fechaVentaCreada(response.getFechaVentaCreada())
-                                .nombreCliente(nombreCliente)
-                                .build();
-                    }
-                    
-                    return response;
-                });
+        Page<VentaListadoResponse> ventasPage = ventaRepositorio.findListado(pageable);
 
         return VentaPaginadaResponse.builder()
                 .content(ventasPage.getContent())
@@ -109,52 +67,86 @@ public class VentaConsultaServiceImpl implements IVentaConsultaService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<VentasPorCanalResponse> obtenerVentasPorCanal() {
+    public VentaPaginadaResponse listarVentasPorCursor(String after, int size, String sortBy, String sortDir) {
+        if (!VentaCursor.soportaOrden(sortBy)) {
+            throw new CursorPaginacionInvalidoException("Ordenamiento no soportado en modo cursor: " + sortBy);
+        }
+        boolean asc = sortDir.equalsIgnoreCase("asc");
+        Sort.Direction direction = asc ? Sort.Direction.ASC : Sort.Direction.DESC;
+
+        // El id_venta siempre desempata para que el orden sea total
+        Sort sort = VentaCursor.SORT_ID.equals(sortBy)
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+        Pageable pageable = PageRequest.of(0, size, sort);
+
+        Slice<VentaListadoResponse> slice;
+        if (after == null || after.isBlank()) {
+            slice = ventaRepositorio.findListadoSlice(pageable);
+        } else {
+            VentaCursor cursor = VentaCursor.decode(after, sortBy);
+            if (VentaCursor.SORT_ID.equals(sortBy)) {
+                slice = asc
+                        ? ventaRepositorio.findListadoDespuesDeId(cursor.getId(), pageable)
+                        : ventaRepositorio.findListadoAntesDeId(cursor.getId(), pageable);
+            } else {
+                slice = asc
+                        ? ventaRepositorio.findListadoDespuesDeFecha(cursor.getFecha(), cursor.getId(), pageable)
+                        : ventaRepositorio.findListadoAntesDeFecha(cursor.getFecha(), cursor.getId(), pageable);
+            }
+        }
+
+        List<VentaListadoResponse> content = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            VentaListadoResponse ultima = content.get(content.size() - 1);
+            nextCursor = new VentaCursor(sortBy, ultima.getFechaVentaCreada(), ultima.getId()).encode();
+        }
 
-        // 1. Obtener todas las ventas CONFIRMADAS
-        List<Venta> ventasConfirmadas = ventaRepositorio.findByEstado(VentaEstado.CONFIRMADA);
-
-        // 2. Agrupar y clasificar en Java
-        Map<String, List<Venta>> ventasPorCanal = ventasConfirmadas.stream()
-                .filter(venta -> venta.getIdVendedor() != null) // Ignorar ventas sin vendedor asignado
-                .collect(Collectors.groupingBy(venta -> {
-
-                    // Buscar el vendedor y su sede (JOIN lógico)
-                    Vendedor vendedor = vendedorRepositorio.findById(venta.getIdVendedor())
-                            .orElse(null);
-
-                    if (vendedor != null && vendedor.getSellerBranch() != null) {
-                        BranchType type = vendedor.getSellerBranch().getBranchType();
-
-                        if (type == BranchType.CALL_CENTER) {
-                            return "LLAMADA";
-                        } else {
-                            // MÓDULO, CENTRO_DE_ATENCION, AUTHORIZED_DEALER se agrupan en FÍSICO
-                            return "FISICO";
-                        }
-                    }
-                    return "OTRO"; // Canal desconocido
-                }));
-
-        // 3. Mapear y calcular las métricas finales
-        return ventasPorCanal.entrySet().stream()
-                .map(entry -> {
-                    String canal = entry.getKey();
-                    Long cantidadVentas = (long) entry.getValue().size();
-                    BigDecimal ingresosTotales = entry.getValue().stream()
-                            .map(Venta::getTotal)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    return VentasPorCanalResponse.builder()
-                            .canal(canal)
-                            .cantidadVentas(cantidadVentas)
-                            .ingresosTotales(ingresosTotales)
-                            .build();
-                })
-                .collect(Collectors.toList());
+        return VentaPaginadaResponse.builder()
+                .content(content)
+                .pageNumber(0)
+                .pageSize(size)
+                .totalElements(-1)
+                .totalPages(-1)
+                .first(after == null || after.isBlank())
+                .last(!slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
     }
-}
-
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarVentasNdjson(OutputStream out) throws IOException {
+        // Una venta por línea; la memoria no depende del tamaño de la tabla
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<VentaListadoResponse> ventas = ventaRepositorio.streamListado();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            int escritas = 0;
+            for (VentaListadoResponse venta : (Iterable<VentaListadoResponse>) ventas::iterator) {
+                writer.writeValue(generator, venta);
+                if (++escritas % EXPORT_FLUSH_CADA == 0) {
+                    generator.flush();
+                }
+            }
+            if (escritas > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<VentasPorCanalResponse> obtenerVentasPorCanal() {
+        // Lectura del acumulado mantenido al confirmar/cancelar/descontar ventas
+        return resumenVentaCanalService.obtenerVentasPorCanal();
+    }
 
+    @Override
+    public List<VentasPorCanalResponse> recalcularVentasPorCanal() {
+        return resumenVentaCanalService.recalcular();
+    }
+}
@@ -31,6 +31,7 @@ public interface IVentaMapper {
     LineaCarritoResponse toLinea(DetalleVenta detalle);
 
     @Mapping(target = "nombreCliente", ignore = true)
+    @Mapping(target = "nombreVendedor", ignore = true)
     VentaListadoResponse toListado(Venta venta);
 }
 
@@ -0,0 +1,54 @@
+package com.venta.backend.venta.paginacion;
+
+import com.venta.backend.venta.exceptions.CursorPaginacionInvalidoException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para la paginación por keyset del listado de ventas.
+ * Codifica la clave de ordenamiento de la última fila entregada más su id_venta
+ * (desempate), de modo que la siguiente página se busque con un predicado de rango
+ * en lugar de un OFFSET.
+ */
+@Value
+public class VentaCursor {
+
+    public static final String SORT_ID = "id";
+    public static final String SORT_FECHA = "fechaVentaCreada";
+
+    String sortBy;
+    LocalDate fecha;
+    Long id;
+
+    public static boolean soportaOrden(String sortBy) {
+        return SORT_ID.equals(sortBy) || SORT_FECHA.equals(sortBy);
+    }
+
+    public String encode() {
+        String raw = SORT_FECHA.equals(sortBy)
+                ? sortBy + "|" + fecha + "|" + id
+                : sortBy + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static VentaCursor decode(String token, String sortBy) {
+        VentaCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] partes = raw.split("\\|");
+            cursor = SORT_FECHA.equals(partes[0])
+                    ? new VentaCursor(partes[0], LocalDate.parse(partes[1]), Long.parseLong(partes[2]))
+                    : new VentaCursor(partes[0], null, Long.parseLong(partes[1]));
+        } catch (RuntimeException e) {
+            throw new CursorPaginacionInvalidoException("Cursor de paginación inválido: " + token);
+        }
+        if (!cursor.getSortBy().equals(sortBy)) {
+            throw new CursorPaginacionInvalidoException("El cursor no corresponde al ordenamiento solicitado: " + sortBy);
+        }
+        return cursor;
+    }
+}
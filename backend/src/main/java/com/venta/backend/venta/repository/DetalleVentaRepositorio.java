@@ -2,6 +2,9 @@ package com.venta.backend.venta.repository;
 
 import com.venta.backend.venta.entities.DetalleVenta;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +13,8 @@ import java.util.List;
 public interface DetalleVentaRepositorio extends JpaRepository<DetalleVenta, Long> {
     
     List<DetalleVenta> findByVentaId(Long ventaId);
+
+    @Modifying
+    @Query("UPDATE DetalleVenta d SET d.version = :version WHERE d.id = :id")
+    int fijarVersion(@Param("id") Long id, @Param("version") Long version);
 }
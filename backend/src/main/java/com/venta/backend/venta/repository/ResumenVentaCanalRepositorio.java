@@ -0,0 +1,41 @@
+package com.venta.backend.venta.repository;
+
+import com.venta.backend.vendedor.enums.BranchType;
+import com.venta.backend.venta.entities.ResumenVentaCanal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface ResumenVentaCanalRepositorio extends JpaRepository<ResumenVentaCanal, String> {
+
+    /**
+     * Suma los deltas al acumulado del canal con un UPDATE atómico (sin leer la fila).
+     * @return filas afectadas (0 si el canal no está inicializado)
+     */
+    @Modifying
+    @Query("UPDATE ResumenVentaCanal r SET r.cantidadVentas = r.cantidadVentas + :cantidad, " +
+           "r.ingresosTotales = r.ingresosTotales + :ingresos WHERE r.canal = :canal")
+    int sumar(@Param("canal") String canal, @Param("cantidad") long cantidad, @Param("ingresos") BigDecimal ingresos);
+
+    /**
+     * Tipo de sede del vendedor, para clasificar la venta en un canal.
+     */
+    @Query("SELECT s.branchType FROM Vendedor v JOIN v.sellerBranch s WHERE v.sellerId = :vendedorId")
+    Optional<BranchType> findTipoSedeDeVendedor(@Param("vendedorId") Long vendedorId);
+
+    /**
+     * Agregación completa de ventas CONFIRMADAS por tipo de sede, en una sola consulta.
+     * Cada fila: [BranchType (null si el vendedor no existe o no tiene sede), Long cantidad, BigDecimal ingresos].
+     */
+    @Query("SELECT s.branchType, COUNT(v), COALESCE(SUM(v.total), 0) FROM Venta v " +
+           "LEFT JOIN Vendedor vd ON vd.sellerId = v.idVendedor " +
+           "LEFT JOIN vd.sellerBranch s " +
+           "WHERE v.estado = com.venta.backend.venta.enums.VentaEstado.CONFIRMADA AND v.idVendedor IS NOT NULL " +
+           "GROUP BY s.branchType")
+    List<Object[]> agregarVentasConfirmadasPorTipoSede();
+}
@@ -0,0 +1,27 @@
+package com.venta.backend.venta.repository;
+
+import com.venta.backend.venta.entities.SecuenciaVenta;
+import com.venta.backend.venta.enums.OrigenVenta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface SecuenciaVentaRepositorio extends JpaRepository<SecuenciaVenta, OrigenVenta> {
+
+    /**
+     * Reserva un bloque de números avanzando el contador de forma atómica.
+     * @return filas afectadas (0 si el contador del origen aún no existe)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SecuenciaVenta s SET s.siguienteValor = s.siguienteValor + :tamanio WHERE s.origenVenta = :origen")
+    int reservarBloque(@Param("origen") OrigenVenta origen, @Param("tamanio") long tamanio);
+
+    /**
+     * INSERT explícito (no merge) para que dos instancias que inicializan a la vez
+     * choquen con la clave primaria en lugar de sobrescribir el contador.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO secuencia_venta (origen_venta, siguiente_valor) VALUES (:origen, :valor)", nativeQuery = true)
+    void crearContador(@Param("origen") String origen, @Param("valor") long valor);
+}
@@ -1,21 +1,102 @@
 package com.venta.backend.venta.repository;
 
+import com.venta.backend.venta.dto.response.VentaListadoResponse;
 import com.venta.backend.venta.entities.Venta;
 import com.venta.backend.venta.enums.OrigenVenta;
 import com.venta.backend.venta.enums.VentaEstado;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface VentaRepositorio extends JpaRepository<Venta, Long> {
 
+    /**
+     * Proyección del listado de ventas con el nombre del cliente y del vendedor
+     * resueltos en la misma consulta (LEFT JOIN), en lugar de un findById por fila.
+     */
+    String LISTADO_QUERY = "SELECT new com.venta.backend.venta.dto.response.VentaListadoResponse(" +
+            "v.id, v.numVenta, v.origenVenta, v.estado, v.fechaVentaCreada, " +
+            "CONCAT(c.firstName, ' ', c.lastName), CONCAT(s.firstName, ' ', s.lastName)) " +
+            "FROM Venta v " +
+            "LEFT JOIN Cliente c ON c.clienteId = v.clienteId " +
+            "LEFT JOIN Vendedor s ON s.sellerId = v.idVendedor";
+
+    @Query(LISTADO_QUERY)
+    List<VentaListadoResponse> findListado();
+
+    @Query(value = LISTADO_QUERY, countQuery = "SELECT COUNT(v) FROM Venta v")
+    Page<VentaListadoResponse> findListado(Pageable pageable);
+
+    /**
+     * Recorre el listado completo con un cursor JDBC (fetch size fijo) para exportarlo
+     * sin materializar todas las filas. Debe consumirse dentro de una transacción y cerrarse.
+     * En MySQL el fetch size solo se respeta con useCursorFetch=true en la URL.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(LISTADO_QUERY + " ORDER BY v.id")
+    Stream<VentaListadoResponse> streamListado();
+
+    /*
+     * Paginación por keyset: devuelven un Slice (size + 1 filas, sin COUNT) y buscan
+     * a partir del cursor con un predicado de rango sobre (fecha_venta_creada, id_venta).
+     */
+    @Query(LISTADO_QUERY)
+    Slice<VentaListadoResponse> findListadoSlice(Pageable pageable);
+
+    @Query(LISTADO_QUERY + " WHERE v.id < :id")
+    Slice<VentaListadoResponse> findListadoAntesDeId(@Param("id") Long id, Pageable pageable);
+
+    @Query(LISTADO_QUERY + " WHERE v.id > :id")
+    Slice<VentaListadoResponse> findListadoDespuesDeId(@Param("id") Long id, Pageable pageable);
+
+    @Query(LISTADO_QUERY + " WHERE v.fechaVentaCreada < :fecha OR (v.fechaVentaCreada = :fecha AND v.id < :id)")
+    Slice<VentaListadoResponse> findListadoAntesDeFecha(@Param("fecha") LocalDate fecha, @Param("id") Long id, Pageable pageable);
+
+    @Query(LISTADO_QUERY + " WHERE v.fechaVentaCreada > :fecha OR (v.fechaVentaCreada = :fecha AND v.id > :id)")
+    Slice<VentaListadoResponse> findListadoDespuesDeFecha(@Param("fecha") LocalDate fecha, @Param("id") Long id, Pageable pageable);
+
     Optional<Venta> findFirstByOrigenVentaOrderByIdDesc(OrigenVenta origenVenta);
     
     @Query("SELECT v FROM Venta v WHERE v.origenVenta = :origen AND v.estado = :estado ORDER BY v.fechaVentaCreada DESC")
     List<Venta> findByOrigenVentaAndEstado(OrigenVenta origen, VentaEstado estado);
 
     List<Venta> findByEstado(VentaEstado estado);
-}
 
+    @Query("SELECT v.id FROM Venta v WHERE v.estado = :estado AND v.fechaVentaCreada BETWEEN :desde AND :hasta ORDER BY v.id")
+    List<Long> findIdsByEstadoAndFecha(@Param("estado") VentaEstado estado,
+                                       @Param("desde") LocalDate desde,
+                                       @Param("hasta") LocalDate hasta);
+
+    /**
+     * Carga un lote de ventas con sus detalles en una sola consulta (para los comprobantes en ZIP).
+     */
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query("SELECT DISTINCT v FROM Venta v LEFT JOIN FETCH v.detalles WHERE v.id IN :ids")
+    List<Venta> findConDetallesByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * Fija la versión de una venta ya escrita, para que coincida con la que el carrito
+     * en memoria expuso como ETag (ver BorradorVentaCache).
+     */
+    @Modifying
+    @Query("UPDATE Venta v SET v.version = :version WHERE v.id = :id")
+    int fijarVersion(@Param("id") Long id, @Param("version") Long version);
+}
@@ -0,0 +1,525 @@
+package com.venta.backend.venta.servicios;
+
+import com.venta.backend.venta.entities.DetalleVenta;
+import com.venta.backend.venta.entities.Venta;
+import com.venta.backend.venta.exceptions.VentaConflictoException;
+import com.venta.backend.venta.exceptions.VentaNoEncontradaException;
+import com.venta.backend.venta.repository.DetalleVentaRepositorio;
+import com.venta.backend.venta.repository.VentaRepositorio;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Carritos en memoria para las ventas en BORRADOR (opcional, venta.borradores.habilitado).
+ *
+ * Las ediciones del carrito se aplican sobre una copia de la venta guardada en memoria y
+ * se escriben en la base de datos en segundo plano (write-behind): todos los cambios de
+ * una venta desde la última escritura se agrupan en una sola transacción. Se fuerza la
+ * escritura al confirmar o cancelar la venta (sincronizar), al desalojarla por tamaño o
+ * inactividad, y al detener la aplicación.
+ *
+ * Las versiones (@Version) se incrementan en memoria con cada cambio, de modo que el ETag
+ * y la fusión por línea del carrito funcionan igual que sin caché; al escribir, la base
+ * de datos queda con esas mismas versiones. La memoria es la fuente de verdad mientras la
+ * venta está cargada, por lo que solo debe habilitarse con una única instancia del backend.
+ *
+ * Si una escritura en segundo plano encuentra la venta modificada fuera de la caché, los
+ * cambios no se descartan: la entrada queda en conflicto y el siguiente leer, modificar o
+ * sincronizar de esa venta falla con VentaConflictoException (409) para que el cliente
+ * recargue. Mientras dura la transacción que llamó a sincronizar la venta no se vuelve a
+ * cargar en memoria; las ediciones concurrentes van directo a la base de datos.
+ */
+@Component
+@lombok.extern.slf4j.Slf4j
+public class BorradorVentaCache {
+
+    private final VentaRepositorio ventaRepositorio;
+    private final DetalleVentaRepositorio detalleVentaRepositorio;
+    private final TransactionTemplate transaccionLectura;
+    private final TransactionTemplate transaccionNueva;
+    private final boolean habilitado;
+    private final int maxEntradas;
+    private final long intervaloEscrituraMs;
+    private final long inactividadMaxMs;
+
+    // Orden de acceso (LRU). Guardado por su propio monitor; nunca se toma el lock de una
+    // entrada mientras se tiene el del mapa.
+    private final LinkedHashMap<Long, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    // Ventas sincronizadas cuya transacción aún no terminó (no se recargan), y cuántas
+    // transacciones terminaron, para no publicar una carga hecha antes de un commit.
+    // Guardados por el monitor de entradas.
+    private final Map<Long, Integer> enSincronizacion = new HashMap<>();
+    private long liberaciones;
+    private ScheduledExecutorService escritor;
+
+    public BorradorVentaCache(
+            VentaRepositorio ventaRepositorio,
+            DetalleVentaRepositorio detalleVentaRepositorio,
+            PlatformTransactionManager transactionManager,
+            @Value("${venta.borradores.habilitado:false}") boolean habilitado,
+            @Value("${venta.borradores.max-entradas:500}") int maxEntradas,
+            @Value("${venta.borradores.intervalo-escritura-ms:2000}") long intervaloEscrituraMs,
+            @Value("${venta.borradores.inactividad-max-ms:600000}") long inactividadMaxMs
+    ) {
+        this.ventaRepositorio = ventaRepositorio;
+        this.detalleVentaRepositorio = detalleVentaRepositorio;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.habilitado = habilitado;
+        this.maxEntradas = maxEntradas;
+        this.intervaloEscrituraMs = intervaloEscrituraMs;
+        this.inactividadMaxMs = inactividadMaxMs;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        escritor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "borradores-venta-escritor");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        escritor.scheduleWithFixedDelay(this::escribirPendientes, intervaloEscrituraMs, intervaloEscrituraMs, TimeUnit.MILLISECONDS);
+        log.info("Carritos en memoria habilitados (máx. {} ventas, escritura cada {} ms) [BorradorVentaCache]", maxEntradas, intervaloEscrituraMs);
+    }
+
+    @PreDestroy
+    void detener() {
+        if (escritor == null) {
+            return;
+        }
+        escritor.shutdown();
+        try {
+            escritor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Entrada entrada : instantanea()) {
+            desalojar(entrada);
+            synchronized (entrada) {
+                if (!entrada.descartada && entrada.conflicto != null) {
+                    log.warn("Se detiene con cambios en conflicto sin informar [Venta ID: {}] [BorradorVentaCache]", entrada.ventaId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Venta en borrador desde memoria (cargándola si hace falta).
+     * La venta devuelta es compartida: solo debe leerse (su índice de líneas ya está construido).
+     * @throws VentaConflictoException si la última escritura en segundo plano encontró la
+     *         venta modificada; la entrada se quita y la siguiente lectura recarga
+     * @return vacío si la caché está deshabilitada o la venta no existe o no es borrador;
+     *         el llamador debe entonces leer de la base de datos
+     */
+    public Optional<Venta> leer(Long ventaId) {
+        if (!habilitado) {
+            return Optional.empty();
+        }
+        while (true) {
+            Entrada entrada = obtenerOCargar(ventaId);
+            if (entrada == null) {
+                return Optional.empty();
+            }
+            synchronized (entrada) {
+                if (!entrada.descartada) {
+                    verificarConflicto(entrada);
+                    entrada.ultimoAcceso = System.currentTimeMillis();
+                    return Optional.of(entrada.venta);
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica un cambio a la venta en memoria. El cambio trabaja sobre una copia que solo se
+     * publica si termina sin excepción, así un cambio rechazado no deja la venta a medias.
+     * @throws VentaConflictoException igual que {@link #leer(Long)}
+     * @return el resultado calculado sobre la venta ya modificada, o vacío si la venta no
+     *         está en memoria (el llamador debe aplicar el cambio en la base de datos)
+     */
+    public <T> Optional<T> modificar(Long ventaId, Consumer<Venta> cambio, Function<Venta, T> resultado) {
+        if (!habilitado) {
+            return Optional.empty();
+        }
+        while (true) {
+            Entrada entrada = obtenerOCargar(ventaId);
+            if (entrada == null) {
+                return Optional.empty();
+            }
+            synchronized (entrada) {
+                if (entrada.descartada) {
+                    continue;
+                }
+                verificarConflicto(entrada);
+                Venta modificada = copiar(entrada.venta);
+                cambio.accept(modificada);
+                if (incrementarVersiones(entrada.venta, modificada)) {
+                    entrada.venta = modificada;
+                    entrada.sucia = true;
+                }
+                entrada.ultimoAcceso = System.currentTimeMillis();
+                return Optional.ofNullable(resultado.apply(entrada.venta));
+            }
+        }
+    }
+
+    /**
+     * Escribe los cambios pendientes de la venta y la quita de memoria, para que la
+     * operación que sigue (confirmar, cancelar, aplicar descuento) lea de la base de datos.
+     * Hasta que termine la transacción del llamador la venta no se vuelve a cargar en memoria.
+     * @throws VentaConflictoException si los cambios en memoria no pueden escribirse porque
+     *         la venta fue modificada por otro camino
+     */
+    public void sincronizar(Long ventaId) {
+        if (!habilitado) {
+            return;
+        }
+        bloquearRecarga(ventaId);
+        Entrada entrada;
+        synchronized (entradas) {
+            entrada = entradas.get(ventaId);
+        }
+        if (entrada != null) {
+            synchronized (entrada) {
+                if (entrada.descartada) {
+                    return;
+                }
+                verificarConflicto(entrada);
+                if (entrada.sucia) {
+                    try {
+                        escribir(entrada);
+                    } catch (VentaConflictoException e) {
+                        quitar(entrada);
+                        throw e;
+                    }
+                }
+                quitar(entrada);
+            }
+        }
+    }
+
+    /**
+     * Impide cargar la venta en memoria hasta que termine la transacción actual, para que
+     * nadie edite en memoria una venta que esa transacción está confirmando o cancelando.
+     */
+    private void bloquearRecarga(Long ventaId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        synchronized (entradas) {
+            enSincronizacion.merge(ventaId, 1, Integer::sum);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (entradas) {
+                    enSincronizacion.computeIfPresent(ventaId, (id, pendientes) -> pendientes > 1 ? pendientes - 1 : null);
+                    liberaciones++;
+                }
+            }
+        });
+    }
+
+    /**
+     * Informa una sola vez el conflicto de una escritura en segundo plano: quita la entrada
+     * (la siguiente operación lee de la base de datos) y lanza el 409. Requiere el lock de la entrada.
+     */
+    private void verificarConflicto(Entrada entrada) {
+        if (entrada.conflicto == null) {
+            return;
+        }
+        String mensaje = entrada.conflicto;
+        quitar(entrada);
+        throw new VentaConflictoException(mensaje + " Recargue la venta e intente nuevamente.");
+    }
+
+    private Entrada obtenerOCargar(Long ventaId) {
+        Entrada entrada;
+        long liberacionesAlCargar;
+        synchronized (entradas) {
+            entrada = entradas.get(ventaId);
+            if (entrada != null) {
+                return entrada;
+            }
+            if (enSincronizacion.containsKey(ventaId)) {
+                return null;
+            }
+            liberacionesAlCargar = liberaciones;
+        }
+
+        Venta cargada = transaccionLectura.execute(status -> ventaRepositorio.findById(ventaId)
+                .filter(Venta::esBorrador)
+                .map(BorradorVentaCache::copiar)
+                .orElse(null));
+        if (cargada == null) {
+            return null;
+        }
+
+        List<Entrada> desalojadas = new ArrayList<>();
+        synchronized (entradas) {
+            entrada = entradas.get(ventaId);
+            if (entrada == null) {
+                // Si entretanto terminó una transacción sincronizada, lo leído puede ser anterior a su commit
+                if (enSincronizacion.containsKey(ventaId) || liberaciones != liberacionesAlCargar) {
+                    return null;
+                }
+                entrada = new Entrada(ventaId, cargada);
+                entradas.put(ventaId, entrada);
+            }
+            int excedente = entradas.size() - maxEntradas;
+            for (Entrada candidata : entradas.values()) {
+                if (excedente <= 0 || candidata == entrada) {
+                    break;
+                }
+                if (!candidata.desalojando) {
+                    candidata.desalojando = true;
+                    desalojadas.add(candidata);
+                    excedente--;
+                }
+            }
+        }
+        desalojadas.forEach(this::desalojar);
+        return entrada;
+    }
+
+    private void escribirPendientes() {
+        long limiteInactividad = System.currentTimeMillis() - inactividadMaxMs;
+        for (Entrada entrada : instantanea()) {
+            synchronized (entrada) {
+                if (entrada.descartada || entrada.conflicto != null) {
+                    continue;
+                }
+                if (entrada.ultimoAcceso < limiteInactividad) {
+                    desalojar(entrada);
+                } else if (entrada.sucia) {
+                    try {
+                        escribir(entrada);
+                    } catch (VentaConflictoException e) {
+                        marcarConflicto(entrada, e);
+                    } catch (RuntimeException e) {
+                        // Se reintenta en la próxima pasada
+                        log.error("No se pudo escribir el carrito en memoria: {} [Venta ID: {}]", e.getMessage(), entrada.ventaId);
+                    }
+                }
+            }
+        }
+    }
+
+    private void desalojar(Entrada entrada) {
+        synchronized (entrada) {
+            if (entrada.descartada) {
+                return;
+            }
+            if (entrada.conflicto != null) {
+                // Se conserva hasta informar el conflicto al cliente
+                synchronized (entradas) {
+                    entrada.desalojando = false;
+                }
+                return;
+            }
+            try {
+                if (entrada.sucia) {
+                    escribir(entrada);
+                }
+                quitar(entrada);
+            } catch (VentaConflictoException e) {
+                marcarConflicto(entrada, e);
+                synchronized (entradas) {
+                    entrada.desalojando = false;
+                }
+            } catch (RuntimeException e) {
+                // Se conserva en memoria (sucia) para no perder los cambios; se reintenta luego
+                synchronized (entradas) {
+                    entrada.desalojando = false;
+                }
+                log.error("No se pudo escribir el carrito al desalojarlo: {} [Venta ID: {}]", e.getMessage(), entrada.ventaId);
+            }
+        }
+    }
+
+    /**
+     * Escribe la venta en memoria sobre la de la base de datos. Debe llamarse con el lock
+     * de la entrada tomado.
+     */
+    private void escribir(Entrada entrada) {
+        Venta borrador = entrada.venta;
+        Map<Long, Long> idsPorProducto = transaccionNueva.execute(status -> {
+            Venta venta = ventaRepositorio.findById(entrada.ventaId)
+                    .orElseThrow(() -> new VentaNoEncontradaException(entrada.ventaId));
+            if (!Objects.equals(venta.getVersion(), entrada.versionBase)) {
+                throw new VentaConflictoException("La venta fue modificada fuera del carrito en memoria.");
+            }
+
+            venta.setIdVendedor(borrador.getIdVendedor());
+            venta.setClienteId(borrador.getClienteId());
+            venta.setMetodoPago(borrador.getMetodoPago());
+
+            List<Long> productosQuitados = venta.getDetalles().stream()
+                    .map(DetalleVenta::getIdProducto)
+                    .filter(idProducto -> borrador.obtenerItem(idProducto) == null)
+                    .toList();
+            productosQuitados.forEach(venta::quitarItem);
+            for (DetalleVenta linea : borrador.getDetalles()) {
+                if (!venta.actualizarCantidadItem(linea.getIdProducto(), linea.getCantidad())) {
+                    venta.agregarOActualizarItem(linea.getIdProducto(), linea.getNombreProducto(),
+                            linea.getPrecioUnitario(), linea.getCantidad());
+                }
+            }
+
+            Venta guardada = ventaRepositorio.saveAndFlush(venta);
+
+            // Dejar en la base de datos las mismas versiones que se expusieron como ETag
+            Map<Long, Long> ids = new HashMap<>();
+            if (!Objects.equals(guardada.getVersion(), borrador.getVersion())) {
+                ventaRepositorio.fijarVersion(entrada.ventaId, borrador.getVersion());
+            }
+            for (DetalleVenta linea : guardada.getDetalles()) {
+                Long versionEnMemoria = borrador.obtenerItem(linea.getIdProducto()).getVersion();
+                if (!Objects.equals(linea.getVersion(), versionEnMemoria)) {
+                    detalleVentaRepositorio.fijarVersion(linea.getId(), versionEnMemoria);
+                }
+                ids.put(linea.getIdProducto(), linea.getId());
+            }
+            return ids;
+        });
+
+        Venta escrita = copiar(borrador);
+        escrita.getDetalles().forEach(linea -> linea.setId(idsPorProducto.get(linea.getIdProducto())));
+        entrada.venta = escrita;
+        entrada.versionBase = escrita.getVersion();
+        entrada.sucia = false;
+        log.debug("Carrito en memoria escrito en la base de datos (versión {}) [Venta ID: {}]", escrita.getVersion(), entrada.ventaId);
+    }
+
+    private void marcarConflicto(Entrada entrada, VentaConflictoException e) {
+        entrada.conflicto = e.getMessage();
+        log.warn("{} Los cambios en memoria se conservan hasta informar el conflicto [Venta ID: {}]", e.getMessage(), entrada.ventaId);
+    }
+
+    private void quitar(Entrada entrada) {
+        entrada.descartada = true;
+        synchronized (entradas) {
+            entradas.remove(entrada.ventaId, entrada);
+        }
+    }
+
+    private List<Entrada> instantanea() {
+        synchronized (entradas) {
+            return new ArrayList<>(entradas.values());
+        }
+    }
+
+    /**
+     * Avanza las versiones como lo haría Hibernate al guardar: la de la venta si algo
+     * cambió, y la de cada línea nueva (0) o modificada.
+     * @return false si el cambio no modificó nada
+     */
+    private static boolean incrementarVersiones(Venta anterior, Venta modificada) {
+        boolean cambio = !Objects.equals(anterior.getIdVendedor(), modificada.getIdVendedor())
+                || !Objects.equals(anterior.getClienteId(), modificada.getClienteId())
+                || anterior.getMetodoPago() != modificada.getMetodoPago()
+                || anterior.getDetalles().size() != modificada.getDetalles().size();
+
+        for (DetalleVenta linea : modificada.getDetalles()) {
+            DetalleVenta previa = anterior.obtenerItem(linea.getIdProducto());
+            if (previa == null) {
+                linea.setVersion(0L);
+                cambio = true;
+            } else if (!previa.getCantidad().equals(linea.getCantidad())) {
+                linea.setVersion(previa.getVersion() + 1);
+                cambio = true;
+            }
+        }
+
+        if (cambio) {
+            modificada.setVersion(anterior.getVersion() + 1);
+        }
+        return cambio;
+    }
+
+    /**
+     * Copia desconectada de Hibernate (sin colecciones persistentes ni proxies).
+     */
+    private static Venta copiar(Venta origen) {
+        Venta copia = Venta.builder()
+                .id(origen.getId())
+                .version(origen.getVersion())
+                .numVenta(origen.getNumVenta())
+                .origenVenta(origen.getOrigenVenta())
+                .estado(origen.getEstado())
+                .fechaVentaCreada(origen.getFechaVentaCreada())
+                .fechaVentaCompletada(origen.getFechaVentaCompletada())
+                .clienteId(origen.getClienteId())
+                .idCotizacion(origen.getIdCotizacion())
+                .idVendedor(origen.getIdVendedor())
+                .estadoPago(origen.getEstadoPago())
+                .metodoPago(origen.getMetodoPago())
+                .subtotal(origen.getSubtotal())
+                .descuentoTotal(origen.getDescuentoTotal())
+                .total(origen.getTotal())
+                .build();
+        for (DetalleVenta detalle : origen.getDetalles()) {
+            copia.getDetalles().add(DetalleVenta.builder()
+                    .id(detalle.getId())
+                    .version(detalle.getVersion())
+                    .venta(copia)
+                    .idProducto(detalle.getIdProducto())
+                    .nombreProducto(detalle.getNombreProducto())
+                    .cantidad(detalle.getCantidad())
+                    .precioUnitario(detalle.getPrecioUnitario())
+                    .descuentoMonto(detalle.getDescuentoMonto())
+                    .subtotal(detalle.getSubtotal())
+                    .build());
+        }
+        // Las copias se publican en la caché y leer() las comparte entre hilos: el índice
+        // de líneas (perezoso y sin sincronizar) debe quedar construido antes
+        copia.indexarLineas();
+        return copia;
+    }
+
+    private static final class Entrada {
+        private final Long ventaId;
+        // Los siguientes campos se leen y escriben con el lock de la entrada
+        private Venta venta;
+        private Long versionBase;
+        private boolean sucia;
+        private boolean descartada;
+        // Mensaje del conflicto de la última escritura en segundo plano, pendiente de informar
+        private String conflicto;
+        private long ultimoAcceso;
+        // Guardado por el lock del mapa
+        private boolean desalojando;
+
+        private Entrada(Long ventaId, Venta venta) {
+            this.ventaId = ventaId;
+            this.venta = venta;
+            this.versionBase = venta.getVersion();
+            this.ultimoAcceso = System.currentTimeMillis();
+        }
+    }
+}
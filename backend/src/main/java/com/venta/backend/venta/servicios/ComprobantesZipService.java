@@ -0,0 +1,254 @@
+package com.venta.backend.venta.servicios;
+
+import com.venta.backend.cliente.entities.Cliente;
+import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
+import com.venta.backend.cotizacion.infraestructura.pdf.FlyingSaucerPdfAdapter;
+import com.venta.backend.vendedor.entities.Vendedor;
+import com.venta.backend.vendedor.infraestructura.repository.VendedorRepositorio;
+import com.venta.backend.venta.dto.request.DescargaComprobantesRequest;
+import com.venta.backend.venta.entities.Venta;
+import com.venta.backend.venta.enums.VentaEstado;
+import com.venta.backend.venta.exceptions.DescargaComprobantesException;
+import com.venta.backend.venta.pdf.VentaPdfTemplate;
+import com.venta.backend.venta.repository.VentaRepositorio;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Genera un ZIP con los comprobantes PDF de muchas ventas, escrito directamente sobre
+ * la respuesta.
+ *
+ * Las ventas se cargan por lotes en transacciones cortas de solo lectura y cada PDF se
+ * renderiza en un pool propio de tamaño fijo (venta.comprobantes.hilos), separado del de
+ * las descargas individuales para que un cierre de mes no lo sature. Por descarga hay a lo
+ * sumo dos PDFs en vuelo por hilo y cada uno se escribe en el ZIP apenas termina, así que
+ * la memoria no depende de la cantidad de ventas y la descarga empieza de inmediato.
+ * Las ventas que no existen o cuyo PDF falla se listan en errores.txt dentro del ZIP.
+ * Los PDFs se generan con FlyingSaucerPdfAdapter directamente, sin pasar por la caché
+ * de PDFs: miles de comprobantes de una sola descarga desalojarían las entradas de las
+ * descargas individuales.
+ */
+@Slf4j
+@Service
+public class ComprobantesZipService {
+
+    private final VentaRepositorio ventaRepositorio;
+    private final ClienteRepositorio clienteRepositorio;
+    private final VendedorRepositorio vendedorRepositorio;
+    private final VentaPdfTemplate ventaPdfTemplate;
+    private final FlyingSaucerPdfAdapter pdfGenerator;
+    private final TransactionTemplate transaccionLectura;
+    private final ExecutorService executor;
+    private final int maxEnVuelo;
+    private final int tamanoLote;
+    private final int maxVentas;
+
+    public ComprobantesZipService(
+            VentaRepositorio ventaRepositorio,
+            ClienteRepositorio clienteRepositorio,
+            VendedorRepositorio vendedorRepositorio,
+            VentaPdfTemplate ventaPdfTemplate,
+            FlyingSaucerPdfAdapter pdfGenerator,
+            PlatformTransactionManager transactionManager,
+            @Value("${venta.comprobantes.hilos:2}") int hilos,
+            @Value("${venta.comprobantes.lote:50}") int tamanoLote,
+            @Value("${venta.comprobantes.max-ventas:10000}") int maxVentas
+    ) {
+        this.ventaRepositorio = ventaRepositorio;
+        this.clienteRepositorio = clienteRepositorio;
+        this.vendedorRepositorio = vendedorRepositorio;
+        this.ventaPdfTemplate = ventaPdfTemplate;
+        this.pdfGenerator = pdfGenerator;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.maxEnVuelo = hilos * 2;
+        this.tamanoLote = tamanoLote;
+        this.maxVentas = maxVentas;
+
+        AtomicInteger numeroHilo = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(hilos, runnable -> {
+            Thread thread = new Thread(runnable, "comprobantes-zip-" + numeroHilo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Resuelve y valida las ventas a incluir antes de empezar a escribir la respuesta,
+     * para que los errores lleguen como 400 y no como un ZIP cortado.
+     */
+    public List<Long> resolverVentas(DescargaComprobantesRequest request) {
+        List<Long> ventaIds;
+        if (request.getVentaIds() != null && !request.getVentaIds().isEmpty()) {
+            ventaIds = request.getVentaIds().stream().filter(Objects::nonNull).distinct().toList();
+        } else {
+            ventaIds = ventaRepositorio.findIdsByEstadoAndFecha(
+                    VentaEstado.CONFIRMADA, request.getDesde(), request.getHasta());
+        }
+
+        if (ventaIds.isEmpty()) {
+            throw new DescargaComprobantesException("No hay ventas para la selección indicada.");
+        }
+        if (ventaIds.size() > maxVentas) {
+            throw new DescargaComprobantesException("La selección incluye " + ventaIds.size()
+                    + " ventas; el máximo por descarga es " + maxVentas + ". Divida el rango.");
+        }
+        return ventaIds;
+    }
+
+    public void escribirZip(List<Long> ventaIds, OutputStream out) throws IOException {
+        CompletionService<Comprobante> renders = new ExecutorCompletionService<>(executor);
+        Set<Future<Comprobante>> enVuelo = new HashSet<>();
+        List<String> errores = new ArrayList<>();
+        int escritos = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // Los PDF ya vienen comprimidos; no vale la pena gastar CPU en deflate
+        zip.setLevel(Deflater.BEST_SPEED);
+        try {
+            for (int inicio = 0; inicio < ventaIds.size(); inicio += tamanoLote) {
+                List<Long> lote = ventaIds.subList(inicio, Math.min(inicio + tamanoLote, ventaIds.size()));
+                Map<Long, String> htmls = transaccionLectura.execute(status -> armarHtmls(lote));
+
+                for (Long ventaId : lote) {
+                    String html = htmls.get(ventaId);
+                    if (html == null) {
+                        errores.add(ventaId + ": venta no encontrada");
+                        continue;
+                    }
+                    while (enVuelo.size() >= maxEnVuelo) {
+                        escritos += escribir(zip, siguiente(renders, enVuelo), errores);
+                    }
+                    enVuelo.add(renders.submit(() -> renderizar(ventaId, html)));
+                }
+            }
+            while (!enVuelo.isEmpty()) {
+                escritos += escribir(zip, siguiente(renders, enVuelo), errores);
+            }
+
+            if (!errores.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("errores.txt"));
+                zip.write(String.join("\n", errores).concat("\n").getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            log.info("ZIP de comprobantes generado: {} PDFs, {} errores [ComprobantesZipService]", escritos, errores.size());
+        } finally {
+            // Si el cliente cortó la descarga, no seguir renderizando para nadie
+            enVuelo.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Arma el HTML de cada venta del lote con tres consultas (ventas con detalles,
+     * clientes y vendedores), en lugar de tres findById por venta.
+     */
+    private Map<Long, String> armarHtmls(List<Long> lote) {
+        List<Venta> ventas = ventaRepositorio.findConDetallesByIdIn(lote);
+
+        Map<Long, Cliente> clientes = porId(clienteRepositorio.findAllById(
+                ventas.stream().map(Venta::getClienteId).filter(Objects::nonNull).collect(Collectors.toSet())),
+                Cliente::getClienteId);
+        Map<Long, Vendedor> vendedores = porId(vendedorRepositorio.findAllById(
+                ventas.stream().map(Venta::getIdVendedor).filter(Objects::nonNull).collect(Collectors.toSet())),
+                Vendedor::getSellerId);
+
+        Map<Long, String> htmls = new HashMap<>();
+        for (Venta venta : ventas) {
+            htmls.put(venta.getId(), ventaPdfTemplate.generateHtml(venta,
+                    venta.getClienteId() != null ? clientes.get(venta.getClienteId()) : null,
+                    venta.getIdVendedor() != null ? vendedores.get(venta.getIdVendedor()) : null));
+        }
+        return htmls;
+    }
+
+    private Comprobante renderizar(Long ventaId, String html) {
+        try {
+            return new Comprobante(ventaId, pdfGenerator.generatePdf(html), null);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo generar el PDF del ZIP: {} [Venta ID: {}]", e.getMessage(), ventaId);
+            return new Comprobante(ventaId, null, e.getMessage());
+        }
+    }
+
+    private Comprobante siguiente(CompletionService<Comprobante> renders, Set<Future<Comprobante>> enVuelo)
+            throws IOException {
+        try {
+            Future<Comprobante> listo = renders.take();
+            enVuelo.remove(listo);
+            return listo.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Descarga de comprobantes interrumpida", e);
+        } catch (ExecutionException e) {
+            // renderizar() no lanza; solo queda un error inesperado del pool
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private int escribir(ZipOutputStream zip, Comprobante comprobante, List<String> errores) throws IOException {
+        if (comprobante.pdf == null) {
+            errores.add(comprobante.ventaId + ": " + comprobante.error);
+            return 0;
+        }
+        zip.putNextEntry(new ZipEntry("Venta_" + comprobante.ventaId + ".pdf"));
+        zip.write(comprobante.pdf);
+        zip.closeEntry();
+        // Que el cliente reciba cada PDF en cuanto está listo
+        zip.flush();
+        return 1;
+    }
+
+    private static <T> Map<Long, T> porId(List<T> entidades, Function<T, Long> id) {
+        Map<Long, T> indice = new LinkedHashMap<>();
+        for (T entidad : entidades) {
+            indice.put(id.apply(entidad), entidad);
+        }
+        return indice;
+    }
+
+    @PreDestroy
+    void detener() {
+        executor.shutdownNow();
+    }
+
+    private static final class Comprobante {
+        private final Long ventaId;
+        private final byte[] pdf;
+        private final String error;
+
+        private Comprobante(Long ventaId, byte[] pdf, String error) {
+            this.ventaId = ventaId;
+            this.pdf = pdf;
+            this.error = error;
+        }
+    }
+}
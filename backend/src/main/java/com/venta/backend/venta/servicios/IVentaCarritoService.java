@@ -12,7 +12,7 @@ public interface IVentaCarritoService {
 
     VentaResumenResponse obtenerResumen(Long ventaId);
     
-    void asignarVendedor(Long ventaId, Long vendedorId);
+    Long asignarVendedor(Long ventaId, Long vendedorId, Long versionEsperada);
     
     void cancelarVenta(Long ventaId);
     
@@ -22,7 +22,7 @@ public interface IVentaCarritoService {
     
     void desasignarCliente(Long ventaId);
     
-    void guardarProductos(Long ventaId, java.util.List<com.venta.backend.venta.dto.request.GuardarProductosRequest.ProductoCarrito> productosCarrito);
+    Long guardarProductos(Long ventaId, com.venta.backend.venta.dto.request.GuardarProductosRequest request, Long versionEsperada);
     
     VentaResumenResponse calcularTotales(Long ventaId);
     
@@ -30,6 +30,17 @@ public interface IVentaCarritoService {
     
     void confirmarVenta(Long ventaId);
     
+    /**
+     * Aplica en orden una lista de operaciones del carrito sobre la misma venta, en una sola
+     * transacción. Si una falla no se aplica ninguna (OperacionCarritoException indica cuál).
+     */
+    VentaResumenResponse ejecutarOperaciones(com.venta.backend.venta.dto.request.OperacionesCarritoRequest request, Long versionEsperada);
+    
     byte[] generarPdfVenta(Long ventaId);
+    
+    /**
+     * Arma el HTML de la venta y encola su render; la respuesta HTTP se completa cuando termina.
+     */
+    java.util.concurrent.CompletableFuture<byte[]> generarPdfVentaAsync(Long ventaId);
 }
 
@@ -4,6 +4,8 @@ import com.venta.backend.venta.dto.response.VentaListadoResponse;
 import com.venta.backend.venta.dto.response.VentaPaginadaResponse;
 import com.venta.backend.venta.dto.response.VentasPorCanalResponse;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface IVentaConsultaService {
@@ -12,7 +14,13 @@ public interface IVentaConsultaService {
     
     VentaPaginadaResponse listarVentasPaginadas(int page, int size, String sortBy, String sortDir);
 
+    VentaPaginadaResponse listarVentasPorCursor(String after, int size, String sortBy, String sortDir);
+
+    void exportarVentasNdjson(OutputStream out) throws IOException;
+
     public List<VentasPorCanalResponse> obtenerVentasPorCanal();
+
+    List<VentasPorCanalResponse> recalcularVentasPorCanal();
 }
 
 
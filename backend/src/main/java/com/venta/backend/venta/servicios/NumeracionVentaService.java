@@ -0,0 +1,146 @@
+package com.venta.backend.venta.servicios;
+
+import com.venta.backend.venta.entities.SecuenciaVenta;
+import com.venta.backend.venta.entities.Venta;
+import com.venta.backend.venta.enums.OrigenVenta;
+import com.venta.backend.venta.repository.SecuenciaVentaRepositorio;
+import com.venta.backend.venta.repository.VentaRepositorio;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Genera los números de venta (VTA-XXX-nnnnnn) por origen.
+ *
+ * Reserva rangos de números del contador persistente (secuencia_venta) con un único
+ * UPDATE atómico en una transacción propia, y los reparte desde memoria con un
+ * AtomicLong. Puede haber huecos (un bloque no agotado se pierde al reiniciar),
+ * pero nunca números repetidos, aunque haya varias instancias.
+ */
+@Service
+@lombok.extern.slf4j.Slf4j
+public class NumeracionVentaService {
+
+    private final SecuenciaVentaRepositorio secuenciaVentaRepositorio;
+    private final VentaRepositorio ventaRepositorio;
+    private final TransactionTemplate transaccionNueva;
+    private final long tamanioBloque;
+
+    private final Map<OrigenVenta, Bloque> bloques = new ConcurrentHashMap<>();
+    private final Map<OrigenVenta, Object> locks = new EnumMap<>(OrigenVenta.class);
+
+    public NumeracionVentaService(
+            SecuenciaVentaRepositorio secuenciaVentaRepositorio,
+            VentaRepositorio ventaRepositorio,
+            PlatformTransactionManager transactionManager,
+            @Value("${venta.numeracion.tamanio-bloque:50}") long tamanioBloque
+    ) {
+        this.secuenciaVentaRepositorio = secuenciaVentaRepositorio;
+        this.ventaRepositorio = ventaRepositorio;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanioBloque = tamanioBloque;
+        for (OrigenVenta origen : OrigenVenta.values()) {
+            locks.put(origen, new Object());
+        }
+    }
+
+    public String siguienteNumero(OrigenVenta origen) {
+        return prefijo(origen) + String.format("%06d", siguienteValor(origen));
+    }
+
+    private long siguienteValor(OrigenVenta origen) {
+        while (true) {
+            Bloque bloque = bloques.get(origen);
+            if (bloque != null) {
+                long valor = bloque.siguiente.getAndIncrement();
+                if (valor < bloque.limite) {
+                    return valor;
+                }
+            }
+            // Bloque agotado: solo un hilo por origen reserva el siguiente
+            synchronized (locks.get(origen)) {
+                if (bloques.get(origen) == bloque) {
+                    bloques.put(origen, reservarBloque(origen));
+                }
+            }
+        }
+    }
+
+    private Bloque reservarBloque(OrigenVenta origen) {
+        Long limite = intentarReserva(origen);
+        if (limite == null) {
+            inicializarContador(origen);
+            limite = intentarReserva(origen);
+        }
+        log.debug("Bloque de numeración reservado - Origen: {}, Rango: [{}, {}) [NumeracionVentaService]",
+                origen, limite - tamanioBloque, limite);
+        return new Bloque(limite - tamanioBloque, limite);
+    }
+
+    /**
+     * @return el nuevo límite (exclusivo) del bloque reservado, o null si el contador no existe
+     */
+    private Long intentarReserva(OrigenVenta origen) {
+        return transaccionNueva.execute(status -> {
+            if (secuenciaVentaRepositorio.reservarBloque(origen, tamanioBloque) == 0) {
+                return null;
+            }
+            return secuenciaVentaRepositorio.findById(origen)
+                    .map(SecuenciaVenta::getSiguienteValor)
+                    .orElseThrow(() -> new IllegalStateException("Contador de numeración inexistente para " + origen));
+        });
+    }
+
+    /**
+     * Crea el contador continuando desde el último número emitido con el esquema anterior.
+     * Si otra instancia lo creó a la vez, la clave primaria rechaza el INSERT y se usa el existente.
+     */
+    private void inicializarContador(OrigenVenta origen) {
+        long inicial = ventaRepositorio.findFirstByOrigenVentaOrderByIdDesc(origen)
+                .map(Venta::getNumVenta)
+                .map(this::extraerCorrelativo)
+                .orElse(0L) + 1;
+        try {
+            transaccionNueva.executeWithoutResult(status ->
+                    secuenciaVentaRepositorio.crearContador(origen.name(), inicial));
+            log.info("Contador de numeración creado - Origen: {}, Inicio: {} [NumeracionVentaService]", origen, inicial);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Contador de numeración ya creado por otra instancia - Origen: {} [NumeracionVentaService]", origen);
+        }
+    }
+
+    private long extraerCorrelativo(String numVenta) {
+        try {
+            return Long.parseLong(numVenta.substring(numVenta.lastIndexOf('-') + 1));
+        } catch (RuntimeException e) {
+            return 0L;
+        }
+    }
+
+    private String prefijo(OrigenVenta origen) {
+        return switch (origen) {
+            case LEAD -> "VTA-LED-";
+            case COTIZACION -> "VTA-COT-";
+            default -> "VTA-DIR-";
+        };
+    }
+
+    private static final class Bloque {
+        private final AtomicLong siguiente;
+        private final long limite;
+
+        private Bloque(long inicio, long limite) {
+            this.siguiente = new AtomicLong(inicio);
+            this.limite = limite;
+        }
+    }
+}
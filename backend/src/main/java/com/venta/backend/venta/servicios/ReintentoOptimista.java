@@ -0,0 +1,43 @@
+package com.venta.backend.venta.servicios;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta una operación de carrito en su propia transacción y la reintenta si otra
+ * transacción modificó la misma venta (conflicto de @Version). Cada intento vuelve a
+ * cargar la venta, por lo que la operación debe ser idempotente respecto a su lectura.
+ */
+@Component
+@lombok.extern.slf4j.Slf4j
+public class ReintentoOptimista {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxIntentos;
+
+    public ReintentoOptimista(
+            PlatformTransactionManager transactionManager,
+            @Value("${venta.concurrencia.max-intentos:3}") int maxIntentos
+    ) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxIntentos = maxIntentos;
+    }
+
+    public <T> T ejecutar(Long ventaId, Supplier<T> operacion) {
+        for (int intento = 1; ; intento++) {
+            try {
+                return transactionTemplate.execute(status -> operacion.get());
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (intento >= maxIntentos) {
+                    throw e;
+                }
+                log.debug("Conflicto de versión, reintentando ({}/{}) [Venta ID: {}]", intento, maxIntentos, ventaId);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.venta.backend.venta.servicios;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Construye el acumulado de ventas por canal la primera vez que la aplicación
+ * arranca con la tabla resumen_venta_canal vacía.
+ */
+@Component
+@RequiredArgsConstructor
+@lombok.extern.slf4j.Slf4j
+public class ResumenVentaCanalInicializador {
+
+    private final ResumenVentaCanalService resumenVentaCanalService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            if (resumenVentaCanalService.estaVacio()) {
+                resumenVentaCanalService.recalcular();
+            }
+        } catch (RuntimeException e) {
+            // No impedir el arranque: el acumulado se puede reconstruir luego desde el endpoint
+            log.warn("No se pudo inicializar el resumen de ventas por canal: {} [ResumenVentaCanalInicializador]", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.venta.backend.venta.servicios;
+
+import com.venta.backend.vendedor.enums.BranchType;
+import com.venta.backend.venta.dto.response.VentasPorCanalResponse;
+import com.venta.backend.venta.entities.ResumenVentaCanal;
+import com.venta.backend.venta.entities.Venta;
+import com.venta.backend.venta.repository.ResumenVentaCanalRepositorio;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantiene el acumulado de ventas por canal (tabla resumen_venta_canal).
+ *
+ * Los métodos de registro se ejecutan dentro de la transacción del llamador
+ * (confirmar, cancelar, descontar), de modo que el acumulado y la venta se
+ * confirman o revierten juntos. recalcular() reconstruye la tabla desde cero.
+ */
+@Service
+@RequiredArgsConstructor
+@lombok.extern.slf4j.Slf4j
+public class ResumenVentaCanalService {
+
+    public static final String CANAL_LLAMADA = "LLAMADA";
+    public static final String CANAL_FISICO = "FISICO";
+    public static final String CANAL_OTRO = "OTRO";
+
+    private final ResumenVentaCanalRepositorio resumenRepositorio;
+
+    /**
+     * Suma una venta recién confirmada a su canal.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarConfirmacion(Venta venta) {
+        aplicarDelta(venta, 1, venta.getTotal());
+    }
+
+    /**
+     * Resta una venta que estaba confirmada y se cancela.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCancelacion(Venta venta) {
+        aplicarDelta(venta, -1, venta.getTotal().negate());
+    }
+
+    /**
+     * Ajusta los ingresos de una venta confirmada cuyo total cambió (p. ej. por un descuento).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambioTotal(Venta venta, BigDecimal totalAnterior) {
+        BigDecimal delta = venta.getTotal().subtract(totalAnterior);
+        if (delta.signum() != 0) {
+            aplicarDelta(venta, 0, delta);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<VentasPorCanalResponse> obtenerVentasPorCanal() {
+        return resumenRepositorio.findAll().stream()
+                .filter(resumen -> resumen.getCantidadVentas() > 0)
+                .map(resumen -> VentasPorCanalResponse.builder()
+                        .canal(resumen.getCanal())
+                        .cantidadVentas(resumen.getCantidadVentas())
+                        .ingresosTotales(resumen.getIngresosTotales())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Reconstruye el acumulado con una única agregación SQL sobre las ventas confirmadas.
+     */
+    @Transactional
+    public List<VentasPorCanalResponse> recalcular() {
+        Map<String, ResumenVentaCanal> resumenes = new LinkedHashMap<>();
+        for (String canal : List.of(CANAL_LLAMADA, CANAL_FISICO, CANAL_OTRO)) {
+            resumenes.put(canal, new ResumenVentaCanal(canal, 0L, BigDecimal.ZERO));
+        }
+
+        for (Object[] fila : resumenRepositorio.agregarVentasConfirmadasPorTipoSede()) {
+            ResumenVentaCanal resumen = resumenes.get(canalDe((BranchType) fila[0]));
+            resumen.setCantidadVentas(resumen.getCantidadVentas() + ((Number) fila[1]).longValue());
+            resumen.setIngresosTotales(resumen.getIngresosTotales().add(new BigDecimal(fila[2].toString())));
+        }
+
+        resumenRepositorio.deleteAllInBatch();
+        resumenRepositorio.saveAll(resumenes.values());
+        log.info("Resumen de ventas por canal recalculado [ResumenVentaCanalService]");
+        return obtenerVentasPorCanal();
+    }
+
+    @Transactional(readOnly = true)
+    public boolean estaVacio() {
+        return resumenRepositorio.count() == 0;
+    }
+
+    private void aplicarDelta(Venta venta, long cantidad, BigDecimal ingresos) {
+        // Igual que el cálculo original: las ventas sin vendedor no cuentan para ningún canal
+        if (venta.getIdVendedor() == null) {
+            return;
+        }
+        String canal = canalDe(resumenRepositorio.findTipoSedeDeVendedor(venta.getIdVendedor()).orElse(null));
+        if (resumenRepositorio.sumar(canal, cantidad, ingresos) == 0) {
+            log.warn("Canal {} no inicializado en resumen_venta_canal; ejecutar el recálculo [Venta ID: {}]", canal, venta.getId());
+        }
+    }
+
+    private static String canalDe(BranchType tipoSede) {
+        if (tipoSede == null) {
+            return CANAL_OTRO;
+        }
+        // MÓDULO, CENTRO_DE_ATENCION, AUTHORIZED_DEALER se agrupan en FÍSICO
+        return tipoSede == BranchType.CALL_CENTER ? CANAL_LLAMADA : CANAL_FISICO;
+    }
+}
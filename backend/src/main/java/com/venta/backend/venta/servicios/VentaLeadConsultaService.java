@@ -24,6 +24,7 @@ public class VentaLeadConsultaService {
     private final VentaRepositorio ventaRepositorio;
     private final VentaLeadRepositorio ventaLeadRepositorio;
     private final ClienteRepositorio clienteRepositorio;
+    private final BorradorVentaCache borradorVentaCache;
 
     /**
      * Lista todas las ventas lead que están en estado BORRADOR (pendientes de atender)
@@ -68,7 +69,8 @@ public class VentaLeadConsultaService {
      * Obtiene el detalle completo de una venta lead para cargar en el formulario
      */
     public VentaLeadDetalleResponse obtenerDetalleVentaLead(Long ventaId) {
-        Venta venta = ventaRepositorio.findById(ventaId)
+        Venta venta = borradorVentaCache.leer(ventaId)
+                .or(() -> ventaRepositorio.findById(ventaId))
                 .orElseThrow(() -> new RuntimeException("Venta no encontrada"));
 
         VentaLead ventaLead = ventaLeadRepositorio.findByIdVenta(ventaId)
@@ -26,6 +26,7 @@ public class VentaLeadService {
     private final VentaRepositorio ventaRepositorio;
     private final VentaLeadRepositorio ventaLeadRepositorio;
     private final IClienteAdminServicio clienteAdminServicio;
+    private final NumeracionVentaService numeracionVentaService;
 
     @Transactional
     public VentaLeadResponse crearVentaDesdeLeadMarketing(CrearVentaLeadRequest request) {
@@ -36,7 +37,7 @@ public class VentaLeadService {
         log.info("Cliente registrado/obtenido con éxito - ID Cliente: {} [VentaLeadService]", clienteId);
         
         // 2. Generar número de venta para LEAD
-        String numVenta = generarNumeroVenta(OrigenVenta.LEAD);
+        String numVenta = numeracionVentaService.siguienteNumero(OrigenVenta.LEAD);
         log.debug("Número de venta generado: {} [VentaLeadService]", numVenta);
         
         // 3. Crear venta en estado BORRADOR
@@ -101,19 +102,4 @@ public class VentaLeadService {
             throw new RuntimeException("Error al registrar cliente: " + e.getMessage(), e);
         }
     }
-
-    private String generarNumeroVenta(OrigenVenta origen) {
-        String prefijo = "VTA-LED-";
-        
-        // Buscar la última venta del mismo origen
-        return ventaRepositorio.findFirstByOrigenVentaOrderByIdDesc(origen)
-                .map(ultimaVenta -> {
-                    String ultimoNumero = ultimaVenta.getNumVenta();
-                    // Extraer el número secuencial (últimos 6 dígitos)
-                    String numeroStr = ultimoNumero.substring(ultimoNumero.length() - 6);
-                    int numero = Integer.parseInt(numeroStr);
-                    return String.format("%s%06d", prefijo, numero + 1);
-                })
-                .orElse(prefijo + "000001"); // Primera venta de este origen
-    }
 }
@@ -0,0 +1,116 @@
+package com.venta.backend.cliente.infraestructura.busqueda;
+
+import com.venta.backend.cliente.entities.Cliente;
+import com.venta.backend.cliente.enums.EstadoClienteEnum;
+import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClienteBusquedaIndiceTest {
+
+    private ClienteBusquedaIndice indice;
+
+    @BeforeEach
+    void setUp() {
+        ClienteRepositorio clienteRepositorio = mock(ClienteRepositorio.class);
+        when(clienteRepositorio.streamDatosBusqueda()).thenReturn(Stream.empty());
+        indice = new ClienteBusquedaIndice(clienteRepositorio, mock(PlatformTransactionManager.class));
+        indice.inicializar();
+    }
+
+    @Test
+    void sigueEncontrandoTodoAlCrecerMasAllaDelFactorDeCarga() {
+        // Las tablas empiezan con 1024 posiciones y crecen al superar 3/4 de ocupación
+        int cantidad = 5_000;
+        for (long id = 1; id <= cantidad; id++) {
+            indice.registrar(cliente(id, "Nombre" + id, "Apellido", String.valueOf(40_000_000 + id), "cliente" + id + "@correo.com"));
+        }
+
+        for (long id = 1; id <= cantidad; id++) {
+            assertThat(ids("4" + String.format("%07d", id), null)).containsExactly(id);
+            assertThat(ids("cliente" + id + "@", null)).containsExactly(id);
+        }
+        assertThat(indice.buscar("apellido", null, 0, 10).orElseThrow().getTotal()).isEqualTo(cantidad);
+    }
+
+    @Test
+    void alCambiarNombreOEmailSeQuitanLosTrigramasAnteriores() {
+        indice.registrar(cliente(1, "Ana", "Torres", "11111111", "ana.torres@correo.com"));
+        indice.registrar(cliente(2, "Beatriz", "Torres", "22222222", "beatriz@correo.com"));
+        assertThat(indice.clientesConTrigrama("ana")).isEqualTo(1);
+
+        indice.registrar(cliente(1, "Carla", "Torres", "11111111", "carla.t@otro.pe"));
+
+        assertThat(ids("ana", null)).isEmpty();
+        assertThat(ids("ana.torres", null)).isEmpty();
+        assertThat(ids("carla", null)).containsExactly(1L);
+        assertThat(ids("otro.pe", null)).containsExactly(1L);
+        assertThat(ids("torres", null)).containsExactly(1L, 2L);
+        assertThat(indice.clientesConTrigrama("ana")).isZero();
+        assertThat(indice.clientesConTrigrama("tor")).isEqualTo(2);
+    }
+
+    @Test
+    void ignoraTildesYMayusculasComoLaIntercalacionDeMySql() {
+        indice.registrar(cliente(1, "José", "Núñez", "33333333", "JOSE.NUNEZ@Correo.com"));
+        indice.registrar(cliente(2, "Müller", "Ávila", "44444444", "muller@correo.com"));
+
+        assertThat(ids("JOSE", null)).containsExactly(1L);
+        assertThat(ids("nunez", null)).containsExactly(1L);
+        assertThat(ids("NÚÑEZ", null)).containsExactly(1L);
+        assertThat(ids("josé núñez", null)).containsExactly(1L);
+        assertThat(ids("jose.nunez@correo", null)).containsExactly(1L);
+        assertThat(ids("MULLER", null)).containsExactly(2L);
+        assertThat(ids("avila", null)).containsExactly(2L);
+    }
+
+    @Test
+    void ordenaPorRelevanciaYLuegoPorId() {
+        indice.registrar(cliente(1, "Rosa", "Almendoz", "50000001", "rosa@correo.com"));            // contiene
+        indice.registrar(cliente(2, "Luis", "Paredes", "50000002", "ventas.mendoza@correo.com"));   // inicio de palabra
+        indice.registrar(cliente(3, "Pedro", "Mendoza", "50000003", "pedro@correo.com"));           // inicio de campo
+        indice.registrar(cliente(4, "Eva", "Mendo", "50000004", "eva@correo.com"));                 // campo idéntico
+        indice.registrar(cliente(5, "Mendoza", "Quispe", "50000005", "mq@correo.com"));             // inicio de campo
+        indice.registrar(cliente(6, "Mendoza", "Rojas", "50000006", "mr@correo.com", EstadoClienteEnum.INACTIVO));
+
+        assertThat(ids("mendo", EstadoClienteEnum.ACTIVO)).containsExactly(4L, 3L, 5L, 2L, 1L);
+
+        ClienteBusquedaIndice.Resultado pagina = indice.buscar("MENDO", null, 2, 2).orElseThrow();
+        assertThat(pagina.getClienteIds()).containsExactly(5L, 6L);
+        assertThat(pagina.getTotal()).isEqualTo(6);
+    }
+
+    @Test
+    void noRespondeConFiltrosDeMenosDeTresCaracteres() {
+        indice.registrar(cliente(1, "Ana", "Torres", "11111111", "ana@correo.com"));
+
+        assertThat(indice.buscar("an", null, 0, 10)).isEmpty();
+    }
+
+    private List<Long> ids(String filtro, EstadoClienteEnum estado) {
+        return indice.buscar(filtro, estado, 0, 100).orElseThrow().getClienteIds();
+    }
+
+    private static Cliente cliente(long id, String nombre, String apellido, String dni, String email) {
+        return cliente(id, nombre, apellido, dni, email, EstadoClienteEnum.ACTIVO);
+    }
+
+    private static Cliente cliente(long id, String nombre, String apellido, String dni, String email, EstadoClienteEnum estado) {
+        return Cliente.builder()
+                .clienteId(id)
+                .firstName(nombre)
+                .lastName(apellido)
+                .dni(dni)
+                .email(email)
+                .estado(estado)
+                .build();
+    }
+}
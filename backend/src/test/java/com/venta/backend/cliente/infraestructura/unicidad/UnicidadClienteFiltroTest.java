@@ -0,0 +1,167 @@
+package com.venta.backend.cliente.infraestructura.unicidad;
+
+import com.venta.backend.cliente.enums.EstadoClienteEnum;
+import com.venta.backend.cliente.infraestructura.repository.ClienteBusquedaProjection;
+import com.venta.backend.cliente.infraestructura.repository.ClienteRepositorio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UnicidadClienteFiltroTest {
+
+    // Capacidad mínima de los filtros: un valor más dispara la reconstrucción
+    private static final int CAPACIDAD = 10_000;
+
+    private ClienteRepositorio clienteRepositorio;
+    private UnicidadClienteFiltro filtro;
+    private final CountDownLatch leyendo = new CountDownLatch(1);
+    private final CountDownLatch continuar = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        clienteRepositorio = mock(ClienteRepositorio.class);
+        when(clienteRepositorio.count()).thenReturn(0L);
+        filtro = new UnicidadClienteFiltro(clienteRepositorio, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 0.01);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        filtro.detener();
+    }
+
+    @Test
+    void respondeAusenteSoloParaValoresQueNoExisten() {
+        when(clienteRepositorio.streamDatosBusqueda())
+                .thenReturn(Stream.of(proyeccion("10000001", "Ana.Perez@Correo.com")));
+
+        filtro.inicializar();
+
+        assertThat(filtro.podriaExistirDni("10000001")).isTrue();
+        assertThat(filtro.podriaExistirEmail("ana.pérez@correo.com")).isTrue();
+        assertThat(filtro.podriaExistirDni("99999999")).isFalse();
+        assertThat(filtro.podriaExistirEmail("otra@correo.com")).isFalse();
+    }
+
+    @Test
+    void registradosDuranteLaCargaInicialNoDanFalsosNegativos() throws Exception {
+        when(clienteRepositorio.streamDatosBusqueda()).thenAnswer(invocacion -> {
+            leyendo.countDown();
+            continuar.await(5, TimeUnit.SECONDS);
+            return Stream.of(proyeccion("10000001", "uno@correo.com"));
+        });
+        CompletableFuture<Void> carga = CompletableFuture.runAsync(filtro::inicializar);
+
+        leyendo.await(5, TimeUnit.SECONDS);
+        filtro.registrar("20000002", "dos@correo.com");
+        continuar.countDown();
+        carga.get(5, TimeUnit.SECONDS);
+
+        assertThat(filtro.podriaExistirDni("10000001")).isTrue();
+        assertThat(filtro.podriaExistirDni("20000002")).isTrue();
+        assertThat(filtro.podriaExistirEmail("dos@correo.com")).isTrue();
+    }
+
+    @Test
+    void registradosDuranteUnaReconstruccionNoDanFalsosNegativos() throws Exception {
+        List<ClienteBusquedaProjection> enBase = new ArrayList<>();
+        for (int i = 0; i <= CAPACIDAD; i++) {
+            enBase.add(proyeccion("D" + i, "e" + i + "@correo.com"));
+        }
+        enBase.add(proyeccion("SOLO-EN-BASE", null));
+        when(clienteRepositorio.streamDatosBusqueda())
+                .thenReturn(Stream.empty())
+                .thenAnswer(invocacion -> {
+                    leyendo.countDown();
+                    continuar.await(5, TimeUnit.SECONDS);
+                    return enBase.stream();
+                });
+        filtro.inicializar();
+
+        // Un alta en una transacción que sigue abierta cuando empieza la reconstrucción
+        TransactionSynchronizationManager.initSynchronization();
+        filtro.registrar("EN-VUELO", "en.vuelo@correo.com");
+
+        // Superar la capacidad dispara la reconstrucción en segundo plano
+        for (int i = 0; i <= CAPACIDAD; i++) {
+            filtro.registrar("D" + i, "e" + i + "@correo.com");
+        }
+        assertThat(leyendo.await(5, TimeUnit.SECONDS)).isTrue();
+        filtro.registrar("DURANTE", "durante@correo.com");
+        continuar.countDown();
+        esperarReconstruccion();
+
+        // Ninguno de los dos está en lo que leyó la reconstrucción
+        assertThat(filtro.podriaExistirDni("DURANTE")).isTrue();
+        assertThat(filtro.podriaExistirEmail("durante@correo.com")).isTrue();
+        assertThat(filtro.podriaExistirDni("EN-VUELO")).isTrue();
+        assertThat(filtro.podriaExistirEmail("en.vuelo@correo.com")).isTrue();
+        for (int i = 0; i <= CAPACIDAD; i++) {
+            assertThat(filtro.podriaExistirDni("D" + i)).isTrue();
+        }
+
+        List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(sincronizaciones, TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private void esperarReconstruccion() throws InterruptedException {
+        for (int intento = 0; intento < 100 && !filtro.podriaExistirDni("SOLO-EN-BASE"); intento++) {
+            Thread.sleep(50);
+        }
+        assertThat(filtro.podriaExistirDni("SOLO-EN-BASE")).isTrue();
+    }
+
+    private static ClienteBusquedaProjection proyeccion(String dni, String email) {
+        return new ClienteBusquedaProjection() {
+            @Override
+            public Long getClienteId() {
+                return null;
+            }
+
+            @Override
+            public String getDni() {
+                return dni;
+            }
+
+            @Override
+            public String getFirstName() {
+                return null;
+            }
+
+            @Override
+            public String getLastName() {
+                return null;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+
+            @Override
+            public EstadoClienteEnum getEstado() {
+                return EstadoClienteEnum.ACTIVO;
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.venta.backend.cotizacion.infraestructura.pdf;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.venta.backend.cliente.entities.Cliente;
+import com.venta.backend.cotizacion.model.Cotizacion;
+import com.venta.backend.cotizacion.model.CotizacionEstado;
+import com.venta.backend.cotizacion.model.DetalleCotizacion;
+import com.venta.backend.producto.entity.Producto;
+import com.venta.backend.vendedor.entities.Vendedor;
+import com.venta.backend.venta.entities.Venta;
+import com.venta.backend.venta.enums.MetodoPago;
+import com.venta.backend.venta.enums.OrigenVenta;
+import com.venta.backend.venta.enums.VentaEstado;
+import com.venta.backend.venta.pdf.VentaPdfTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The per-thread renderer must produce the same pages as a brand-new renderer, whatever
+ * document it rendered before.
+ */
+class FlyingSaucerPdfAdapterTest {
+
+    @Test
+    void reusedRendererMatchesFreshRendererForDifferentDocuments() throws IOException {
+        String receipt = new VentaPdfTemplate().generateHtml(sale(), customer(), seller());
+        String quotation = new CotizacionPdfTemplate().generateHtml(quotation());
+        FlyingSaucerPdfAdapter adapter = new FlyingSaucerPdfAdapter("");
+
+        // Same thread, same renderer, back to back
+        byte[] reusedReceipt = adapter.generatePdf(receipt);
+        byte[] reusedQuotation = adapter.generatePdf(quotation);
+        byte[] reusedReceiptAgain = adapter.generatePdf(receipt);
+
+        List<String> freshReceipt = pages(new FlyingSaucerPdfAdapter("").generatePdf(receipt));
+        List<String> freshQuotation = pages(new FlyingSaucerPdfAdapter("").generatePdf(quotation));
+
+        assertThat(freshReceipt).isNotEqualTo(freshQuotation);
+        assertThat(pages(reusedReceipt)).isEqualTo(freshReceipt);
+        assertThat(pages(reusedQuotation)).isEqualTo(freshQuotation);
+        assertThat(pages(reusedReceiptAgain)).isEqualTo(freshReceipt);
+    }
+
+    /**
+     * Content stream of each page: the drawing operations, without the document id and
+     * timestamps that differ between any two renders.
+     */
+    private static List<String> pages(byte[] pdf) throws IOException {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            List<String> pages = new ArrayList<>();
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                pages.add(new String(reader.getPageContent(page), StandardCharsets.ISO_8859_1));
+            }
+            return pages;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Venta sale() {
+        Venta venta = Venta.builder()
+                .numVenta("V-000123")
+                .origenVenta(OrigenVenta.DIRECTA)
+                .estado(VentaEstado.CONFIRMADA)
+                .metodoPago(MetodoPago.values()[0])
+                .fechaVentaCreada(LocalDate.of(2025, 3, 14))
+                .build();
+        venta.agregarOActualizarItem(1L, "Laptop <15\"> & cargador", new BigDecimal("2499.90"), 1);
+        venta.agregarOActualizarItem(2L, "Mouse inalámbrico", new BigDecimal("59.50"), 3);
+        return venta;
+    }
+
+    private static Cotizacion quotation() {
+        Cotizacion cotizacion = Cotizacion.builder()
+                .numCotizacion("COT-2025-0042")
+                .fechaCotizacion(LocalDate.of(2025, 3, 10))
+                .cliente(customer())
+                .vendedor(seller())
+                .estado(CotizacionEstado.ENVIADA)
+                .validezDias(15)
+                .totalCotizado(new BigDecimal("1340.00"))
+                .build();
+        for (int i = 1; i <= 12; i++) {
+            cotizacion.getItems().add(DetalleCotizacion.builder()
+                    .producto(Producto.builder().nombre("Servicio de instalación " + i).build())
+                    .cantidad(i)
+                    .precioUnitario(new BigDecimal("10.00"))
+                    .subtotal(new BigDecimal("10.00").multiply(BigDecimal.valueOf(i)))
+                    .build());
+        }
+        return cotizacion;
+    }
+
+    private static Cliente customer() {
+        return Cliente.builder().firstName("María").lastName("Quispe").dni("12345678").phoneNumber("987654321").build();
+    }
+
+    private static Vendedor seller() {
+        return Vendedor.builder().firstName("Jorge").lastName("Ramírez").build();
+    }
+}
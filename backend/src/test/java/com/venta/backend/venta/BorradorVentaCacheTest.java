@@ -0,0 +1,151 @@
+package com.venta.backend.venta;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.venta.backend.venta.entities.DetalleVenta;
+import com.venta.backend.venta.entities.Venta;
+import com.venta.backend.venta.repository.VentaRepositorio;
+import com.venta.backend.venta.servicios.BorradorVentaCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static com.venta.backend.venta.CarritoTestCliente.item;
+import static com.venta.backend.venta.CarritoTestCliente.linea;
+import static com.venta.backend.venta.CarritoTestCliente.version;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carritos en memoria con escritura diferida (venta.borradores.habilitado) sobre H2.
+ */
+@SpringBootTest(properties = {
+        "venta.borradores.habilitado=true",
+        "venta.borradores.intervalo-escritura-ms=50"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BorradorVentaCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private VentaRepositorio ventaRepositorio;
+    @Autowired
+    private BorradorVentaCache borradorVentaCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CarritoTestCliente carrito;
+
+    @BeforeEach
+    void setUp() {
+        carrito = new CarritoTestCliente(mockMvc, objectMapper);
+    }
+
+    @Test
+    void sincronizarDejaEnLaBaseLasVersionesExpuestasComoETag() throws Exception {
+        long ventaId = carrito.crearVenta();
+        long version = version(carrito.guardar(ventaId, null, List.of(linea(1, 1, null, null), linea(2, 2, null, null))));
+        version = version(carrito.guardar(ventaId, "\"" + version + "\"", List.of(linea(1, 4, null, null), linea(3, 1, null, null))));
+        MvcResult resumen = carrito.resumen(ventaId);
+        JsonNode lineas = objectMapper.readTree(resumen.getResponse().getContentAsString());
+        assertThat(version(resumen)).isEqualTo(version);
+
+        borradorVentaCache.sincronizar(ventaId);
+
+        Venta guardada = leerDeLaBase(ventaId);
+        assertThat(guardada.getVersion()).isEqualTo(version);
+        Map<Long, Long> versionesPorProducto = new HashMap<>();
+        for (DetalleVenta detalle : guardada.getDetalles()) {
+            versionesPorProducto.put(detalle.getIdProducto(), detalle.getVersion());
+        }
+        assertThat(versionesPorProducto).containsOnlyKeys(1L, 3L);
+        assertThat(versionesPorProducto.get(1L)).isEqualTo(item(lineas, 1).get("version").asLong());
+        assertThat(versionesPorProducto.get(3L)).isEqualTo(item(lineas, 3).get("version").asLong());
+    }
+
+    @Test
+    void conflictoDeEscrituraEnSegundoPlanoSeInformaConUn409() throws Exception {
+        long ventaId = carrito.crearVenta();
+        carrito.guardar(ventaId, null, List.of(linea(1, 1, null, null)));
+        borradorVentaCache.sincronizar(ventaId);
+        long versionEnMemoria = version(carrito.resumen(ventaId));
+
+        // Otro camino modifica la venta en la base mientras está cargada en memoria
+        jdbcTemplate.update("UPDATE venta SET version = version + 1 WHERE id_venta = ?", ventaId);
+        carrito.guardar(ventaId, "\"" + versionEnMemoria + "\"", List.of(linea(1, 7, null, null)));
+
+        int estado = esperarEstado(ventaId, 409);
+        assertThat(estado).isEqualTo(409);
+
+        // La entrada se quitó: la siguiente lectura recarga desde la base
+        MvcResult recargado = carrito.resumen(ventaId);
+        assertThat(recargado.getResponse().getStatus()).isEqualTo(200);
+        assertThat(version(recargado)).isEqualTo(versionEnMemoria + 1);
+        JsonNode lineas = objectMapper.readTree(recargado.getResponse().getContentAsString());
+        assertThat(item(lineas, 1).get("cantidad").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    void noSeRecargaEnMemoriaHastaQueTermineLaTransaccionQueSincronizo() throws Exception {
+        long ventaId = carrito.crearVenta();
+        carrito.guardar(ventaId, null, List.of(linea(1, 1, null, null)));
+        assertThat(borradorVentaCache.leer(ventaId)).isPresent();
+
+        CountDownLatch sincronizada = new CountDownLatch(1);
+        CountDownLatch terminar = new CountDownLatch(1);
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        CompletableFuture<Void> confirmacion = CompletableFuture.runAsync(() -> transaccion.executeWithoutResult(status -> {
+            borradorVentaCache.sincronizar(ventaId);
+            sincronizada.countDown();
+            try {
+                terminar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        sincronizada.await();
+        assertThat(borradorVentaCache.leer(ventaId)).isEmpty();
+
+        terminar.countDown();
+        confirmacion.join();
+        assertThat(borradorVentaCache.leer(ventaId)).isPresent();
+    }
+
+    private Venta leerDeLaBase(long ventaId) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        return transaccion.execute(status -> {
+            Venta venta = ventaRepositorio.findById(ventaId).orElseThrow();
+            venta.getDetalles().size();
+            return venta;
+        });
+    }
+
+    private int esperarEstado(long ventaId, int esperado) throws Exception {
+        int estado = 0;
+        for (int intento = 0; intento < 100 && estado != esperado; intento++) {
+            Thread.sleep(50);
+            estado = carrito.resumen(ventaId).getResponse().getStatus();
+        }
+        return estado;
+    }
+}
@@ -0,0 +1,82 @@
+package com.venta.backend.venta;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Llamadas HTTP al carrito de ventas para las pruebas de integración.
+ */
+class CarritoTestCliente {
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+
+    CarritoTestCliente(MockMvc mockMvc, ObjectMapper objectMapper) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+    }
+
+    long crearVenta() throws Exception {
+        MvcResult resultado = mockMvc.perform(post("/api/venta/directa/borrador")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"usuarioCreador\":\"pruebas\"}"))
+                .andReturn();
+        return objectMapper.readTree(resultado.getResponse().getContentAsString()).get("ventaId").asLong();
+    }
+
+    MvcResult resumen(long ventaId) throws Exception {
+        return mockMvc.perform(get("/api/venta/{ventaId}/carrito", ventaId)).andReturn();
+    }
+
+    JsonNode leerResumen(long ventaId) throws Exception {
+        return objectMapper.readTree(resumen(ventaId).getResponse().getContentAsString());
+    }
+
+    MvcResult guardar(long ventaId, String ifMatch, List<Map<String, Object>> productos) throws Exception {
+        MockHttpServletRequestBuilder peticion = post("/api/venta/{ventaId}/guardar-productos", ventaId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("productos", productos)));
+        if (ifMatch != null) {
+            peticion.header("If-Match", ifMatch);
+        }
+        return mockMvc.perform(peticion).andReturn();
+    }
+
+    /**
+     * Línea del carrito tal como la envía el frontend, con la versión y la cantidad que vio.
+     */
+    static Map<String, Object> linea(long idProducto, int cantidad, Long version, Integer cantidadOriginal) {
+        Map<String, Object> linea = new HashMap<>();
+        linea.put("idProducto", idProducto);
+        linea.put("nombreProducto", "Producto " + idProducto);
+        linea.put("precioUnitario", "10.00");
+        linea.put("cantidad", cantidad);
+        linea.put("version", version);
+        linea.put("cantidadOriginal", cantidadOriginal);
+        return linea;
+    }
+
+    static JsonNode item(JsonNode resumen, long idProducto) {
+        for (JsonNode item : resumen.get("items")) {
+            if (item.get("itemProductoId").asLong() == idProducto) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    static long version(MvcResult resultado) {
+        return Long.parseLong(resultado.getResponse().getHeader("ETag").replace("\"", ""));
+    }
+}
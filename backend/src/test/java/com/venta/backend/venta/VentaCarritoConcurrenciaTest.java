@@ -0,0 +1,121 @@
+package com.venta.backend.venta;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.venta.backend.venta.repository.VentaRepositorio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.venta.backend.venta.CarritoTestCliente.item;
+import static com.venta.backend.venta.CarritoTestCliente.linea;
+import static com.venta.backend.venta.CarritoTestCliente.version;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ediciones concurrentes del carrito contra la base de datos (caché de carritos deshabilitada).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class VentaCarritoConcurrenciaTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private VentaRepositorio ventaRepositorio;
+
+    private CarritoTestCliente carrito;
+
+    @BeforeEach
+    void setUp() {
+        carrito = new CarritoTestCliente(mockMvc, objectMapper);
+    }
+
+    @Test
+    void edicionesConcurrentesDeLineasDistintasSeFusionan() throws Exception {
+        long ventaId = carrito.crearVenta();
+        long versionInicial = version(carrito.guardar(ventaId, null, List.of(linea(1, 1, null, null), linea(2, 1, null, null))));
+        JsonNode visto = carrito.leerResumen(ventaId);
+        Long versionA = item(visto, 1).get("version").asLong();
+        Long versionB = item(visto, 2).get("version").asLong();
+        String ifMatch = "\"" + versionInicial + "\"";
+
+        // Dos pestañas parten de la misma versión: una cambia el producto 1, la otra el 2
+        List<MvcResult> resultados = enParalelo(
+                () -> carrito.guardar(ventaId, ifMatch, List.of(linea(1, 3, versionA, 1), linea(2, 1, versionB, 1))),
+                () -> carrito.guardar(ventaId, ifMatch, List.of(linea(1, 1, versionA, 1), linea(2, 5, versionB, 1))));
+
+        assertThat(resultados).allSatisfy(resultado -> assertThat(resultado.getResponse().getStatus()).isEqualTo(204));
+        MvcResult ultimo = carrito.resumen(ventaId);
+        JsonNode resumen = objectMapper.readTree(ultimo.getResponse().getContentAsString());
+        assertThat(item(resumen, 1).get("cantidad").asInt()).isEqualTo(3);
+        assertThat(item(resumen, 2).get("cantidad").asInt()).isEqualTo(5);
+        assertThat(resumen.get("total").decimalValue()).isEqualByComparingTo("80.00");
+        assertThat(version(ultimo)).isEqualTo(ventaRepositorio.findById(ventaId).orElseThrow().getVersion());
+    }
+
+    @Test
+    void edicionesConcurrentesDeLaMismaLineaDevuelven409() throws Exception {
+        long ventaId = carrito.crearVenta();
+        long versionInicial = version(carrito.guardar(ventaId, null, List.of(linea(1, 1, null, null))));
+        Long versionLinea = item(carrito.leerResumen(ventaId), 1).get("version").asLong();
+        String ifMatch = "\"" + versionInicial + "\"";
+
+        List<MvcResult> resultados = enParalelo(
+                () -> carrito.guardar(ventaId, ifMatch, List.of(linea(1, 3, versionLinea, 1))),
+                () -> carrito.guardar(ventaId, ifMatch, List.of(linea(1, 4, versionLinea, 1))));
+
+        List<Integer> estados = resultados.stream().map(resultado -> resultado.getResponse().getStatus()).toList();
+        assertThat(estados).containsExactlyInAnyOrder(204, 409);
+        int cantidadGanadora = estados.get(0) == 204 ? 3 : 4;
+        assertThat(item(carrito.leerResumen(ventaId), 1).get("cantidad").asInt()).isEqualTo(cantidadGanadora);
+    }
+
+    @Test
+    void ifMatchMalFormadoDevuelve400() throws Exception {
+        long ventaId = carrito.crearVenta();
+
+        MvcResult resultado = carrito.guardar(ventaId, "\"abc\"", List.of(linea(1, 1, null, null)));
+
+        assertThat(resultado.getResponse().getStatus()).isEqualTo(400);
+    }
+
+    @SafeVarargs
+    private static List<MvcResult> enParalelo(Callable<MvcResult>... peticiones) throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(peticiones.length);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<MvcResult>> pendientes = new ArrayList<>();
+            for (Callable<MvcResult> peticion : peticiones) {
+                pendientes.add(hilos.submit(() -> {
+                    largada.await();
+                    return peticion.call();
+                }));
+            }
+            largada.countDown();
+            List<MvcResult> resultados = new ArrayList<>();
+            for (Future<MvcResult> pendiente : pendientes) {
+                resultados.add(pendiente.get());
+            }
+            return resultados;
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+-- ============================================================================
+-- SCRIPT DE MIGRACIÓN: Métricas por cliente del reporte general
+-- ============================================================================
+-- El reporte general (/api/reportes/general y /descargar-excel) lee estas tablas
+-- en lugar de agrupar todo el historial en cada llamada. Se actualizan al
+-- confirmar, cancelar o descontar una venta y al crear o cambiar el estado de
+-- una cotización. Si están vacías, la aplicación las llena al arrancar;
+-- POST /api/reportes/metricas-clientes/recalcular las reconstruye.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS cliente_metricas_compras (
+    cliente_id BIGINT PRIMARY KEY,
+    total_ventas BIGINT NOT NULL DEFAULT 0 COMMENT 'Ventas CONFIRMADAS del cliente',
+    monto_acumulado DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    descuento_acumulado DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    fecha_ultima_compra DATE NULL
+);
+
+CREATE TABLE IF NOT EXISTS cliente_metricas_cotizaciones (
+    cliente_id BIGINT PRIMARY KEY,
+    total_cotizaciones BIGINT NOT NULL DEFAULT 0,
+    cotizaciones_aceptadas BIGINT NOT NULL DEFAULT 0
+);
@@ -0,0 +1,20 @@
+-- ============================================================================
+-- SCRIPT DE MIGRACIÓN: Generador de IDs por bloques para DetalleVenta
+-- ============================================================================
+-- DetalleVenta deja de usar AUTO_INCREMENT desde Hibernate y reserva IDs de
+-- 50 en 50 de esta tabla (emulación de secuencia en MySQL), lo que permite
+-- insertar los detalles en lotes JDBC.
+--
+-- El valor inicial es MAX(id) + 50 y no MAX(id) + 1: con allocationSize = 50
+-- Hibernate usa el optimizador "pooled", que toma el valor leído como el tope
+-- del bloque y reparte valor-49 .. valor. Sembrar MAX + 1 haría que el primer
+-- bloque reutilice los IDs MAX-48 .. MAX y falle con clave primaria duplicada.
+-- Debe ser al menos MAX(id) + allocationSize.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS detalle_venta_seq (
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO detalle_venta_seq (next_val)
+SELECT COALESCE(MAX(id_detalle_venta), 0) + 50 FROM detalle_venta;
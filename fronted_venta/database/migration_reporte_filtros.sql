@@ -0,0 +1,9 @@
+-- ============================================================================
+-- SCRIPT DE MIGRACIÓN: Índice para los filtros del reporte general
+-- ============================================================================
+-- GET /api/reportes/general (y sus exportaciones) filtra por rango de fecha de
+-- venta y, opcionalmente, por vendedor. El rango solo usa idx_venta_fecha_creada_id;
+-- con vendedor este índice compuesto evita recorrer todas las ventas del mes.
+-- ============================================================================
+
+CREATE INDEX idx_venta_vendedor_fecha ON venta (id_vendedor, fecha_venta_creada);
@@ -0,0 +1,14 @@
+-- ============================================================================
+-- SCRIPT DE MIGRACIÓN: Acumulado de ventas por canal
+-- ============================================================================
+-- GET /api/venta/analisis/ventas-por-canal lee esta tabla, que se actualiza al
+-- confirmar, cancelar o descontar una venta. Si está vacía, la aplicación la
+-- llena al arrancar; POST /api/venta/analisis/ventas-por-canal/recalcular la
+-- reconstruye en cualquier momento.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS resumen_venta_canal (
+    canal VARCHAR(20) PRIMARY KEY COMMENT 'LLAMADA, FISICO u OTRO',
+    cantidad_ventas BIGINT NOT NULL DEFAULT 0,
+    ingresos_totales DECIMAL(14,2) NOT NULL DEFAULT 0.00
+);
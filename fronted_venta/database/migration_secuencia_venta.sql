@@ -0,0 +1,17 @@
+-- ============================================================================
+-- SCRIPT DE MIGRACIÓN: Numeración de ventas por bloques
+-- ============================================================================
+-- NumeracionVentaService reserva rangos de números de este contador con un
+-- UPDATE atómico y los reparte desde memoria. Si la fila de un origen no existe,
+-- el servicio la crea continuando desde el último num_venta emitido.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS secuencia_venta (
+    origen_venta VARCHAR(20) PRIMARY KEY COMMENT 'DIRECTA, LEAD o COTIZACION',
+    siguiente_valor BIGINT NOT NULL COMMENT 'Primer número aún no reservado'
+);
+
+-- La unicidad del número de venta pasa a garantizarla la base de datos.
+-- Revisar y corregir antes los num_venta duplicados generados por el esquema anterior:
+--   SELECT num_venta, COUNT(*) FROM venta GROUP BY num_venta HAVING COUNT(*) > 1;
+ALTER TABLE venta ADD CONSTRAINT uk_venta_num_venta UNIQUE (num_venta);
@@ -0,0 +1,8 @@
+-- ============================================================================
+-- SCRIPT DE MIGRACIÓN: Índice para la paginación por cursor del listado de ventas
+-- ============================================================================
+-- GET /api/venta/paginadas?cursor=true busca con un predicado de rango sobre
+-- (fecha_venta_creada, id_venta); este índice compuesto evita el escaneo.
+-- ============================================================================
+
+CREATE INDEX idx_venta_fecha_creada_id ON venta (fecha_venta_creada, id_venta);
@@ -0,0 +1,9 @@
+-- ============================================================================
+-- SCRIPT DE MIGRACIÓN: Control de concurrencia optimista en ventas
+-- ============================================================================
+-- Venta y DetalleVenta usan @Version; los endpoints del carrito exponen la
+-- versión de la venta como ETag y aceptan If-Match.
+-- ============================================================================
+
+ALTER TABLE venta ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE detalle_venta ADD COLUMN version BIGINT NOT NULL DEFAULT 0;